@@ -0,0 +1,91 @@
+package com.example.library.benchmark;
+
+import com.example.library.lock.BookLockManager;
+import com.example.library.repository.BookRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// aceeasi sectiune critica (decrement + increment intr-o tranzactie) protejata in trei feluri:
+// lock-uri pe stripe-uri, un singur lock global si lock pe rand in DB (SELECT ... FOR UPDATE)
+// hotBooks = 1 -> toate thread-urile pe aceeasi carte; 256 -> carti diferite, contentie mica
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class BookLockBenchmark {
+
+    @Param({"1", "256"})
+    public int hotBooks;
+
+    private final ReentrantLock globalLock = new ReentrantLock();
+
+    private BookLockManager stripedLocks;
+    private BookRepository bookRepository;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private List<Long> bookIds;
+
+    @Setup
+    public void setUp(LibraryState state) {
+        stripedLocks = new BookLockManager(64);
+        bookRepository = state.bean(BookRepository.class);
+        jdbcTemplate = state.bean(JdbcTemplate.class);
+        transactionTemplate = new TransactionTemplate(state.bean(PlatformTransactionManager.class));
+        List<Long> borrowable = state.data().getBorrowableBookIds();
+        bookIds = borrowable.subList(0, Math.min(hotBooks, borrowable.size()));
+    }
+
+    private Integer borrowAndReturn(Long bookId) {
+        return transactionTemplate.execute(status -> {
+            bookRepository.decrementAvailableCopies(bookId);
+            return bookRepository.incrementAvailableCopies(bookId);
+        });
+    }
+
+    @Benchmark
+    public Integer stripedLock(RandomPicker picker) {
+        Long bookId = picker.pick(bookIds);
+        return stripedLocks.withLock(bookId, () -> borrowAndReturn(bookId));
+    }
+
+    @Benchmark
+    public Integer globalLock(RandomPicker picker) {
+        Long bookId = picker.pick(bookIds);
+        globalLock.lock();
+        try {
+            return borrowAndReturn(bookId);
+        } finally {
+            globalLock.unlock();
+        }
+    }
+
+    @Benchmark
+    public Integer dbRowLock(RandomPicker picker) {
+        Long bookId = picker.pick(bookIds);
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.queryForObject("SELECT id FROM books WHERE id = ? FOR UPDATE", Long.class, bookId);
+            bookRepository.decrementAvailableCopies(bookId);
+            return bookRepository.incrementAvailableCopies(bookId);
+        });
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.library.benchmark;
+
+import com.example.library.model.Book;
+import com.example.library.repository.BookRepository;
+import com.example.library.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogSearchBenchmark {
+
+    // un cuvant, doua cuvinte, prefix scurt
+    @Param({"river", "silent garden", "tol"})
+    public String keyword;
+
+    private BookService bookService;
+    private BookRepository bookRepository;
+
+    @Setup
+    public void setUp(LibraryState state) {
+        bookService = state.bean(BookService.class);
+        bookRepository = state.bean(BookRepository.class);
+    }
+
+    @Benchmark
+    public List<Book> searchAnywhere() {
+        return bookService.searchAnywhere(keyword);
+    }
+
+    @Benchmark
+    public List<Book> searchByTitle() {
+        return bookService.searchByTitle(keyword);
+    }
+
+    @Benchmark
+    public List<Book> searchRanked() {
+        return bookService.searchRanked(keyword, 20);
+    }
+
+    // fallback-ul din DB (LIKE '%x%'), ca reper pentru index + cache
+    @Benchmark
+    public List<Book> searchAnywhereSql() {
+        return bookRepository
+                .findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCaseOrCategory_NameContainingIgnoreCase(
+                        keyword, keyword, keyword);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.library.benchmark;
+
+import com.example.library.LibraryApplication;
+import com.example.library.loan.DueDateIndex;
+import com.example.library.search.BookSearchIndex;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// aplicatia completa pe H2 in memorie, cu date sintetice generate din seed fix
+// o instanta per fork: contextul porneste o singura data, inainte de warmup
+@State(Scope.Benchmark)
+public class LibraryState {
+
+    public static final long SEED = 42L;
+
+    @Param({"5000"})
+    public int books;
+
+    private ConfigurableApplicationContext context;
+    private SyntheticData data;
+
+    @Setup(Level.Trial)
+    public void start() {
+        // ca argumente de linie de comanda, altfel application.properties (MySQL) are prioritate
+        String[] args = {
+                "--spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--server.port=0",
+                "--logging.level.root=WARN"
+        };
+        context = new SpringApplicationBuilder(LibraryApplication.class)
+                .logStartupInfo(false)
+                .run(args);
+
+        data = new SyntheticData(context, SEED).seed(books);
+        // indexul s-a construit pe baza goala la ApplicationReadyEvent
+        context.getBean(BookSearchIndex.class).rebuild();
+        context.getBean(DueDateIndex.class).rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public SyntheticData data() {
+        return data;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.library.benchmark;
+
+import com.example.library.model.Loan;
+import com.example.library.service.LoanService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoanBenchmark {
+
+    private LoanService loanService;
+    private List<Long> userIds;
+    private List<String> userEmails;
+    private List<Long> borrowableBookIds;
+
+    @Setup
+    public void setUp(LibraryState state) {
+        loanService = state.bean(LoanService.class);
+        userIds = state.data().getUserIds();
+        userEmails = state.data().getUserEmails();
+        borrowableBookIds = state.data().getBorrowableBookIds();
+    }
+
+    // imprumut + returnare: stocul ramane neschimbat intre iteratii
+    @Benchmark
+    public Loan borrowAndReturn(RandomPicker picker) {
+        int user = picker.nextIndex(userIds.size());
+        Long bookId = picker.pick(borrowableBookIds);
+
+        Loan loan = loanService.createLoan(userIds.get(user), bookId);
+        return loanService.returnLoan(loan.getId(), userEmails.get(user));
+    }
+
+    @Benchmark
+    public List<Loan> overdueScan() {
+        return loanService.getOverdueLoans();
+    }
+
+    @Benchmark
+    public List<Loan> activeLoansForUser(RandomPicker picker) {
+        return loanService.getActiveLoansForUserEmail(picker.pick(userEmails));
+    }
+}
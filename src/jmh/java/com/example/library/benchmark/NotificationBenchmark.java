@@ -0,0 +1,45 @@
+package com.example.library.benchmark;
+
+import com.example.library.model.Notification;
+import com.example.library.service.NotificationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotificationBenchmark {
+
+    private NotificationService notificationService;
+    private List<String> userEmails;
+
+    @Setup
+    public void setUp(LibraryState state) {
+        notificationService = state.bean(NotificationService.class);
+        userEmails = state.data().getUserEmails();
+    }
+
+    @Benchmark
+    public List<Notification> listForUser(RandomPicker picker) {
+        return notificationService.getNotificationsForUserEmail(picker.pick(userEmails));
+    }
+
+    @Benchmark
+    public List<Notification> listUnreadForUser(RandomPicker picker) {
+        return notificationService.getUnreadNotificationsForUserEmail(picker.pick(userEmails));
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.library.benchmark;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// alegere determinista de user / carte per thread, ca rularile sa fie comparabile
+// fiecare thread are alt seed, altfel benchmark-urile cu @Threads ar lovi aceleasi carti in acelasi timp
+@State(Scope.Thread)
+public class RandomPicker {
+
+    private static final AtomicInteger THREADS = new AtomicInteger();
+
+    private final SplittableRandom random = new SplittableRandom(LibraryState.SEED + THREADS.getAndIncrement());
+
+    public int nextIndex(int bound) {
+        return random.nextInt(bound);
+    }
+
+    public <T> T pick(List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
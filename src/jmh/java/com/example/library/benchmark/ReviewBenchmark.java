@@ -0,0 +1,45 @@
+package com.example.library.benchmark;
+
+import com.example.library.model.Review;
+import com.example.library.service.ReviewService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReviewBenchmark {
+
+    private ReviewService reviewService;
+    private List<Long> bookIds;
+
+    @Setup
+    public void setUp(LibraryState state) {
+        reviewService = state.bean(ReviewService.class);
+        bookIds = state.data().getBookIds();
+    }
+
+    @Benchmark
+    public Double averageRating(RandomPicker picker) {
+        return reviewService.getAverageRatingForBook(picker.pick(bookIds));
+    }
+
+    @Benchmark
+    public List<Review> reviewsForBook(RandomPicker picker) {
+        return reviewService.getReviewsForBook(picker.pick(bookIds));
+    }
+}
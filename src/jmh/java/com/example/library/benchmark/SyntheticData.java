@@ -0,0 +1,167 @@
+package com.example.library.benchmark;
+
+import com.example.library.model.Book;
+import com.example.library.model.Category;
+import com.example.library.model.Loan;
+import com.example.library.model.Notification;
+import com.example.library.model.Review;
+import com.example.library.model.Role;
+import com.example.library.model.User;
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.CategoryRepository;
+import com.example.library.repository.LoanRepository;
+import com.example.library.repository.NotificationRepository;
+import com.example.library.repository.ReviewRepository;
+import com.example.library.repository.UserRepository;
+import org.springframework.context.ApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// date sintetice, proportionale cu numarul de carti:
+// 1 user la 10 carti, 3 imprumuturi la 5 carti (~30% active, o parte intarziate),
+// 10 notificari per user, 4 recenzii per carte
+public class SyntheticData {
+
+    static final String[] TITLE_WORDS = {
+            "silent", "river", "shadow", "garden", "winter", "empire", "code", "clean", "java", "night",
+            "memory", "ocean", "stone", "light", "history", "secret", "journey", "city", "fire", "tolerance"
+    };
+    static final String[] FIRST_NAMES = {
+            "Ana", "Ion", "Maria", "Robert", "Joshua", "Elena", "Mihai", "Ioana", "Andrei", "Leo"
+    };
+    static final String[] LAST_NAMES = {
+            "Popescu", "Martin", "Bloch", "Tolstoy", "Creanga", "Eminescu", "Ionescu", "Rebreanu", "Orwell", "Woolf"
+    };
+    static final String[] CATEGORIES = {
+            "Fiction", "Programming", "History", "Poetry", "Science", "Philosophy",
+            "Children", "Travel", "Biography", "Art", "Drama", "Fantasy"
+    };
+
+    private final ApplicationContext context;
+    private final Random random;
+
+    private final List<Long> bookIds = new ArrayList<>();
+    private final List<Long> borrowableBookIds = new ArrayList<>();
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<String> userEmails = new ArrayList<>();
+
+    public SyntheticData(ApplicationContext context, long seed) {
+        this.context = context;
+        this.random = new Random(seed);
+    }
+
+    public SyntheticData seed(int bookCount) {
+        LocalDate today = LocalDate.now();
+
+        List<Category> categories = new ArrayList<>();
+        for (String name : CATEGORIES) {
+            Category category = new Category();
+            category.setName(name);
+            category.setDescription(name + " books");
+            categories.add(category);
+        }
+        categories = context.getBean(CategoryRepository.class).saveAll(categories);
+
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < bookCount; i++) {
+            Book book = new Book();
+            book.setTitle(word() + " " + word() + " " + word());
+            book.setAuthor(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+            book.setIsbn("BENCH-" + i);
+            book.setPublishedYear(1950 + random.nextInt(75));
+            book.setAvailableCopies(random.nextInt(6));
+            book.setCategory(categories.get(random.nextInt(categories.size())));
+            books.add(book);
+        }
+        books = context.getBean(BookRepository.class).saveAll(books);
+        for (Book book : books) {
+            bookIds.add(book.getId());
+            if (book.getAvailableCopies() > 0) {
+                borrowableBookIds.add(book.getId());
+            }
+        }
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, bookCount / 10); i++) {
+            User user = new User();
+            user.setName("Bench User " + i);
+            user.setEmail("user" + i + "@bench.local");
+            user.setPassword("benchmark");
+            user.setRole(Role.USER);
+            users.add(user);
+        }
+        users = context.getBean(UserRepository.class).saveAll(users);
+        for (User user : users) {
+            userIds.add(user.getId());
+            userEmails.add(user.getEmail());
+        }
+
+        List<Loan> loans = new ArrayList<>();
+        for (int i = 0; i < bookCount * 3 / 5; i++) {
+            Loan loan = new Loan();
+            loan.setUser(users.get(random.nextInt(users.size())));
+            loan.setBook(books.get(random.nextInt(books.size())));
+            loan.setLoanDate(today.minusDays(random.nextInt(60)));
+            loan.setDueDate(loan.getLoanDate().plusDays(14));
+            if (random.nextInt(10) < 7) {
+                loan.setReturnDate(loan.getLoanDate().plusDays(random.nextInt(20)));
+            }
+            loans.add(loan);
+        }
+        loans = context.getBean(LoanRepository.class).saveAll(loans);
+
+        List<Notification> notifications = new ArrayList<>();
+        for (User user : users) {
+            for (int i = 0; i < 10; i++) {
+                Notification notification = new Notification();
+                notification.setUser(user);
+                notification.setLoan(random.nextBoolean() ? loans.get(random.nextInt(loans.size())) : null);
+                notification.setMessage("Synthetic notification " + i + " for " + user.getEmail());
+                notification.setCreatedAt(LocalDateTime.now().minusHours(random.nextInt(24 * 90)));
+                notification.setReadFlag(random.nextBoolean());
+                notifications.add(notification);
+            }
+        }
+        context.getBean(NotificationRepository.class).saveAll(notifications);
+
+        List<Review> reviews = new ArrayList<>();
+        for (int i = 0; i < bookCount * 4; i++) {
+            Review review = new Review();
+            review.setUser(users.get(random.nextInt(users.size())));
+            review.setBook(books.get(random.nextInt(books.size())));
+            review.setRating(1 + random.nextInt(5));
+            review.setComment("Synthetic review " + i);
+            review.setCreatedAt(LocalDateTime.now().minusDays(random.nextInt(365)));
+            reviews.add(review);
+        }
+        context.getBean(ReviewRepository.class).saveAll(reviews);
+
+        return this;
+    }
+
+    private String word() {
+        return TITLE_WORDS[random.nextInt(TITLE_WORDS.length)];
+    }
+
+    public List<Long> getBookIds() {
+        return bookIds;
+    }
+
+    // carti cu cel putin un exemplar la seed; borrow + return in aceeasi operatie pastreaza stocul
+    public List<Long> getBorrowableBookIds() {
+        return borrowableBookIds;
+    }
+
+    public List<Long> getUserIds() {
+        return userIds;
+    }
+
+    public List<String> getUserEmails() {
+        return userEmails;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.library.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// job-uri periodice (ex. notificarile pentru imprumuturi intarziate)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
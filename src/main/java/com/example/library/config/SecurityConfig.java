@@ -28,6 +28,10 @@ public class SecurityConfig {
                         ).permitAll()
 
 
+                        // statistici index / cache cautare: doar staff
+                        .requestMatchers(HttpMethod.GET, "/api/books/search/stats", "/api/books/search/cache/stats")
+                        .hasAnyRole("LIBRARIAN", "ADMIN")
+
                         // catalog de carți, cautare: toti
                         .requestMatchers(HttpMethod.GET, "/api/books/**").authenticated()
                         .requestMatchers(HttpMethod.GET, "/api/categories/**").authenticated()
@@ -54,17 +58,30 @@ public class SecurityConfig {
                         // loans
                         .requestMatchers("/api/loans/borrow/**").hasRole("USER")
                         .requestMatchers(HttpMethod.GET, "/api/loans").hasAnyRole("LIBRARIAN", "ADMIN")
-                        .requestMatchers(HttpMethod.GET, "/api/loans/overdue").hasAnyRole("LIBRARIAN", "ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/api/loans/overdue", "/api/loans/overdue/count",
+                                "/api/loans/overdue/notify/stats").hasAnyRole("LIBRARIAN", "ADMIN")
                         .requestMatchers(HttpMethod.GET, "/api/loans/user/**").hasAnyRole("LIBRARIAN", "ADMIN")
-                        .requestMatchers(HttpMethod.POST, "/api/loans").hasAnyRole("LIBRARIAN", "ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/loans", "/api/loans/bulk", "/api/loans/bulk-return").hasAnyRole("LIBRARIAN", "ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/api/loans/**").hasAnyRole("LIBRARIAN", "ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/loans/archive/run").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.GET, "/api/loans/me/active").hasRole("USER")
                         .requestMatchers(HttpMethod.GET, "/api/loans/me").hasRole("USER")
                         .requestMatchers(HttpMethod.GET, "/api/loans/allActive").hasAnyRole("LIBRARIAN", "ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/api/loans/locks/stats").hasAnyRole("LIBRARIAN", "ADMIN")
                         .requestMatchers(HttpMethod.POST, "/api/loans/*/return").hasAnyRole("USER", "LIBRARIAN", "ADMIN")
                         .requestMatchers(HttpMethod.POST, "/api/loans", "/api/loans/overdue/notify").hasAnyRole("LIBRARIAN", "ADMIN")
 
+                        // loan stats
+                        .requestMatchers(HttpMethod.GET, "/api/loan-stats/me").authenticated()
+                        .requestMatchers(HttpMethod.GET, "/api/loan-stats/users/**", "/api/loan-stats/books/top").hasAnyRole("LIBRARIAN", "ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/api/loan-stats/books/**").authenticated()
+
+                        // holds
+                        .requestMatchers(HttpMethod.POST, "/api/holds/book/**").hasRole("USER")
+
                         .requestMatchers(HttpMethod.POST, "/api/notifications/overdue-alert").hasRole( "ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/api/notifications/queue/stats").hasAnyRole("LIBRARIAN", "ADMIN")
+                        .requestMatchers("/api/notifications/retention/**").hasRole("ADMIN")
 
                         //reviews
                         .requestMatchers(HttpMethod.POST, "/api/reviews").hasRole("USER")
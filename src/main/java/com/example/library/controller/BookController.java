@@ -1,11 +1,22 @@
 package com.example.library.controller;
 
+import com.example.library.dto.BookFacetsResponse;
+import com.example.library.dto.CursorPage;
 import com.example.library.model.Book;
+import com.example.library.search.CacheStats;
+import com.example.library.search.IndexStats;
+import com.example.library.search.Suggestion;
 import com.example.library.service.BookService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -13,10 +24,12 @@ import java.util.List;
 public class BookController {
 
     private final BookService bookService;
+    private final ObjectMapper objectMapper;
 
     // DI prin constructor
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, ObjectMapper objectMapper) {
         this.bookService = bookService;
+        this.objectMapper = objectMapper;
     }
 
     // GET /api/books
@@ -25,6 +38,26 @@ public class BookController {
         return bookService.getAllBooks();
     }
 
+    // GET /api/books/export - tot catalogul ca NDJSON (o carte pe linie), scris pe masura ce e citit din DB
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAll() {
+        StreamingResponseBody body = out -> {
+            try {
+                bookService.streamAllBooks(book -> {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(book));
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     // GET /api/books/{id}
     @GetMapping("/{id}")
     public Book getById(@PathVariable Long id) {
@@ -66,9 +99,84 @@ public class BookController {
         return bookService.searchByCategoryName(category);
     }
     // GET /api/books/search?keyword=clean
+    // fiecare cuvant cautat trebuie sa fie inceputul unui cuvant din titlu, autor sau categorie:
+    // "ring lord" gaseste "The Lord of the Rings", "ord" nu
     @GetMapping("/search")
     public List<Book> search(@RequestParam String keyword) {
         return bookService.searchAnywhere(keyword);
     }
 
+    // GET /api/books/search/page?keyword=clean&size=20&cursor=... - paginat, cursor = nextCursor de la pagina anterioara
+    @GetMapping("/search/page")
+    public CursorPage<Book> searchPage(@RequestParam String keyword,
+                                       @RequestParam(required = false) String cursor,
+                                       @RequestParam(defaultValue = "20") int size) {
+        return bookService.searchAnywherePage(keyword, cursor, size);
+    }
+
+    @GetMapping("/search/title/page")
+    public CursorPage<Book> searchByTitlePage(@RequestParam String title,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "20") int size) {
+        return bookService.searchByTitlePage(title, cursor, size);
+    }
+
+    @GetMapping("/search/author/page")
+    public CursorPage<Book> searchByAuthorPage(@RequestParam String author,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(defaultValue = "20") int size) {
+        return bookService.searchByAuthorPage(author, cursor, size);
+    }
+
+    @GetMapping("/search/category/page")
+    public CursorPage<Book> searchByCategoryPage(@RequestParam String category,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(defaultValue = "20") int size) {
+        return bookService.searchByCategoryNamePage(category, cursor, size);
+    }
+
+    // GET /api/books/search/ranked?keyword=history&limit=20 - cele mai relevante rezultate (BM25)
+    @GetMapping("/search/ranked")
+    public List<Book> searchRanked(@RequestParam String keyword,
+                                   @RequestParam(defaultValue = "20") int limit) {
+        return bookService.searchRanked(keyword, limit);
+    }
+
+    // GET /api/books/search/fuzzy?q=tolkein&maxDistance=2 - tolereaza greseli de scriere
+    @GetMapping("/search/fuzzy")
+    public List<Book> searchFuzzy(@RequestParam String q,
+                                  @RequestParam(required = false) Integer maxDistance) {
+        return bookService.searchFuzzy(q, maxDistance);
+    }
+
+    // GET /api/books/facets?keyword=java&categoryId=2&decade=2000&available=true&limit=20
+    // primele carti + numaratorile pe categorie / deceniu / disponibilitate
+    @GetMapping("/facets")
+    public BookFacetsResponse facets(@RequestParam(required = false) String keyword,
+                                     @RequestParam(required = false) Long categoryId,
+                                     @RequestParam(required = false) Integer decade,
+                                     @RequestParam(required = false) Boolean available,
+                                     @RequestParam(defaultValue = "20") int limit) {
+        return bookService.facetSearch(keyword, categoryId, decade, available, limit);
+    }
+
+    // GET /api/books/suggest?prefix=tol&limit=10 - autocomplete pentru titluri si autori, cele cu mai multe carti primele
+    @GetMapping("/suggest")
+    public List<Suggestion> suggest(@RequestParam String prefix,
+                                    @RequestParam(defaultValue = "10") int limit) {
+        return bookService.suggest(prefix, limit);
+    }
+
+    // GET /api/books/search/stats - dimensiunea indexurilor de cautare din memorie
+    @GetMapping("/search/stats")
+    public List<IndexStats> searchStats() {
+        return bookService.getSearchIndexStats();
+    }
+
+    // GET /api/books/search/cache/stats - hit / miss pentru cache-ul de rezultate
+    @GetMapping("/search/cache/stats")
+    public CacheStats searchCacheStats() {
+        return bookService.getSearchCacheStats();
+    }
+
 }
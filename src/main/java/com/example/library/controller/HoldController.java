@@ -0,0 +1,59 @@
+package com.example.library.controller;
+
+import com.example.library.model.Hold;
+import com.example.library.service.HoldService;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/holds")
+public class HoldController {
+
+    private final HoldService holdService;
+
+    public HoldController(HoldService holdService) {
+        this.holdService = holdService;
+    }
+
+    // POST /api/holds/book/{bookId} - intra in coada pentru o carte fara exemplare
+    @PostMapping("/book/{bookId}")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Hold placeHold(@PathVariable Long bookId,
+                          Authentication authentication) {
+        String email = authentication.getName(); // username = email
+        return holdService.placeHold(bookId, email);
+    }
+
+    // GET /api/holds/book/{bookId}/queue - cate rezervari asteapta cartea
+    @GetMapping("/book/{bookId}/queue")
+    public int getQueueLength(@PathVariable Long bookId) {
+        return holdService.getQueueLength(bookId);
+    }
+
+    // GET /api/holds/me
+    @GetMapping("/me")
+    public List<Hold> getMyHolds(Authentication authentication) {
+        String email = authentication.getName();
+        return holdService.getWaitingHoldsForUserEmail(email);
+    }
+
+    // GET /api/holds/{id}/position - 1 = urmatorul care primeste cartea
+    @GetMapping("/{id}/position")
+    public int getPosition(@PathVariable Long id,
+                           Authentication authentication) {
+        String email = authentication.getName();
+        return holdService.getPosition(id, email);
+    }
+
+    // DELETE /api/holds/{id}
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void cancel(@PathVariable Long id,
+                       Authentication authentication) {
+        String email = authentication.getName();
+        holdService.cancelHold(id, email);
+    }
+}
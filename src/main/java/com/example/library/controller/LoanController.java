@@ -1,7 +1,14 @@
 package com.example.library.controller;
 
+import com.example.library.dto.BulkCheckoutRequest;
+import com.example.library.dto.BulkLoanResponse;
+import com.example.library.dto.BulkReturnRequest;
+import com.example.library.loan.OverdueRunStats;
+import com.example.library.lock.LockStats;
 import com.example.library.model.Loan;
+import com.example.library.service.LoanArchiveService;
 import com.example.library.service.LoanService;
+import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.core.Authentication;
@@ -13,9 +20,11 @@ import java.util.List;
 public class LoanController {
 
     private final LoanService loanService;
+    private final LoanArchiveService loanArchiveService;
 
-    public LoanController(LoanService loanService) {
+    public LoanController(LoanService loanService, LoanArchiveService loanArchiveService) {
         this.loanService = loanService;
+        this.loanArchiveService = loanArchiveService;
     }
 
     // GET /api/loans
@@ -42,6 +51,12 @@ public class LoanController {
         return loanService.getOverdueLoans();
     }
 
+    // GET /api/loans/overdue/count - direct din indexul de scadente
+    @GetMapping("/overdue/count")
+    public int countOverdue() {
+        return loanService.countOverdueLoans();
+    }
+
     // POST /api/loans?userId=1&bookId=2
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -50,6 +65,20 @@ public class LoanController {
         return loanService.createLoan(userId, bookId);
     }
 
+    // POST /api/loans/bulk - mai multe carti pentru acelasi user (ghiseu), rezultat per carte
+    @PostMapping("/bulk")
+    public BulkLoanResponse createBulk(@Valid @RequestBody BulkCheckoutRequest request) {
+        return loanService.createLoans(request.getUserId(), request.getBookIds());
+    }
+
+    // POST /api/loans/bulk-return - returnari din cutia de carti, rezultat per imprumut
+    @PostMapping("/bulk-return")
+    public BulkLoanResponse returnBulk(@Valid @RequestBody BulkReturnRequest request,
+                                       Authentication authentication) {
+        String email = authentication.getName(); // username = email
+        return loanService.returnLoans(request.getLoanIds(), email);
+    }
+
     // POST /api/loans/{id}/return
     @PostMapping("/{id}/return")
     public Loan returnLoan(@PathVariable Long id,
@@ -75,10 +104,14 @@ public class LoanController {
         return loanService.createLoanForUserEmail(email, bookId);
     }
 
-    // GET /api/loans/me
+    // GET /api/loans/me?includeArchived=true - cu tot cu imprumuturile mutate in arhiva
     @GetMapping("/me")
-    public List<Loan> getMyLoans(Authentication authentication) {
+    public List<Loan> getMyLoans(@RequestParam(defaultValue = "false") boolean includeArchived,
+                                 Authentication authentication) {
         String email = authentication.getName();
+        if (includeArchived) {
+            return loanArchiveService.getLoanHistoryForUserEmail(email);
+        }
         return loanService.getLoansForUserEmail(email);
     }
 
@@ -95,12 +128,30 @@ public class LoanController {
         return loanService.getAllActiveLoans();
     }
 
+    // POST /api/loans/archive/run - muta acum imprumuturile vechi in arhiva (altfel ruleaza noaptea)
+    @PostMapping("/archive/run")
+    public int archiveReturnedLoans() {
+        return loanArchiveService.archiveReturnedLoans();
+    }
+
+    // GET /api/loans/locks/stats - contentie pe lock-urile de carte (asteptari, coada per stripe)
+    @GetMapping("/locks/stats")
+    public LockStats getLockStats() {
+        return loanService.getLockStats();
+    }
+
     // POST /api/loans/overdue/notify
     @PostMapping("/overdue/notify")
     public int notifyOverdueLoans() {
         return loanService.createOverdueNotifications();
     }
 
+    // GET /api/loans/overdue/notify/stats - ultima rulare a job-ului (throughput per bucata)
+    @GetMapping("/overdue/notify/stats")
+    public OverdueRunStats getLastOverdueRun() {
+        return loanService.getLastOverdueRun();
+    }
+
 
 
 }
@@ -0,0 +1,44 @@
+package com.example.library.controller;
+
+import com.example.library.loan.LoanCounters;
+import com.example.library.service.LoanStatsService;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/loan-stats")
+public class LoanStatsController {
+
+    private final LoanStatsService loanStatsService;
+
+    public LoanStatsController(LoanStatsService loanStatsService) {
+        this.loanStatsService = loanStatsService;
+    }
+
+    // GET /api/loan-stats/me
+    @GetMapping("/me")
+    public LoanCounters getMine(Authentication authentication) {
+        String email = authentication.getName(); // username = email
+        return loanStatsService.getForUserEmail(email);
+    }
+
+    // GET /api/loan-stats/users/{userId}
+    @GetMapping("/users/{userId}")
+    public LoanCounters getForUser(@PathVariable Long userId) {
+        return loanStatsService.getForUser(userId);
+    }
+
+    // GET /api/loan-stats/books/top?limit=10 - cele mai imprumutate carti
+    @GetMapping("/books/top")
+    public List<LoanCounters> getTopBooks(@RequestParam(defaultValue = "10") int limit) {
+        return loanStatsService.getTopBooks(limit);
+    }
+
+    // GET /api/loan-stats/books/{bookId}
+    @GetMapping("/books/{bookId}")
+    public LoanCounters getForBook(@PathVariable Long bookId) {
+        return loanStatsService.getForBook(bookId);
+    }
+}
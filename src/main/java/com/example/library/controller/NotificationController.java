@@ -1,10 +1,16 @@
 package com.example.library.controller;
 
+import com.example.library.dto.BulkNotificationRequest;
 import com.example.library.model.Notification;
+import com.example.library.notification.NotificationQueueStats;
+import com.example.library.notification.NotificationRetentionStats;
 import com.example.library.service.NotificationService;
+import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -32,6 +38,43 @@ public class NotificationController {
         return notificationService.getUnreadNotificationsForUserEmail(email);
     }
 
+    // GET /api/notifications/me/unread/count - pentru badge, fara sa incarce notificarile
+    @GetMapping("/me/unread/count")
+    public int countMyUnreadNotifications(Authentication authentication) {
+        String email = authentication.getName();
+        return notificationService.countUnreadForUserEmail(email);
+    }
+
+    // GET /api/notifications/me/stream - SSE: notificarile noi sunt trimise imediat ce sunt salvate, fara polling
+    @GetMapping(value = "/me/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMyNotifications(Authentication authentication) {
+        String email = authentication.getName();
+        return notificationService.subscribe(email);
+    }
+
+    // POST /api/notifications/me/read-all - numarul de notificari marcate
+    @PostMapping("/me/read-all")
+    public int markAllAsRead(Authentication authentication) {
+        String email = authentication.getName();
+        return notificationService.markAllAsRead(email);
+    }
+
+    // POST /api/notifications/me/bulk-read
+    @PostMapping("/me/bulk-read")
+    public int markAsRead(@Valid @RequestBody BulkNotificationRequest request,
+                          Authentication authentication) {
+        String email = authentication.getName();
+        return notificationService.markAsRead(request.getNotificationIds(), email);
+    }
+
+    // POST /api/notifications/me/bulk-delete - numarul de notificari sterse (doar ale userului logat)
+    @PostMapping("/me/bulk-delete")
+    public int deleteMyNotifications(@Valid @RequestBody BulkNotificationRequest request,
+                                     Authentication authentication) {
+        String email = authentication.getName();
+        return notificationService.deleteNotifications(request.getNotificationIds(), email);
+    }
+
     // POST /api/notifications/{id}/read
     @PostMapping("/{id}/read")
     public Notification markAsRead(@PathVariable Long id,
@@ -49,6 +92,24 @@ public class NotificationController {
         notificationService.deleteNotification(id, email);
     }
 
+    // GET /api/notifications/queue/stats - coada de scriere asincrona (adancime, batch-uri, intarziere)
+    @GetMapping("/queue/stats")
+    public NotificationQueueStats getQueueStats() {
+        return notificationService.getQueueStats();
+    }
+
+    // POST /api/notifications/retention/run - sterge acum notificarile vechi (altfel ruleaza noaptea)
+    @PostMapping("/retention/run")
+    public NotificationRetentionStats runRetention() {
+        return notificationService.runRetention();
+    }
+
+    // GET /api/notifications/retention/stats - ultima rulare (randuri recuperate)
+    @GetMapping("/retention/stats")
+    public NotificationRetentionStats getLastRetentionRun() {
+        return notificationService.getLastRetentionRun();
+    }
+
     // POST /api/notifications/overdue-alert for librarian
     @PostMapping("/overdue-alert")
     @ResponseStatus(HttpStatus.NO_CONTENT)
@@ -0,0 +1,44 @@
+package com.example.library.dto;
+
+import com.example.library.model.Book;
+import com.example.library.search.FacetCount;
+
+import java.util.List;
+
+public class BookFacetsResponse {
+
+    private final List<Book> books;
+    private final long totalHits;
+    private final List<FacetCount> categories;
+    private final List<FacetCount> decades;
+    private final List<FacetCount> availability;
+
+    public BookFacetsResponse(List<Book> books, long totalHits, List<FacetCount> categories,
+                              List<FacetCount> decades, List<FacetCount> availability) {
+        this.books = books;
+        this.totalHits = totalHits;
+        this.categories = categories;
+        this.decades = decades;
+        this.availability = availability;
+    }
+
+    public List<Book> getBooks() {
+        return books;
+    }
+
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    public List<FacetCount> getCategories() {
+        return categories;
+    }
+
+    public List<FacetCount> getDecades() {
+        return decades;
+    }
+
+    public List<FacetCount> getAvailability() {
+        return availability;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.library.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BulkCheckoutRequest {
+
+    @NotNull(message = "User id is required")
+    private Long userId;
+
+    @NotEmpty(message = "At least one book id is required")
+    @Size(max = 100, message = "At most 100 books per checkout")
+    private List<@NotNull Long> bookIds;
+
+    public BulkCheckoutRequest() {}
+
+    public BulkCheckoutRequest(Long userId, List<Long> bookIds) {
+        this.userId = userId;
+        this.bookIds = bookIds;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public List<Long> getBookIds() {
+        return bookIds;
+    }
+
+    public void setBookIds(List<Long> bookIds) {
+        this.bookIds = bookIds;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.library.dto;
+
+// rezultatul pentru un singur element dintr-o operatie in bloc
+public class BulkLoanItem {
+
+    private final Long bookId;
+    private final Long loanId;
+    private final BulkLoanStatus status;
+
+    public BulkLoanItem(Long bookId, Long loanId, BulkLoanStatus status) {
+        this.bookId = bookId;
+        this.loanId = loanId;
+        this.status = status;
+    }
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public Long getLoanId() {
+        return loanId;
+    }
+
+    public BulkLoanStatus getStatus() {
+        return status;
+    }
+}
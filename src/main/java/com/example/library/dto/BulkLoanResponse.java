@@ -0,0 +1,29 @@
+package com.example.library.dto;
+
+import java.util.List;
+
+public class BulkLoanResponse {
+
+    private final int succeeded;
+    private final int failed;
+    private final List<BulkLoanItem> items;
+
+    public BulkLoanResponse(int succeeded, int failed, List<BulkLoanItem> items) {
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.items = items;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    // in ordinea din cerere
+    public List<BulkLoanItem> getItems() {
+        return items;
+    }
+}
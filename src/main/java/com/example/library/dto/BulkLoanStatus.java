@@ -0,0 +1,12 @@
+package com.example.library.dto;
+
+public enum BulkLoanStatus {
+    BORROWED,
+    BOOK_NOT_FOUND,
+    NO_COPIES,
+    DUPLICATE,
+    RETURNED,
+    LOAN_NOT_FOUND,
+    ALREADY_RETURNED,
+    NOT_ALLOWED
+}
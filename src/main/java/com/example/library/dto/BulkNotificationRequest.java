@@ -0,0 +1,28 @@
+package com.example.library.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BulkNotificationRequest {
+
+    @NotEmpty(message = "At least one notification id is required")
+    @Size(max = 500, message = "At most 500 notifications per request")
+    private List<@NotNull Long> notificationIds;
+
+    public BulkNotificationRequest() {}
+
+    public BulkNotificationRequest(List<Long> notificationIds) {
+        this.notificationIds = notificationIds;
+    }
+
+    public List<Long> getNotificationIds() {
+        return notificationIds;
+    }
+
+    public void setNotificationIds(List<Long> notificationIds) {
+        this.notificationIds = notificationIds;
+    }
+}
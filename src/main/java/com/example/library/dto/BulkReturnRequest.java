@@ -0,0 +1,28 @@
+package com.example.library.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BulkReturnRequest {
+
+    @NotEmpty(message = "At least one loan id is required")
+    @Size(max = 100, message = "At most 100 loans per return")
+    private List<@NotNull Long> loanIds;
+
+    public BulkReturnRequest() {}
+
+    public BulkReturnRequest(List<Long> loanIds) {
+        this.loanIds = loanIds;
+    }
+
+    public List<Long> getLoanIds() {
+        return loanIds;
+    }
+
+    public void setLoanIds(List<Long> loanIds) {
+        this.loanIds = loanIds;
+    }
+}
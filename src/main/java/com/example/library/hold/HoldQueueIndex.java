@@ -0,0 +1,117 @@
+package com.example.library.hold;
+
+import com.example.library.model.Hold;
+import com.example.library.model.HoldStatus;
+import com.example.library.repository.HoldRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+// cozile FIFO de rezervari active, per carte (doar id-uri); sursa de adevar ramane tabela holds
+// returnarea afla din memorie daca are cui sa dea exemplarul, fara query cand coada e goala
+// pana la primul rebuild (serverul primeste cereri inainte de ApplicationReadyEvent) citirile merg in tabela
+@Component
+public class HoldQueueIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(HoldQueueIndex.class);
+
+    private final HoldRepository holdRepository;
+
+    private final Map<Long, LinkedHashSet<Long>> queues = new HashMap<>();
+    private final Map<Long, Long> bookByHold = new HashMap<>();
+
+    private volatile boolean ready = false;
+
+    public HoldQueueIndex(HoldRepository holdRepository) {
+        this.holdRepository = holdRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        queues.clear();
+        bookByHold.clear();
+        for (Hold hold : holdRepository.findByStatusOrderByIdAsc(HoldStatus.WAITING)) {
+            add(hold.getBook().getId(), hold.getId());
+        }
+        ready = true;
+        log.info("Hold queues built: {} waiting holds on {} books", bookByHold.size(), queues.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public synchronized void add(Long bookId, Long holdId) {
+        queues.computeIfAbsent(bookId, id -> new LinkedHashSet<>()).add(holdId);
+        bookByHold.put(holdId, bookId);
+    }
+
+    // copie, in ordinea in care s-au facut rezervarile
+    public synchronized List<Long> waiting(Long bookId) {
+        if (!ready) {
+            return waitingInDatabase(bookId);
+        }
+        LinkedHashSet<Long> queue = queues.get(bookId);
+        return queue == null ? new ArrayList<>() : new ArrayList<>(queue);
+    }
+
+    public synchronized void remove(Collection<Long> holdIds) {
+        for (Long holdId : holdIds) {
+            Long bookId = bookByHold.remove(holdId);
+            if (bookId == null) {
+                continue;
+            }
+            LinkedHashSet<Long> queue = queues.get(bookId);
+            queue.remove(holdId);
+            if (queue.isEmpty()) {
+                queues.remove(bookId);
+            }
+        }
+    }
+
+    public synchronized int queueLength(Long bookId) {
+        if (!ready) {
+            return waitingInDatabase(bookId).size();
+        }
+        LinkedHashSet<Long> queue = queues.get(bookId);
+        return queue == null ? 0 : queue.size();
+    }
+
+    // 1 = urmatorul care primeste cartea, 0 = rezervarea nu e in coada
+    public synchronized int position(Long holdId) {
+        if (!ready) {
+            return holdRepository.findById(holdId)
+                    .map(hold -> waitingInDatabase(hold.getBook().getId()).indexOf(holdId) + 1)
+                    .orElse(0);
+        }
+        Long bookId = bookByHold.get(holdId);
+        if (bookId == null) {
+            return 0;
+        }
+        int position = 1;
+        for (Long id : queues.get(bookId)) {
+            if (id.equals(holdId)) {
+                return position;
+            }
+            position++;
+        }
+        return 0;
+    }
+
+    private List<Long> waitingInDatabase(Long bookId) {
+        List<Long> holdIds = new ArrayList<>();
+        for (Hold hold : holdRepository.findByBookIdAndStatusOrderByIdAsc(bookId, HoldStatus.WAITING)) {
+            holdIds.add(hold.getId());
+        }
+        return holdIds;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.library.loan;
+
+import com.example.library.repository.LoanRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// imprumuturile active grupate pe zi de scadenta (TreeMap), ca "intarziate la data X" sa fie un headMap
+// construit la pornire si tinut la zi de LoanService / HoldService
+// adaugarile si stergerile se aplica doar dupa commit: un rollback nu lasa imprumuturi fantoma in index
+@Component
+public class DueDateIndex implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(DueDateIndex.class);
+
+    private final LoanRepository loanRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<LocalDate, LinkedHashSet<Long>> loansByDueDate = new TreeMap<>();
+    private final Map<Long, LocalDate> dueDateByLoan = new HashMap<>();
+
+    private volatile boolean ready = false;
+
+    public DueDateIndex(LoanRepository loanRepository) {
+        this.loanRepository = loanRepository;
+    }
+
+    // inainte sa porneasca serverul web (ca la LoanStatsService): niciun imprumut nou nu poate fi adaugat
+    // intre citirea imprumuturilor active si golirea indexului
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            loansByDueDate.clear();
+            dueDateByLoan.clear();
+            for (LoanDue loanDue : loanRepository.findActiveDueDates()) {
+                addUnlocked(loanDue.getLoanId(), loanDue.getDueDate());
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Due date index built: {} active loans in {} ms", dueDateByLoan.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // apelat din tranzactia care creeaza imprumutul: intra in index abia dupa commit
+    public void add(Long loanId, LocalDate dueDate) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addNow(loanId, dueDate);
+                }
+            });
+        } else {
+            addNow(loanId, dueDate);
+        }
+    }
+
+    private void addNow(Long loanId, LocalDate dueDate) {
+        lock.writeLock().lock();
+        try {
+            addUnlocked(loanId, dueDate);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Collection<Long> loanIds) {
+        lock.writeLock().lock();
+        try {
+            for (Long loanId : loanIds) {
+                LocalDate dueDate = dueDateByLoan.remove(loanId);
+                if (dueDate == null) {
+                    continue;
+                }
+                LinkedHashSet<Long> bucket = loansByDueDate.get(dueDate);
+                bucket.remove(loanId);
+                if (bucket.isEmpty()) {
+                    loansByDueDate.remove(dueDate);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // scadenta strict inainte de date, in ordinea scadentei
+    public List<Long> dueBefore(LocalDate date) {
+        lock.readLock().lock();
+        try {
+            List<Long> loanIds = new ArrayList<>();
+            for (LinkedHashSet<Long> bucket : loansByDueDate.headMap(date, false).values()) {
+                loanIds.addAll(bucket);
+            }
+            return loanIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int countDueBefore(LocalDate date) {
+        lock.readLock().lock();
+        try {
+            int count = 0;
+            for (LinkedHashSet<Long> bucket : loansByDueDate.headMap(date, false).values()) {
+                count += bucket.size();
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return dueDateByLoan.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addUnlocked(Long loanId, LocalDate dueDate) {
+        LocalDate previous = dueDateByLoan.put(loanId, dueDate);
+        if (previous != null && !previous.equals(dueDate)) {
+            LinkedHashSet<Long> bucket = loansByDueDate.get(previous);
+            bucket.remove(loanId);
+            if (bucket.isEmpty()) {
+                loansByDueDate.remove(previous);
+            }
+        }
+        loansByDueDate.computeIfAbsent(dueDate, day -> new LinkedHashSet<>()).add(loanId);
+    }
+}
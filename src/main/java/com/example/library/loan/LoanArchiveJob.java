@@ -0,0 +1,70 @@
+package com.example.library.loan;
+
+import com.example.library.repository.LoanArchiveRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// imprumuturile returnate de mai mult de N luni pleaca din loans in loans_archive,
+// ca interogarile pe imprumuturi (user, active, intarziate) sa lucreze pe un tabel mic
+// o tranzactie per bucata: un job lung nu tine lock-uri pe tot tabelul
+@Component
+public class LoanArchiveJob {
+
+    private static final Logger log = LoggerFactory.getLogger(LoanArchiveJob.class);
+
+    private final LoanArchiveRepository loanArchiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int afterMonths;
+    private final int chunkSize;
+
+    public LoanArchiveJob(LoanArchiveRepository loanArchiveRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${library.loans.archive.after-months:12}") int afterMonths,
+                          @Value("${library.loans.archive.chunk-size:1000}") int chunkSize) {
+        this.loanArchiveRepository = loanArchiveRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.afterMonths = afterMonths;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(cron = "${library.loans.archive.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        run();
+    }
+
+    public synchronized int run() {
+        LocalDate returnedBefore = LocalDate.now().minusMonths(afterMonths);
+        LocalDateTime archivedAt = LocalDateTime.now();
+        long start = System.currentTimeMillis();
+
+        int archived = 0;
+        int chunks = 0;
+        while (true) {
+            Integer moved = transactionTemplate.execute(status -> {
+                List<Long> loanIds = loanArchiveRepository.findArchivableIds(returnedBefore, chunkSize);
+                return loanArchiveRepository.archive(loanIds, archivedAt);
+            });
+            int count = moved != null ? moved : 0;
+            if (count == 0) {
+                break;
+            }
+            archived += count;
+            chunks++;
+            if (count < chunkSize) {
+                break;
+            }
+        }
+        log.info("Loan archive: {} loans returned before {} moved in {} chunks, {} ms",
+                archived, returnedBefore, chunks, System.currentTimeMillis() - start);
+        return archived;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.library.loan;
+
+// contoarele unui user sau ale unei carti (id = userId / bookId)
+public class LoanCounters {
+
+    private final Long id;
+    private final int activeLoans;
+    private final long lifetimeLoans;
+
+    public LoanCounters(Long id, int activeLoans, long lifetimeLoans) {
+        this.id = id;
+        this.activeLoans = activeLoans;
+        this.lifetimeLoans = lifetimeLoans;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public int getActiveLoans() {
+        return activeLoans;
+    }
+
+    public long getLifetimeLoans() {
+        return lifetimeLoans;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.library.loan;
+
+import java.time.LocalDate;
+
+// doar ce trebuie indexului: id-ul imprumutului activ si scadenta lui
+public class LoanDue {
+
+    private final Long loanId;
+    private final LocalDate dueDate;
+
+    public LoanDue(Long loanId, LocalDate dueDate) {
+        this.loanId = loanId;
+        this.dueDate = dueDate;
+    }
+
+    public Long getLoanId() {
+        return loanId;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+}
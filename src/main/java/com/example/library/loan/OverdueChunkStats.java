@@ -0,0 +1,36 @@
+package com.example.library.loan;
+
+public class OverdueChunkStats {
+
+    private final int chunk;
+    private final int loans;
+    private final int notifications;
+    private final long millis;
+
+    public OverdueChunkStats(int chunk, int loans, int notifications, long millis) {
+        this.chunk = chunk;
+        this.loans = loans;
+        this.notifications = notifications;
+        this.millis = millis;
+    }
+
+    public int getChunk() {
+        return chunk;
+    }
+
+    public int getLoans() {
+        return loans;
+    }
+
+    public int getNotifications() {
+        return notifications;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    public long getNotificationsPerSecond() {
+        return millis == 0 ? notifications * 1000L : notifications * 1000L / millis;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.library.loan;
+
+import java.time.LocalDate;
+
+// un rand din pagina de imprumuturi intarziate: exact ce intra in notificare
+public class OverdueLoan {
+
+    private final Long loanId;
+    private final Long userId;
+    private final String bookTitle;
+    private final LocalDate dueDate;
+
+    public OverdueLoan(Long loanId, Long userId, String bookTitle, LocalDate dueDate) {
+        this.loanId = loanId;
+        this.userId = userId;
+        this.bookTitle = bookTitle;
+        this.dueDate = dueDate;
+    }
+
+    public Long getLoanId() {
+        return loanId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getBookTitle() {
+        return bookTitle;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.library.loan;
+
+import com.example.library.model.NotificationKind;
+import com.example.library.notification.PendingNotification;
+import com.example.library.repository.LoanRepository;
+import com.example.library.repository.NotificationRepository;
+import com.example.library.service.NotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// notificari pentru imprumuturile intarziate, pe bucati: o pagina keyset (dupa id) cu titlul cartii din join,
+// apoi un singur batch de insert-uri prin NotificationService (contoare + push SSE); fiecare bucata are
+// tranzactia ei, deci un job lung nu tine lock-uri mult
+// cel mult o notificare pe imprumut si zi: filtrul din memorie sare peste ce s-a trimis deja azi,
+// constrangerea unica din DB prinde restul (ex. alta instanta a aplicatiei a rulat intre timp)
+@Component
+public class OverdueNotificationJob {
+
+    private static final Logger log = LoggerFactory.getLogger(OverdueNotificationJob.class);
+
+    private final LoanRepository loanRepository;
+    private final NotificationRepository notificationRepository;
+    private final NotificationService notificationService;
+    private final int chunkSize;
+
+    private volatile OverdueRunStats lastRun;
+
+    // imprumuturile notificate in notifiedDay (doar sub synchronized run)
+    private LocalDate notifiedDay;
+    private final Set<Long> notifiedLoans = new HashSet<>();
+
+    public OverdueNotificationJob(LoanRepository loanRepository,
+                                  NotificationRepository notificationRepository,
+                                  NotificationService notificationService,
+                                  @Value("${library.overdue.chunk-size:500}") int chunkSize) {
+        this.loanRepository = loanRepository;
+        this.notificationRepository = notificationRepository;
+        this.notificationService = notificationService;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(cron = "${library.overdue.notify-cron:0 0 7 * * *}")
+    public void scheduledRun() {
+        run();
+    }
+
+    // synchronized: rularea programata si cea manuala (endpoint) nu se suprapun
+    public synchronized OverdueRunStats run() {
+        LocalDate today = LocalDate.now();
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        if (!today.equals(notifiedDay)) {
+            notifiedLoans.clear();
+            notifiedLoans.addAll(notificationRepository.findLoanIdsByKindAndDay(NotificationKind.OVERDUE, today));
+            notifiedDay = today;
+        }
+
+        List<OverdueChunkStats> chunks = new ArrayList<>();
+        int loans = 0;
+        int notifications = 0;
+        Long afterId = 0L;
+        while (true) {
+            long chunkStart = System.nanoTime();
+            List<OverdueLoan> page = loanRepository.findOverdueAfter(today, afterId, Limit.of(chunkSize));
+            if (page.isEmpty()) {
+                break;
+            }
+            List<OverdueLoan> fresh = new ArrayList<>();
+            for (OverdueLoan loan : page) {
+                if (!notifiedLoans.contains(loan.getLoanId())) {
+                    fresh.add(loan);
+                }
+            }
+            int created = insertChunk(fresh, today, startedAt);
+            long chunkMillis = (System.nanoTime() - chunkStart) / 1_000_000;
+
+            OverdueChunkStats chunk = new OverdueChunkStats(chunks.size() + 1, page.size(), created, chunkMillis);
+            chunks.add(chunk);
+            log.info("Overdue notifications chunk {}: {} loans, {} notifications in {} ms ({}/s)",
+                    chunk.getChunk(), chunk.getLoans(), chunk.getNotifications(), chunkMillis,
+                    chunk.getNotificationsPerSecond());
+
+            loans += page.size();
+            notifications += created;
+            afterId = page.get(page.size() - 1).getLoanId();
+            if (page.size() < chunkSize) {
+                break;
+            }
+        }
+
+        OverdueRunStats stats = new OverdueRunStats(startedAt, loans, notifications,
+                (System.nanoTime() - start) / 1_000_000, chunks);
+        log.info("Overdue notification run: {} notifications for {} loans in {} ms ({}/s)",
+                notifications, loans, stats.getMillis(), stats.getNotificationsPerSecond());
+        lastRun = stats;
+        return stats;
+    }
+
+    private int insertChunk(List<OverdueLoan> loans, LocalDate today, LocalDateTime createdAt) {
+        if (loans.isEmpty()) {
+            return 0;
+        }
+        List<OverdueLoan> toInsert = loans;
+        try {
+            insertNotifications(toInsert, today, createdAt);
+        } catch (DuplicateKeyException e) {
+            // batch-ul s-a anulat in intregime: recitim ce exista deja si inseram doar restul
+            List<Long> loanIds = new ArrayList<>(loans.size());
+            for (OverdueLoan loan : loans) {
+                loanIds.add(loan.getLoanId());
+            }
+            notifiedLoans.addAll(notificationRepository.findLoanIdsByKindAndDayAndLoanIdIn(
+                    NotificationKind.OVERDUE, today, loanIds));
+            toInsert = new ArrayList<>();
+            for (OverdueLoan loan : loans) {
+                if (!notifiedLoans.contains(loan.getLoanId())) {
+                    toInsert.add(loan);
+                }
+            }
+            if (!toInsert.isEmpty()) {
+                insertNotifications(toInsert, today, createdAt);
+            }
+        }
+        for (OverdueLoan loan : toInsert) {
+            notifiedLoans.add(loan.getLoanId());
+        }
+        return toInsert.size();
+    }
+
+    private void insertNotifications(List<OverdueLoan> loans, LocalDate today, LocalDateTime createdAt) {
+        List<PendingNotification> notifications = new ArrayList<>(loans.size());
+        for (OverdueLoan loan : loans) {
+            notifications.add(new PendingNotification(loan.getUserId(), loan.getLoanId(), message(loan), createdAt));
+        }
+        notificationService.createDailyLoanNotifications(notifications, NotificationKind.OVERDUE, today);
+    }
+
+    public OverdueRunStats getLastRun() {
+        return lastRun;
+    }
+
+    static String message(OverdueLoan loan) {
+        return "Loan for book '" + loan.getBookTitle() + "' is overdue. Due date was " + loan.getDueDate() + ".";
+    }
+}
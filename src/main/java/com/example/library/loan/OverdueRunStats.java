@@ -0,0 +1,46 @@
+package com.example.library.loan;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class OverdueRunStats {
+
+    private final LocalDateTime startedAt;
+    private final int loans;
+    private final int notifications;
+    private final long millis;
+    private final List<OverdueChunkStats> chunks;
+
+    public OverdueRunStats(LocalDateTime startedAt, int loans, int notifications, long millis,
+                           List<OverdueChunkStats> chunks) {
+        this.startedAt = startedAt;
+        this.loans = loans;
+        this.notifications = notifications;
+        this.millis = millis;
+        this.chunks = chunks;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public int getLoans() {
+        return loans;
+    }
+
+    public int getNotifications() {
+        return notifications;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    public List<OverdueChunkStats> getChunks() {
+        return chunks;
+    }
+
+    public long getNotificationsPerSecond() {
+        return millis == 0 ? notifications * 1000L : notifications * 1000L / millis;
+    }
+}
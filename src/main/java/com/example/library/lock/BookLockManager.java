@@ -0,0 +1,136 @@
+package com.example.library.lock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// lock-uri in memorie pe carte, impartite pe un numar fix de stripe-uri (bookId -> stripe)
+// operatiile pe aceeasi carte se serializeaza, cartile din stripe-uri diferite merg in paralel
+// nu inlocuieste tranzactia din DB: protejeaza doar instanta curenta a aplicatiei
+@Component
+public class BookLockManager {
+
+    private final ReentrantLock[] locks;
+    private final StripeCounters[] counters;
+    private final int mask;
+
+    public BookLockManager(@Value("${library.loans.lock-stripes:64}") int stripes) {
+        // rotunjit la putere a lui 2, ca stripe-ul sa fie un simplu mask
+        int size = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.locks = new ReentrantLock[size];
+        this.counters = new StripeCounters[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+            counters[i] = new StripeCounters();
+        }
+        this.mask = size - 1;
+    }
+
+    public <T> T withLock(Long bookId, Supplier<T> action) {
+        int stripe = stripeFor(bookId);
+        acquire(stripe);
+        try {
+            return action.get();
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    // mai multe carti deodata: stripe-urile se iau o singura data si in ordine crescatoare,
+    // ca doua operatii in bloc cu carti comune sa nu se blocheze reciproc
+    public <T> T withLocks(Collection<Long> bookIds, Supplier<T> action) {
+        int[] stripes = bookIds.stream().mapToInt(this::stripeFor).distinct().sorted().toArray();
+        int acquired = 0;
+        try {
+            for (int stripe : stripes) {
+                acquire(stripe);
+                acquired++;
+            }
+            return action.get();
+        } finally {
+            for (int i = acquired - 1; i >= 0; i--) {
+                locks[stripes[i]].unlock();
+            }
+        }
+    }
+
+    private void acquire(int stripe) {
+        ReentrantLock lock = locks[stripe];
+        StripeCounters stripeCounters = counters[stripe];
+
+        // drumul rapid fara asteptare; masuram doar cand chiar e contentie
+        if (!lock.tryLock()) {
+            stripeCounters.contended.increment();
+            stripeCounters.recordQueueDepth(lock.getQueueLength() + 1);
+            long start = System.nanoTime();
+            lock.lock();
+            stripeCounters.recordWait(System.nanoTime() - start);
+        }
+        stripeCounters.acquisitions.increment();
+    }
+
+    public int stripeFor(Long bookId) {
+        int hash = Long.hashCode(bookId);
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    public int getStripeCount() {
+        return locks.length;
+    }
+
+    // doar stripe-urile folosite, ca raspunsul sa ramana mic
+    public LockStats stats() {
+        long acquisitions = 0;
+        long contended = 0;
+        long waitNanos = 0;
+        List<StripeStats> used = new ArrayList<>();
+        for (int i = 0; i < locks.length; i++) {
+            StripeCounters stripe = counters[i];
+            long stripeAcquisitions = stripe.acquisitions.sum();
+            if (stripeAcquisitions == 0 && !locks[i].isLocked()) {
+                continue;
+            }
+            long stripeContended = stripe.contended.sum();
+            long stripeWait = stripe.waitNanos.sum();
+            acquisitions += stripeAcquisitions;
+            contended += stripeContended;
+            waitNanos += stripeWait;
+            used.add(new StripeStats(
+                    i,
+                    stripeAcquisitions,
+                    stripeContended,
+                    stripeWait / 1_000,
+                    stripe.maxWaitNanos.get() / 1_000,
+                    locks[i].getQueueLength(),
+                    stripe.maxQueueDepth.get()
+            ));
+        }
+        return new LockStats(locks.length, acquisitions, contended, waitNanos / 1_000, used);
+    }
+
+    private static final class StripeCounters {
+
+        private final LongAdder acquisitions = new LongAdder();
+        private final LongAdder contended = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+        private void recordWait(long nanos) {
+            waitNanos.add(nanos);
+            maxWaitNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        private void recordQueueDepth(int depth) {
+            maxQueueDepth.accumulateAndGet(depth, Math::max);
+        }
+    }
+}
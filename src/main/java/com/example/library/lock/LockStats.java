@@ -0,0 +1,41 @@
+package com.example.library.lock;
+
+import java.util.List;
+
+public class LockStats {
+
+    private final int stripes;
+    private final long acquisitions;
+    private final long contended;
+    private final long totalWaitMicros;
+    private final List<StripeStats> usedStripes;
+
+    public LockStats(int stripes, long acquisitions, long contended, long totalWaitMicros,
+                     List<StripeStats> usedStripes) {
+        this.stripes = stripes;
+        this.acquisitions = acquisitions;
+        this.contended = contended;
+        this.totalWaitMicros = totalWaitMicros;
+        this.usedStripes = usedStripes;
+    }
+
+    public int getStripes() {
+        return stripes;
+    }
+
+    public long getAcquisitions() {
+        return acquisitions;
+    }
+
+    public long getContended() {
+        return contended;
+    }
+
+    public long getTotalWaitMicros() {
+        return totalWaitMicros;
+    }
+
+    public List<StripeStats> getUsedStripes() {
+        return usedStripes;
+    }
+}
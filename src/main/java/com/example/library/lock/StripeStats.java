@@ -0,0 +1,56 @@
+package com.example.library.lock;
+
+public class StripeStats {
+
+    private final int stripe;
+    private final long acquisitions;
+    private final long contended;
+    private final long totalWaitMicros;
+    private final long maxWaitMicros;
+    private final int queueLength;
+    private final int maxQueueLength;
+
+    public StripeStats(int stripe, long acquisitions, long contended, long totalWaitMicros,
+                       long maxWaitMicros, int queueLength, int maxQueueLength) {
+        this.stripe = stripe;
+        this.acquisitions = acquisitions;
+        this.contended = contended;
+        this.totalWaitMicros = totalWaitMicros;
+        this.maxWaitMicros = maxWaitMicros;
+        this.queueLength = queueLength;
+        this.maxQueueLength = maxQueueLength;
+    }
+
+    public int getStripe() {
+        return stripe;
+    }
+
+    public long getAcquisitions() {
+        return acquisitions;
+    }
+
+    public long getContended() {
+        return contended;
+    }
+
+    public long getTotalWaitMicros() {
+        return totalWaitMicros;
+    }
+
+    public long getMaxWaitMicros() {
+        return maxWaitMicros;
+    }
+
+    // thread-uri care asteapta acum
+    public int getQueueLength() {
+        return queueLength;
+    }
+
+    public int getMaxQueueLength() {
+        return maxQueueLength;
+    }
+
+    public long getAverageWaitMicros() {
+        return contended == 0 ? 0 : totalWaitMicros / contended;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.library.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// imprumut returnat mutat din loans de LoanArchiveJob; id-ul ramane cel original
+@Entity
+@Table(name = "loans_archive", indexes = @Index(name = "idx_loans_archive_user", columnList = "user_id"))
+public class ArchivedLoan {
+
+    @Id
+    private Long id;
+
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "book_id")
+    private Book book;
+
+    private LocalDate loanDate;
+
+    private LocalDate dueDate;
+
+    private LocalDate returnDate;
+
+    private LocalDateTime archivedAt;
+
+    public ArchivedLoan() {
+    }
+
+    // aceeasi forma ca un imprumut obisnuit, pentru istoricul din /api/loans/me (nu se salveaza)
+    public Loan toLoan() {
+        Loan loan = new Loan();
+        loan.setId(id);
+        loan.setUser(user);
+        loan.setBook(book);
+        loan.setLoanDate(loanDate);
+        loan.setDueDate(dueDate);
+        loan.setReturnDate(returnDate);
+        return loan;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public Book getBook() {
+        return book;
+    }
+
+    public void setBook(Book book) {
+        this.book = book;
+    }
+
+    public LocalDate getLoanDate() {
+        return loanDate;
+    }
+
+    public void setLoanDate(LocalDate loanDate) {
+        this.loanDate = loanDate;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public void setDueDate(LocalDate dueDate) {
+        this.dueDate = dueDate;
+    }
+
+    public LocalDate getReturnDate() {
+        return returnDate;
+    }
+
+    public void setReturnDate(LocalDate returnDate) {
+        this.returnDate = returnDate;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    public void setArchivedAt(LocalDateTime archivedAt) {
+        this.archivedAt = archivedAt;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.library.model;
+
+import jakarta.persistence.*;
+
+// contoare tinute la zi de LoanStatsRepository, in aceeasi tranzactie cu imprumutul / returnarea
+@Entity
+@Table(name = "book_loan_stats")
+public class BookLoanStats {
+
+    @Id
+    private Long bookId;
+
+    private int activeLoans;
+
+    private long lifetimeLoans;
+
+    public BookLoanStats() {}
+
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public void setBookId(Long bookId) {
+        this.bookId = bookId;
+    }
+
+    public int getActiveLoans() {
+        return activeLoans;
+    }
+
+    public void setActiveLoans(int activeLoans) {
+        this.activeLoans = activeLoans;
+    }
+
+    public long getLifetimeLoans() {
+        return lifetimeLoans;
+    }
+
+    public void setLifetimeLoans(long lifetimeLoans) {
+        this.lifetimeLoans = lifetimeLoans;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.library.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+// rezervare pe o carte fara exemplare disponibile; ordinea din coada = ordinea id-urilor
+@Entity
+@Table(name = "holds", indexes = @Index(name = "idx_holds_book_status", columnList = "book_id, status"))
+public class Hold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "book_id")
+    private Book book;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private HoldStatus status = HoldStatus.WAITING;
+
+    @NotNull
+    private LocalDateTime createdAt;
+
+    // imprumutul creat cand a venit randul rezervarii
+    @ManyToOne
+    @JoinColumn(name = "loan_id")
+    private Loan loan;
+
+    public Hold() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public Book getBook() {
+        return book;
+    }
+
+    public void setBook(Book book) {
+        this.book = book;
+    }
+
+    public HoldStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(HoldStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Loan getLoan() {
+        return loan;
+    }
+
+    public void setLoan(Loan loan) {
+        this.loan = loan;
+    }
+}
@@ -4,10 +4,12 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", uniqueConstraints = @UniqueConstraint(
+        name = "uk_notifications_loan_kind_day", columnNames = {"loan_id", "kind", "notification_day"}))
 public class Notification {
 
     @Id
@@ -32,6 +34,12 @@ public class Notification {
 
     private boolean readFlag = false;
 
+    // doar pentru notificarile automate (altfel null): cel mult una pe imprumut, tip si zi
+    @Enumerated(EnumType.STRING)
+    private NotificationKind kind;
+
+    private LocalDate notificationDay;
+
     public Notification() {}
 
     public Long getId() {
@@ -81,4 +89,20 @@ public class Notification {
     public void setReadFlag(boolean readFlag) {
         this.readFlag = readFlag;
     }
+
+    public NotificationKind getKind() {
+        return kind;
+    }
+
+    public void setKind(NotificationKind kind) {
+        this.kind = kind;
+    }
+
+    public LocalDate getNotificationDay() {
+        return notificationDay;
+    }
+
+    public void setNotificationDay(LocalDate notificationDay) {
+        this.notificationDay = notificationDay;
+    }
 }
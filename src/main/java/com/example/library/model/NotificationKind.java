@@ -0,0 +1,6 @@
+package com.example.library.model;
+
+// tipul notificarilor automate; impreuna cu imprumutul si ziua formeaza cheia de deduplicare
+public enum NotificationKind {
+    OVERDUE
+}
@@ -0,0 +1,42 @@
+package com.example.library.model;
+
+import jakarta.persistence.*;
+
+// contoare tinute la zi de LoanStatsRepository, in aceeasi tranzactie cu imprumutul / returnarea
+@Entity
+@Table(name = "user_loan_stats")
+public class UserLoanStats {
+
+    @Id
+    private Long userId;
+
+    private int activeLoans;
+
+    private long lifetimeLoans;
+
+    public UserLoanStats() {}
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public int getActiveLoans() {
+        return activeLoans;
+    }
+
+    public void setActiveLoans(int activeLoans) {
+        this.activeLoans = activeLoans;
+    }
+
+    public long getLifetimeLoans() {
+        return lifetimeLoans;
+    }
+
+    public void setLifetimeLoans(long lifetimeLoans) {
+        this.lifetimeLoans = lifetimeLoans;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.library.model;
+
+import jakarta.persistence.*;
+
+// numarul de notificari necitite per user, tinut la zi de NotificationCounterRepository
+@Entity
+@Table(name = "user_notification_stats")
+public class UserNotificationStats {
+
+    @Id
+    private Long userId;
+
+    private int unread;
+
+    public UserNotificationStats() {}
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public int getUnread() {
+        return unread;
+    }
+
+    public void setUnread(int unread) {
+        this.unread = unread;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.library.notification;
+
+import java.time.LocalDateTime;
+
+// ce primeste clientul pe stream: doar campurile notificarii, fara User / Loan imbricate
+public class NotificationEvent {
+
+    private final Long id;
+    private final Long loanId;
+    private final String message;
+    private final LocalDateTime createdAt;
+
+    public NotificationEvent(Long id, Long loanId, String message, LocalDateTime createdAt) {
+        this.id = id;
+        this.loanId = loanId;
+        this.message = message;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getLoanId() {
+        return loanId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.library.notification;
+
+import com.example.library.repository.NotificationBatchRepository;
+import com.example.library.repository.NotificationCounterRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// notificarile nu se mai scriu in request-ul care le produce: intra intr-o coada marginita,
+// iar cateva thread-uri de scriere le golesc in batch-uri JDBC (cate o tranzactie per batch)
+// coada plina = backpressure: producatorul asteapta cel mult offer-timeout, apoi scrie el insusi (nu se pierde nimic)
+// o singura asteptare per apel: dupa primul offer refuzat, restul batch-ului se scrie direct de producator
+// in interiorul unei tranzactii, notificarea intra in coada abia dupa commit (imprumutul la care trimite exista deja)
+// dupa fiecare batch scris, notificarile pleaca si pe stream-urile SSE deschise (NotificationStreamHub)
+@Component
+public class NotificationQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationQueue.class);
+
+    private static final long POLL_MILLIS = 200;
+
+    private final NotificationBatchRepository notificationBatchRepository;
+    private final NotificationCounterRepository notificationCounterRepository;
+    private final NotificationStreamHub notificationStreamHub;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingNotification> queue;
+    private final int capacity;
+    private final int writerCount;
+    private final int batchSize;
+    private final long offerTimeoutMillis;
+    private final ExecutorService writers;
+
+    private volatile boolean running = false;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong callerWrites = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+    private volatile int lastBatchSize;
+    private volatile long lastLagMillis;
+
+    public NotificationQueue(NotificationBatchRepository notificationBatchRepository,
+                             NotificationCounterRepository notificationCounterRepository,
+                             NotificationStreamHub notificationStreamHub,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${library.notifications.queue-capacity:10000}") int capacity,
+                             @Value("${library.notifications.writers:2}") int writerCount,
+                             @Value("${library.notifications.batch-size:200}") int batchSize,
+                             @Value("${library.notifications.offer-timeout-ms:500}") long offerTimeoutMillis) {
+        this.notificationBatchRepository = notificationBatchRepository;
+        this.notificationCounterRepository = notificationCounterRepository;
+        this.notificationStreamHub = notificationStreamHub;
+        // tranzactie noua si cand scrie producatorul din afterCommit (cea veche e deja inchisa)
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.capacity = capacity;
+        this.writerCount = writerCount;
+        this.batchSize = batchSize;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        AtomicInteger threads = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(Math.max(writerCount, 1), runnable -> {
+            Thread thread = new Thread(runnable, "notification-writer-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (int i = 0; i < writerCount; i++) {
+            writers.submit(this::drainLoop);
+        }
+    }
+
+    // la oprire writer-ii golesc coada; ce ajunge dupa se scrie direct de producator
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writers.shutdown();
+        if (!writers.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Notification writers did not stop in time, {} notifications still queued", queue.size());
+        }
+        List<PendingNotification> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            write(rest);
+        }
+    }
+
+    public void enqueue(PendingNotification notification) {
+        enqueue(List.of(notification));
+    }
+
+    public void enqueue(List<PendingNotification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offerAll(notifications);
+                }
+            });
+        } else {
+            offerAll(notifications);
+        }
+    }
+
+    // true daca tot ce a intrat pana acum a fost si scris (sau a esuat definitiv)
+    public boolean awaitDrained(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (pending.get() > 0) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    public NotificationQueueStats stats() {
+        return new NotificationQueueStats(capacity, queue.size(), writerCount, enqueued.get(), written.get(),
+                failed.get(), callerWrites.get(), batches.get(), lastBatchSize, lastLagMillis, maxLagMillis.get());
+    }
+
+    private void offerAll(List<PendingNotification> notifications) {
+        pending.addAndGet(notifications.size());
+        enqueued.addAndGet(notifications.size());
+        List<PendingNotification> rejected = new ArrayList<>();
+        boolean full = !running;
+        for (PendingNotification notification : notifications) {
+            if (full || !offer(notification)) {
+                full = true;
+                rejected.add(notification);
+            }
+        }
+        if (!rejected.isEmpty()) {
+            callerWrites.addAndGet(rejected.size());
+            write(rejected);
+        }
+    }
+
+    private boolean offer(PendingNotification notification) {
+        try {
+            return queue.offer(notification, offerTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void drainLoop() {
+        List<PendingNotification> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingNotification first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Notification writer failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingNotification> batch) {
+        try {
+            List<Long> ids = transactionTemplate.execute(status -> insert(batch));
+            written.addAndGet(batch.size());
+            notificationStreamHub.publish(new ArrayList<>(batch), ids);
+        } catch (DataAccessException e) {
+            // o notificare invalida (ex. imprumut sters intre timp) nu trebuie sa piarda tot batch-ul
+            log.warn("Notification batch of {} failed, retrying one by one: {}", batch.size(), e.getMessage());
+            for (PendingNotification notification : batch) {
+                try {
+                    List<Long> ids = transactionTemplate.execute(status -> insert(List.of(notification)));
+                    written.incrementAndGet();
+                    notificationStreamHub.publish(List.of(notification), ids);
+                } catch (DataAccessException single) {
+                    failed.incrementAndGet();
+                    log.warn("Dropping notification for user {}: {}", notification.getUserId(), single.getMessage());
+                }
+            }
+        } finally {
+            recordBatch(batch);
+            pending.addAndGet(-batch.size());
+        }
+    }
+
+    // notificarile si contoarele de necitite ale destinatarilor, in aceeasi tranzactie
+    private List<Long> insert(List<PendingNotification> batch) {
+        List<Long> ids = notificationBatchRepository.insertNotifications(batch);
+        Map<Long, Integer> unreadPerUser = new HashMap<>();
+        for (PendingNotification notification : batch) {
+            unreadPerUser.merge(notification.getUserId(), 1, Integer::sum);
+        }
+        notificationCounterRepository.addUnread(unreadPerUser);
+        return ids;
+    }
+
+    private void recordBatch(List<PendingNotification> batch) {
+        long oldest = Long.MAX_VALUE;
+        for (PendingNotification notification : batch) {
+            oldest = Math.min(oldest, notification.getEnqueuedAtNanos());
+        }
+        long lag = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest);
+        batches.incrementAndGet();
+        lastBatchSize = batch.size();
+        lastLagMillis = lag;
+        maxLagMillis.accumulateAndGet(lag, Math::max);
+    }
+}
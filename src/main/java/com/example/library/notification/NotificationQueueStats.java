@@ -0,0 +1,82 @@
+package com.example.library.notification;
+
+public class NotificationQueueStats {
+
+    private final int capacity;
+    private final int depth;
+    private final int writers;
+    private final long enqueued;
+    private final long written;
+    private final long failed;
+    private final long callerWrites;
+    private final long batches;
+    private final int lastBatchSize;
+    private final long lastLagMillis;
+    private final long maxLagMillis;
+
+    public NotificationQueueStats(int capacity, int depth, int writers, long enqueued, long written, long failed,
+                                  long callerWrites, long batches, int lastBatchSize,
+                                  long lastLagMillis, long maxLagMillis) {
+        this.capacity = capacity;
+        this.depth = depth;
+        this.writers = writers;
+        this.enqueued = enqueued;
+        this.written = written;
+        this.failed = failed;
+        this.callerWrites = callerWrites;
+        this.batches = batches;
+        this.lastBatchSize = lastBatchSize;
+        this.lastLagMillis = lastLagMillis;
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getWriters() {
+        return writers;
+    }
+
+    public long getEnqueued() {
+        return enqueued;
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    // notificari scrise direct de producator, cand coada a ramas plina peste timeout
+    public long getCallerWrites() {
+        return callerWrites;
+    }
+
+    public long getBatches() {
+        return batches;
+    }
+
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    public double getAverageBatchSize() {
+        return batches == 0 ? 0 : (double) (written + failed) / batches;
+    }
+
+    // de la intrarea in coada pana la commit-ul batch-ului (cea mai veche notificare din batch)
+    public long getLastLagMillis() {
+        return lastLagMillis;
+    }
+
+    public long getMaxLagMillis() {
+        return maxLagMillis;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.library.notification;
+
+import com.example.library.repository.NotificationCounterRepository;
+import com.example.library.repository.NotificationRetentionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// retentie pentru notifications: sterge notificarile citite mai vechi de read-days si pastreaza
+// cel mult max-per-user notificari per user (cele mai noi)
+// o tranzactie per bucata de chunk-size id-uri si o pauza intre bucati, ca stergerile sa nu tina lock-uri
+// si sa nu concureze traficul normal; necitite sterse din cauza plafonului scad si contorul de necitite
+@Component
+public class NotificationRetentionJob {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationRetentionJob.class);
+
+    private final NotificationRetentionRepository notificationRetentionRepository;
+    private final NotificationCounterRepository notificationCounterRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int readDays;
+    private final int maxPerUser;
+    private final int chunkSize;
+    private final long pauseMillis;
+
+    private final AtomicLong totalReclaimed = new AtomicLong();
+    private volatile NotificationRetentionStats lastRun;
+
+    public NotificationRetentionJob(NotificationRetentionRepository notificationRetentionRepository,
+                                    NotificationCounterRepository notificationCounterRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${library.notifications.retention.read-days:90}") int readDays,
+                                    @Value("${library.notifications.retention.max-per-user:1000}") int maxPerUser,
+                                    @Value("${library.notifications.retention.chunk-size:500}") int chunkSize,
+                                    @Value("${library.notifications.retention.pause-ms:50}") long pauseMillis) {
+        this.notificationRetentionRepository = notificationRetentionRepository;
+        this.notificationCounterRepository = notificationCounterRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readDays = readDays;
+        this.maxPerUser = maxPerUser;
+        this.chunkSize = chunkSize;
+        this.pauseMillis = pauseMillis;
+    }
+
+    @Scheduled(cron = "${library.notifications.retention.cron:0 0 4 * * *}")
+    public void scheduledRun() {
+        run();
+    }
+
+    // synchronized: rularea programata si cea manuala (endpoint) nu se suprapun
+    public synchronized NotificationRetentionStats run() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime createdBefore = startedAt.minusDays(readDays);
+        long start = System.currentTimeMillis();
+        int chunks = 0;
+
+        int expired = 0;
+        while (true) {
+            Integer deleted = transactionTemplate.execute(status -> notificationRetentionRepository.delete(
+                    notificationRetentionRepository.findExpiredReadIds(createdBefore, chunkSize), true));
+            int count = deleted != null ? deleted : 0;
+            if (count == 0) {
+                break;
+            }
+            expired += count;
+            chunks++;
+            if (count < chunkSize || !pause()) {
+                break;
+            }
+        }
+
+        int overCap = 0;
+        for (Long userId : notificationRetentionRepository.findUsersOverCap(maxPerUser)) {
+            while (true) {
+                Integer deleted = transactionTemplate.execute(status -> trimChunk(userId));
+                int count = deleted != null ? deleted : 0;
+                if (count == 0) {
+                    break;
+                }
+                overCap += count;
+                chunks++;
+                if (count < chunkSize || !pause()) {
+                    break;
+                }
+            }
+        }
+
+        NotificationRetentionStats stats = new NotificationRetentionStats(startedAt, expired, overCap, chunks,
+                System.currentTimeMillis() - start, totalReclaimed.addAndGet(expired + overCap));
+        log.info("Notification retention: {} read notifications older than {} days and {} over the per-user cap " +
+                "of {} deleted in {} chunks, {} ms", expired, readDays, overCap, maxPerUser, chunks, stats.getMillis());
+        lastRun = stats;
+        return stats;
+    }
+
+    public NotificationRetentionStats getLastRun() {
+        return lastRun;
+    }
+
+    private int trimChunk(Long userId) {
+        List<Long> ids = notificationRetentionRepository.findIdsBeyondCap(userId, maxPerUser, chunkSize);
+        int unread = notificationRetentionRepository.delete(ids, false);
+        int read = notificationRetentionRepository.delete(ids, true);
+        if (unread > 0) {
+            notificationCounterRepository.addUnread(userId, -unread);
+        }
+        return unread + read;
+    }
+
+    // false = thread-ul a fost intrerupt (oprirea aplicatiei), rularea se opreste aici
+    private boolean pause() {
+        if (pauseMillis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
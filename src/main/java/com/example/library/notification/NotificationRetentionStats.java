@@ -0,0 +1,54 @@
+package com.example.library.notification;
+
+import java.time.LocalDateTime;
+
+public class NotificationRetentionStats {
+
+    private final LocalDateTime startedAt;
+    private final int expiredDeleted;
+    private final int overCapDeleted;
+    private final int chunks;
+    private final long millis;
+    private final long totalReclaimed;
+
+    public NotificationRetentionStats(LocalDateTime startedAt, int expiredDeleted, int overCapDeleted,
+                                      int chunks, long millis, long totalReclaimed) {
+        this.startedAt = startedAt;
+        this.expiredDeleted = expiredDeleted;
+        this.overCapDeleted = overCapDeleted;
+        this.chunks = chunks;
+        this.millis = millis;
+        this.totalReclaimed = totalReclaimed;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    // notificari citite, mai vechi decat read-days
+    public int getExpiredDeleted() {
+        return expiredDeleted;
+    }
+
+    // cele mai vechi notificari ale userilor cu mai mult de max-per-user
+    public int getOverCapDeleted() {
+        return overCapDeleted;
+    }
+
+    public int getReclaimed() {
+        return expiredDeleted + overCapDeleted;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    // de la pornirea aplicatiei, toate rularile
+    public long getTotalReclaimed() {
+        return totalReclaimed;
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.library.notification;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// conexiunile SSE deschise, grupate pe user; NotificationQueue publica aici fiecare batch dupa commit
+// o conexiune inactiva e doar un SseEmitter in map (request async, fara thread tinut ocupat)
+// fiecare conexiune are coada ei marginita de evenimente, golita in ordine pe un pool mic de thread-uri,
+// asa ca un client lent intarzie doar propriile evenimente, nu pe ale celorlalti si nici writer-ii cozii
+// coada conexiunii plina sau un send blocat mai mult de send-timeout = conexiunea se inchide (clientul se reconecteaza)
+@Component
+public class NotificationStreamHub {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationStreamHub.class);
+
+    private final Map<Long, Set<Connection>> connectionsByUser = new ConcurrentHashMap<>();
+    private final long timeoutMillis;
+    private final long sendTimeoutNanos;
+    private final int maxPending;
+    private final Executor pushExecutor;
+
+    @Autowired
+    public NotificationStreamHub(@Value("${library.notifications.stream-timeout-ms:1800000}") long timeoutMillis,
+                                 @Value("${library.notifications.stream-send-timeout-ms:10000}") long sendTimeoutMillis,
+                                 @Value("${library.notifications.stream-max-pending:64}") int maxPending,
+                                 @Value("${library.notifications.push-threads:4}") int pushThreads) {
+        this(timeoutMillis, sendTimeoutMillis, maxPending, pushPool(pushThreads));
+    }
+
+    NotificationStreamHub(long timeoutMillis, long sendTimeoutMillis, int maxPending, Executor pushExecutor) {
+        this.timeoutMillis = timeoutMillis;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        this.maxPending = maxPending;
+        this.pushExecutor = pushExecutor;
+    }
+
+    private static ExecutorService pushPool(int pushThreads) {
+        AtomicInteger threads = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(pushThreads, 1), runnable -> {
+            Thread thread = new Thread(runnable, "notification-push-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        return register(userId, new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter register(Long userId, SseEmitter emitter) {
+        Connection connection = new Connection(userId, emitter);
+        connectionsByUser.computeIfAbsent(userId, id -> new CopyOnWriteArraySet<>()).add(connection);
+        // inchisa de container (timeout, client plecat): emitter-ul e deja complet
+        Runnable remove = () -> {
+            connection.completed.set(true);
+            connection.closed = true;
+            unregister(connection);
+        };
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+        return emitter;
+    }
+
+    // notificarile si id-urile lor, in aceeasi ordine (cum le intoarce insert-ul)
+    // nu blocheaza: evenimentele doar intra in coada fiecarei conexiuni
+    public void publish(List<PendingNotification> notifications, List<Long> ids) {
+        if (connectionsByUser.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (int i = 0; i < notifications.size(); i++) {
+            PendingNotification notification = notifications.get(i);
+            Set<Connection> connections = connectionsByUser.get(notification.getUserId());
+            if (connections == null) {
+                continue;
+            }
+            Long id = i < ids.size() ? ids.get(i) : null;
+            NotificationEvent event = new NotificationEvent(id, notification.getLoanId(),
+                    notification.getMessage(), notification.getCreatedAt());
+            for (Connection connection : connections) {
+                connection.offer(SseEmitter.event()
+                        .id(String.valueOf(id))
+                        .name("notification")
+                        .data(event), now);
+            }
+        }
+    }
+
+    // comentariu periodic: tine conexiunea deschisa prin proxy-uri, scoate clientii plecati
+    // si pe cei la care un send sta blocat de prea mult timp
+    @Scheduled(fixedRateString = "${library.notifications.stream-heartbeat-ms:25000}")
+    public void heartbeat() {
+        long now = System.nanoTime();
+        connectionsByUser.values().forEach(connections -> connections.forEach(connection ->
+                connection.offer(SseEmitter.event().comment("ping"), now)));
+    }
+
+    public int connections() {
+        int connections = 0;
+        for (Set<Connection> userConnections : connectionsByUser.values()) {
+            connections += userConnections.size();
+        }
+        return connections;
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionsByUser.values().forEach(connections -> connections.forEach(connection -> connection.drop(null)));
+        connectionsByUser.clear();
+        if (pushExecutor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    private void unregister(Connection connection) {
+        connectionsByUser.computeIfPresent(connection.userId, (id, connections) -> {
+            connections.remove(connection);
+            return connections.isEmpty() ? null : connections;
+        });
+    }
+
+    // cel mult un runner activ per conexiune (scheduled), deci evenimentele pleaca in ordinea in care au intrat
+    // emitter-ul se inchide doar din runner: complete() asteapta dupa un send blocat (ambele sunt synchronized)
+    private final class Connection implements Runnable {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> pending;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private volatile boolean closed;
+        private volatile String dropReason;
+        // 0 = niciun send in curs
+        private volatile long sendingSince;
+
+        private Connection(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.pending = new ArrayBlockingQueue<>(Math.max(maxPending, 1));
+        }
+
+        private void offer(SseEmitter.SseEventBuilder event, long now) {
+            if (closed) {
+                return;
+            }
+            long since = sendingSince;
+            if (since != 0 && now - since > sendTimeoutNanos) {
+                drop("send blocked for " + TimeUnit.NANOSECONDS.toMillis(now - since) + " ms");
+                return;
+            }
+            if (!pending.offer(event)) {
+                drop(maxPending + " events waiting to be sent");
+                return;
+            }
+            schedule();
+        }
+
+        // reason null = oprirea aplicatiei
+        private void drop(String reason) {
+            closed = true;
+            dropReason = reason;
+            unregister(this);
+            pending.clear();
+            if (reason != null) {
+                log.debug("Dropping notification stream of user {}: {}", userId, reason);
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (!scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                pushExecutor.execute(this);
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed && (event = pending.poll()) != null) {
+                    send(event);
+                }
+            } finally {
+                if (closed) {
+                    pending.clear();
+                    if (completed.compareAndSet(false, true)) {
+                        complete();
+                    }
+                }
+                scheduled.set(false);
+            }
+            // un eveniment adaugat intre ultimul poll si scheduled = false, sau un drop venit dupa verificarea
+            // din finally: schedule()-ul lui a gasit runner-ul inca activ, deci inchiderea ramane in grija noastra
+            if (closed ? !completed.get() : !pending.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) {
+            sendingSince = System.nanoTime();
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping notification stream of user {}: {}", userId, e.getMessage());
+                closed = true;
+                unregister(this);
+                if (completed.compareAndSet(false, true)) {
+                    emitter.completeWithError(e);
+                }
+            } finally {
+                sendingSince = 0;
+            }
+        }
+
+        private void complete() {
+            if (dropReason == null) {
+                emitter.complete();
+            } else {
+                emitter.completeWithError(new IOException(dropReason));
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.library.notification;
+
+import java.time.LocalDateTime;
+
+// notificare acceptata de NotificationQueue, inca nescrisa in DB
+public class PendingNotification {
+
+    private final Long userId;
+    private final Long loanId;
+    private final String message;
+    private final LocalDateTime createdAt;
+    private final long enqueuedAtNanos;
+
+    public PendingNotification(Long userId, Long loanId, String message, LocalDateTime createdAt) {
+        this.userId = userId;
+        this.loanId = loanId;
+        this.message = message;
+        this.createdAt = createdAt;
+        this.enqueuedAtNanos = System.nanoTime();
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    // null pentru notificarile care nu tin de un imprumut
+    public Long getLoanId() {
+        return loanId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getEnqueuedAtNanos() {
+        return enqueuedAtNanos;
+    }
+}
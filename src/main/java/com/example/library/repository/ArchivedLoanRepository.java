@@ -0,0 +1,13 @@
+package com.example.library.repository;
+
+import com.example.library.model.ArchivedLoan;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ArchivedLoanRepository extends JpaRepository<ArchivedLoan, Long> {
+
+    List<ArchivedLoan> findByUserIdOrderByIdAsc(Long userId);
+}
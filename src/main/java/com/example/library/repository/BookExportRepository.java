@@ -0,0 +1,64 @@
+package com.example.library.repository;
+
+import com.example.library.model.Book;
+import com.example.library.model.Category;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+// citire forward-only a intregului catalog, rand cu rand, fara sa incarcam lista in memorie
+@Repository
+public class BookExportRepository {
+
+    private static final String SELECT_ALL =
+            "SELECT b.id, b.title, b.author, b.isbn, b.published_year, b.available_copies, " +
+            "c.id AS category_id, c.name AS category_name, c.description AS category_description " +
+            "FROM books b LEFT JOIN categories c ON c.id = b.category_id " +
+            "ORDER BY b.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+
+    public BookExportRepository(JdbcTemplate jdbcTemplate,
+                                @Value("${library.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+    }
+
+    // pe MySQL fetch size-ul e respectat doar cu useCursorFetch=true in URL
+    public void streamAll(Consumer<Book> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    SELECT_ALL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (ResultSet rs) -> {
+            consumer.accept(mapRow(rs));
+        });
+    }
+
+    private static Book mapRow(ResultSet rs) throws SQLException {
+        Book book = new Book();
+        book.setId(rs.getLong("id"));
+        book.setTitle(rs.getString("title"));
+        book.setAuthor(rs.getString("author"));
+        book.setIsbn(rs.getString("isbn"));
+        book.setPublishedYear(rs.getInt("published_year"));
+        book.setAvailableCopies(rs.getInt("available_copies"));
+
+        long categoryId = rs.getLong("category_id");
+        if (!rs.wasNull()) {
+            Category category = new Category();
+            category.setId(categoryId);
+            category.setName(rs.getString("category_name"));
+            category.setDescription(rs.getString("category_description"));
+            book.setCategory(category);
+        }
+        return book;
+    }
+}
@@ -1,8 +1,13 @@
 package com.example.library.repository;
 
 import com.example.library.model.Book;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -19,4 +24,33 @@ public interface BookRepository extends JpaRepository<Book, Long> {
             String category
     );
 
+    // variante keyset (id > afterId, ordonat dupa id) pentru paginare cu cursor
+    List<Book> findByTitleContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(String title, Long afterId, Limit limit);
+
+    List<Book> findByAuthorContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(String author, Long afterId, Limit limit);
+
+    List<Book> findByCategory_NameIgnoreCaseAndIdGreaterThanOrderByIdAsc(String categoryName, Long afterId, Limit limit);
+
+    @Query("SELECT b FROM Book b LEFT JOIN b.category c " +
+            "WHERE (LOWER(b.title) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
+            "OR LOWER(b.author) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
+            "OR LOWER(c.name) LIKE LOWER(CONCAT('%', :keyword, '%'))) " +
+            "AND b.id > :afterId ORDER BY b.id")
+    List<Book> searchAnywhereAfter(@Param("keyword") String keyword, @Param("afterId") Long afterId, Limit limit);
+
+    // decrement atomic: conditia e verificata de DB pe randul blocat, deci doua imprumuturi simultane
+    // nu pot lua acelasi ultim exemplar. intoarce 0 daca nu mai sunt exemplare (sau cartea nu exista)
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies - 1 WHERE b.id = :id AND b.availableCopies > 0")
+    int decrementAvailableCopies(@Param("id") Long id);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies + 1 WHERE b.id = :id")
+    int incrementAvailableCopies(@Param("id") Long id);
+
+    @Query("SELECT b.availableCopies FROM Book b WHERE b.id = :id")
+    int findAvailableCopiesById(@Param("id") Long id);
+
 }
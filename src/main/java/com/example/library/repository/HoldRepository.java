@@ -0,0 +1,20 @@
+package com.example.library.repository;
+
+import com.example.library.model.Hold;
+import com.example.library.model.HoldStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+
+    List<Hold> findByStatusOrderByIdAsc(HoldStatus status);
+
+    List<Hold> findByBookIdAndStatusOrderByIdAsc(Long bookId, HoldStatus status);
+
+    List<Hold> findByUserIdAndStatusOrderByIdAsc(Long userId, HoldStatus status);
+
+    boolean existsByUserIdAndBookIdAndStatus(Long userId, Long bookId, HoldStatus status);
+}
@@ -0,0 +1,57 @@
+package com.example.library.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// mutarea imprumuturilor vechi in loans_archive, cate o bucata de id-uri odata, numai cu instructiuni pe multimi
+// notificarile / rezervarile care indicau imprumutul raman, doar fara legatura (loan_id = NULL)
+// trebuie apelat intr-o tranzactie deschisa de job, ca bucata sa se mute complet sau deloc
+@Repository
+public class LoanArchiveRepository {
+
+    private static final String SELECT_ARCHIVABLE =
+            "SELECT id FROM loans WHERE return_date IS NOT NULL AND return_date < ? ORDER BY id LIMIT ?";
+    private static final String COPY_TO_ARCHIVE =
+            "INSERT INTO loans_archive (id, user_id, book_id, loan_date, due_date, return_date, archived_at) " +
+                    "SELECT id, user_id, book_id, loan_date, due_date, return_date, :archivedAt FROM loans WHERE id IN (:ids)";
+    private static final String DETACH_NOTIFICATIONS =
+            "UPDATE notifications SET loan_id = NULL WHERE loan_id IN (:ids)";
+    private static final String DETACH_HOLDS =
+            "UPDATE holds SET loan_id = NULL WHERE loan_id IN (:ids)";
+    private static final String DELETE_LOANS =
+            "DELETE FROM loans WHERE id IN (:ids)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public LoanArchiveRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    // urmatoarea bucata, in ordinea id-urilor (randurile mutate dispar din loans, deci nu trebuie cursor)
+    public List<Long> findArchivableIds(LocalDate returnedBefore, int limit) {
+        return jdbcTemplate.queryForList(SELECT_ARCHIVABLE, Long.class, Date.valueOf(returnedBefore), limit);
+    }
+
+    public int archive(List<Long> loanIds, LocalDateTime archivedAt) {
+        if (loanIds.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", loanIds)
+                .addValue("archivedAt", Timestamp.valueOf(archivedAt));
+        int copied = namedJdbcTemplate.update(COPY_TO_ARCHIVE, params);
+        namedJdbcTemplate.update(DETACH_NOTIFICATIONS, params);
+        namedJdbcTemplate.update(DETACH_HOLDS, params);
+        namedJdbcTemplate.update(DELETE_LOANS, params);
+        return copied;
+    }
+}
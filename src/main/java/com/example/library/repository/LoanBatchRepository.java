@@ -0,0 +1,143 @@
+package com.example.library.repository;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// operatii pe imprumuturi in bloc (JDBC batch), pentru ghiseu / cutia de returnare
+// hibernate nu poate face batch la insert cu id IDENTITY, de aceea JdbcTemplate
+// trebuie apelat intr-o tranzactie deschisa de serviciu
+@Repository
+public class LoanBatchRepository {
+
+    private static final String DECREMENT_COPIES =
+            "UPDATE books SET available_copies = available_copies - 1 WHERE id = ? AND available_copies > 0";
+    private static final String INCREMENT_COPIES =
+            "UPDATE books SET available_copies = available_copies + ? WHERE id = ?";
+    private static final String MARK_RETURNED =
+            "UPDATE loans SET return_date = ? WHERE id = ? AND return_date IS NULL";
+    private static final String INSERT_LOAN =
+            "INSERT INTO loans (user_id, book_id, loan_date, due_date) VALUES (?, ?, ?, ?)";
+    private static final String SELECT_COPIES =
+            "SELECT id, available_copies FROM books WHERE id IN (:ids)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public LoanBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    // acelasi UPDATE conditionat ca la imprumutul simplu; rezultatul e numarul de randuri per carte (0 sau 1)
+    public int[] decrementAvailableCopies(List<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return new int[0];
+        }
+        return jdbcTemplate.batchUpdate(DECREMENT_COPIES, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, bookIds.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return bookIds.size();
+            }
+        });
+    }
+
+    // un singur UPDATE per carte, cu numarul de exemplare returnate
+    public void incrementAvailableCopies(Map<Long, Integer> returnedPerBook) {
+        if (returnedPerBook.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(returnedPerBook.entrySet());
+        jdbcTemplate.batchUpdate(INCREMENT_COPIES, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setInt(1, entries.get(i).getValue());
+                ps.setLong(2, entries.get(i).getKey());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entries.size();
+            }
+        });
+    }
+
+    // conditionat ca markReturned din LoanRepository: 0 pe pozitia unui imprumut = era deja returnat
+    public int[] markReturned(List<Long> loanIds, LocalDate returnDate) {
+        if (loanIds.isEmpty()) {
+            return new int[0];
+        }
+        return jdbcTemplate.batchUpdate(MARK_RETURNED, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setDate(1, Date.valueOf(returnDate));
+                ps.setLong(2, loanIds.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return loanIds.size();
+            }
+        });
+    }
+
+    // id-urile imprumuturilor create, in ordinea din bookIds
+    public List<Long> insertLoans(Long userId, List<Long> bookIds, LocalDate loanDate, LocalDate dueDate) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_LOAN, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setLong(1, userId);
+                        ps.setLong(2, bookIds.get(i));
+                        ps.setDate(3, Date.valueOf(loanDate));
+                        ps.setDate(4, Date.valueOf(dueDate));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return bookIds.size();
+                    }
+                },
+                keyHolder);
+
+        List<Long> ids = new ArrayList<>(bookIds.size());
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            ids.add(((Number) keys.values().iterator().next()).longValue());
+        }
+        return ids;
+    }
+
+    public Map<Long, Integer> findAvailableCopies(Collection<Long> bookIds) {
+        Map<Long, Integer> copies = new HashMap<>();
+        if (bookIds.isEmpty()) {
+            return copies;
+        }
+        namedJdbcTemplate.query(SELECT_COPIES, new MapSqlParameterSource("ids", bookIds),
+                rs -> {
+                    copies.put(rs.getLong("id"), rs.getInt("available_copies"));
+                });
+        return copies;
+    }
+}
@@ -1,10 +1,18 @@
 package com.example.library.repository;
 
+import com.example.library.loan.LoanDue;
+import com.example.library.loan.OverdueLoan;
 import com.example.library.model.Loan;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,4 +25,24 @@ public interface LoanRepository extends JpaRepository<Loan, Long> {
 
     List<Loan> findByReturnDateIsNull();
 
+    // doar id + scadenta, pentru construirea DueDateIndex (fara entitati, fara join-uri)
+    @Query("SELECT new com.example.library.loan.LoanDue(l.id, l.dueDate) FROM Loan l WHERE l.returnDate IS NULL")
+    List<LoanDue> findActiveDueDates();
+
+    // pagina keyset pentru job-ul de notificari: titlul vine din join, fara entitati Loan / Book / User
+    @Query("SELECT new com.example.library.loan.OverdueLoan(l.id, l.user.id, b.title, l.dueDate) " +
+            "FROM Loan l JOIN l.book b " +
+            "WHERE l.dueDate < :date AND l.returnDate IS NULL AND l.id > :afterId ORDER BY l.id")
+    List<OverdueLoan> findOverdueAfter(@Param("date") LocalDate date, @Param("afterId") Long afterId, Limit limit);
+
+    // un singur select pentru returnarea in bloc, fara cate un select pe carte / user
+    @Query("SELECT l FROM Loan l JOIN FETCH l.book b LEFT JOIN FETCH b.category JOIN FETCH l.user WHERE l.id IN :ids")
+    List<Loan> findAllWithBookAndUserByIdIn(@Param("ids") Collection<Long> ids);
+
+    // doar primul care returneaza imprumutul il marcheaza; 0 = era deja returnat
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Loan l SET l.returnDate = :returnDate WHERE l.id = :id AND l.returnDate IS NULL")
+    int markReturned(@Param("id") Long id, @Param("returnDate") LocalDate returnDate);
+
 }
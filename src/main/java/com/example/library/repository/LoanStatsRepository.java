@@ -0,0 +1,109 @@
+package com.example.library.repository;
+
+import com.example.library.loan.LoanCounters;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// contoare materializate per user / carte (imprumuturi active si totale)
+// se modifica doar prin UPDATE-uri relative (+1 / -n), in tranzactia imprumutului sau a returnarii
+// randul lipsa (user / carte fara imprumuturi pana acum) se creeaza la prima modificare
+@Repository
+public class LoanStatsRepository {
+
+    private static final String UPDATE_USER =
+            "UPDATE user_loan_stats SET active_loans = active_loans + ?, lifetime_loans = lifetime_loans + ? WHERE user_id = ?";
+    private static final String INSERT_USER =
+            "INSERT INTO user_loan_stats (active_loans, lifetime_loans, user_id) VALUES (?, ?, ?)";
+    private static final String UPDATE_BOOK =
+            "UPDATE book_loan_stats SET active_loans = active_loans + ?, lifetime_loans = lifetime_loans + ? WHERE book_id = ?";
+    private static final String INSERT_BOOK =
+            "INSERT INTO book_loan_stats (active_loans, lifetime_loans, book_id) VALUES (?, ?, ?)";
+
+    private static final String SELECT_USER =
+            "SELECT user_id AS id, active_loans, lifetime_loans FROM user_loan_stats WHERE user_id = ?";
+    private static final String SELECT_BOOK =
+            "SELECT book_id AS id, active_loans, lifetime_loans FROM book_loan_stats WHERE book_id = ?";
+    private static final String SELECT_TOP_BOOKS =
+            "SELECT book_id AS id, active_loans, lifetime_loans FROM book_loan_stats " +
+                    "ORDER BY lifetime_loans DESC, book_id LIMIT ?";
+
+    private static final String COUNT_ROWS =
+            "SELECT (SELECT COUNT(*) FROM user_loan_stats) + (SELECT COUNT(*) FROM book_loan_stats)";
+    private static final String REBUILD_USERS =
+            "INSERT INTO user_loan_stats (user_id, active_loans, lifetime_loans) " +
+                    "SELECT u.id, " +
+                    "(SELECT COUNT(*) FROM loans l WHERE l.user_id = u.id AND l.return_date IS NULL), " +
+                    "(SELECT COUNT(*) FROM loans l WHERE l.user_id = u.id) " +
+                    "+ (SELECT COUNT(*) FROM loans_archive a WHERE a.user_id = u.id) " +
+                    "FROM users u";
+    private static final String REBUILD_BOOKS =
+            "INSERT INTO book_loan_stats (book_id, active_loans, lifetime_loans) " +
+                    "SELECT b.id, " +
+                    "(SELECT COUNT(*) FROM loans l WHERE l.book_id = b.id AND l.return_date IS NULL), " +
+                    "(SELECT COUNT(*) FROM loans l WHERE l.book_id = b.id) " +
+                    "+ (SELECT COUNT(*) FROM loans_archive a WHERE a.book_id = b.id) " +
+                    "FROM books b";
+
+    private static final RowMapper<LoanCounters> COUNTERS = (rs, rowNum) ->
+            new LoanCounters(rs.getLong("id"), rs.getInt("active_loans"), rs.getLong("lifetime_loans"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LoanStatsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void addToUser(Long userId, int activeDelta, int lifetimeDelta) {
+        add(UPDATE_USER, INSERT_USER, userId, activeDelta, lifetimeDelta);
+    }
+
+    public void addToBook(Long bookId, int activeDelta, int lifetimeDelta) {
+        add(UPDATE_BOOK, INSERT_BOOK, bookId, activeDelta, lifetimeDelta);
+    }
+
+    // aceeasi modificare pentru mai multe carti deodata (imprumut / returnare in bloc)
+    public void addToBooks(Map<Long, Integer> countPerBook, int activeSign, int lifetimeSign) {
+        countPerBook.forEach((bookId, count) -> addToBook(bookId, activeSign * count, lifetimeSign * count));
+    }
+
+    public Optional<LoanCounters> findForUser(Long userId) {
+        return jdbcTemplate.query(SELECT_USER, COUNTERS, userId).stream().findFirst();
+    }
+
+    public Optional<LoanCounters> findForBook(Long bookId) {
+        return jdbcTemplate.query(SELECT_BOOK, COUNTERS, bookId).stream().findFirst();
+    }
+
+    public List<LoanCounters> findTopBooks(int limit) {
+        return jdbcTemplate.query(SELECT_TOP_BOOKS, COUNTERS, limit);
+    }
+
+    public boolean isEmpty() {
+        Long rows = jdbcTemplate.queryForObject(COUNT_ROWS, Long.class);
+        return rows == null || rows == 0;
+    }
+
+    // calcul complet din loans + loans_archive; doar pe tabele goale (prima pornire cu contoarele)
+    public void rebuild() {
+        jdbcTemplate.update(REBUILD_USERS);
+        jdbcTemplate.update(REBUILD_BOOKS);
+    }
+
+    private void add(String updateSql, String insertSql, Long id, int activeDelta, int lifetimeDelta) {
+        if (jdbcTemplate.update(updateSql, activeDelta, lifetimeDelta, id) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(insertSql, Math.max(activeDelta, 0), Math.max(lifetimeDelta, 0), id);
+        } catch (DuplicateKeyException e) {
+            // randul a fost creat intre timp de alta tranzactie
+            jdbcTemplate.update(updateSql, activeDelta, lifetimeDelta, id);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.library.repository;
+
+import com.example.library.model.NotificationKind;
+import com.example.library.notification.PendingNotification;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// notificari inserate in bloc (JDBC batch); ca la LoanBatchRepository, IDENTITY nu lasa hibernate sa faca batch
+// (loan_id, kind, notification_day) e unic: un duplicat arunca DuplicateKeyException pentru tot batch-ul
+@Repository
+public class NotificationBatchRepository {
+
+    private static final String INSERT_LOAN_NOTIFICATION =
+            "INSERT INTO notifications (user_id, loan_id, message, created_at, read_flag, kind, notification_day) " +
+                    "VALUES (?, ?, ?, ?, false, ?, ?)";
+    private static final String INSERT_NOTIFICATION =
+            "INSERT INTO notifications (user_id, loan_id, message, created_at, read_flag) VALUES (?, ?, ?, ?, false)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public NotificationBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // notificarile zilnice pe imprumut (loanId obligatoriu); id-urile generate, in ordinea din lista
+    public List<Long> insertLoanNotifications(List<PendingNotification> notifications, NotificationKind kind,
+                                              LocalDate day) {
+        if (notifications.isEmpty()) {
+            return new ArrayList<>();
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_LOAN_NOTIFICATION, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        PendingNotification notification = notifications.get(i);
+                        ps.setLong(1, notification.getUserId());
+                        ps.setLong(2, notification.getLoanId());
+                        ps.setString(3, notification.getMessage());
+                        ps.setTimestamp(4, Timestamp.valueOf(notification.getCreatedAt()));
+                        ps.setString(5, kind.name());
+                        ps.setDate(6, Date.valueOf(day));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return notifications.size();
+                    }
+                },
+                keyHolder);
+        return generatedIds(keyHolder);
+    }
+
+    // batch-urile din NotificationQueue; id-urile generate, in ordinea din lista
+    public List<Long> insertNotifications(List<PendingNotification> notifications) {
+        if (notifications.isEmpty()) {
+            return new ArrayList<>();
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_NOTIFICATION, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        PendingNotification notification = notifications.get(i);
+                        ps.setLong(1, notification.getUserId());
+                        if (notification.getLoanId() != null) {
+                            ps.setLong(2, notification.getLoanId());
+                        } else {
+                            ps.setNull(2, Types.BIGINT);
+                        }
+                        ps.setString(3, notification.getMessage());
+                        ps.setTimestamp(4, Timestamp.valueOf(notification.getCreatedAt()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return notifications.size();
+                    }
+                },
+                keyHolder);
+        return generatedIds(keyHolder);
+    }
+
+    private static List<Long> generatedIds(KeyHolder keyHolder) {
+        List<Long> ids = new ArrayList<>(keyHolder.getKeyList().size());
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            ids.add(((Number) keys.values().iterator().next()).longValue());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.library.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+
+// contor de notificari necitite per user; ca la LoanStatsRepository, doar UPDATE-uri relative,
+// in aceeasi tranzactie cu insert-ul / citirea / stergerea notificarilor
+@Repository
+public class NotificationCounterRepository {
+
+    private static final String UPDATE_UNREAD =
+            "UPDATE user_notification_stats SET unread = GREATEST(unread + ?, 0) WHERE user_id = ?";
+    private static final String UPDATE_UNREAD_BY_EMAIL =
+            "UPDATE user_notification_stats SET unread = GREATEST(unread + ?, 0) " +
+                    "WHERE user_id = (SELECT id FROM users WHERE email = ?)";
+    private static final String INSERT_UNREAD =
+            "INSERT INTO user_notification_stats (unread, user_id) VALUES (?, ?)";
+    private static final String SELECT_UNREAD_BY_EMAIL =
+            "SELECT s.unread FROM user_notification_stats s JOIN users u ON u.id = s.user_id WHERE u.email = ?";
+    private static final String COUNT_ROWS =
+            "SELECT COUNT(*) FROM user_notification_stats";
+    private static final String REBUILD =
+            "INSERT INTO user_notification_stats (user_id, unread) " +
+                    "SELECT user_id, COUNT(*) FROM notifications WHERE read_flag = false GROUP BY user_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public NotificationCounterRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void addUnread(Long userId, int delta) {
+        if (delta == 0 || jdbcTemplate.update(UPDATE_UNREAD, delta, userId) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(INSERT_UNREAD, Math.max(delta, 0), userId);
+        } catch (DuplicateKeyException e) {
+            // randul a fost creat intre timp de alta tranzactie
+            jdbcTemplate.update(UPDATE_UNREAD, delta, userId);
+        }
+    }
+
+    // doar scaderi (operatiile in bloc ale userului logat): fara rand nu era nimic necitit
+    public void subtractUnreadForEmail(String email, int count) {
+        if (count > 0) {
+            jdbcTemplate.update(UPDATE_UNREAD_BY_EMAIL, -count, email);
+        }
+    }
+
+    public void addUnread(Map<Long, Integer> deltaPerUser) {
+        deltaPerUser.forEach(this::addUnread);
+    }
+
+    // un singur round-trip pentru userul logat (username = email); fara rand = nimic necitit
+    public int findUnreadByEmail(String email) {
+        List<Integer> unread = jdbcTemplate.queryForList(SELECT_UNREAD_BY_EMAIL, Integer.class, email);
+        return unread.isEmpty() ? 0 : unread.get(0);
+    }
+
+    public boolean isEmpty() {
+        Long rows = jdbcTemplate.queryForObject(COUNT_ROWS, Long.class);
+        return rows == null || rows == 0;
+    }
+
+    public void rebuild() {
+        jdbcTemplate.update(REBUILD);
+    }
+}
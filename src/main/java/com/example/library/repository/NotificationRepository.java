@@ -1,9 +1,16 @@
 package com.example.library.repository;
 
 import com.example.library.model.Notification;
+import com.example.library.model.NotificationKind;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -12,4 +19,46 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     List<Notification> findByUserIdOrderByCreatedAtDesc(Long userId);
 
     List<Notification> findByUserIdAndReadFlagFalseOrderByCreatedAtDesc(Long userId);
+
+    // conditionat: 1 = notificarea era necitita (contorul scade), 0 = citita deja / marcata in paralel
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.readFlag = true WHERE n.id = :id AND n.readFlag = false")
+    int markRead(@Param("id") Long id);
+
+    // 1 = s-a sters o notificare necitita; altfel notificarea (citita) se sterge normal
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Notification n WHERE n.id = :id AND n.readFlag = false")
+    int deleteUnreadById(@Param("id") Long id);
+
+    // operatii in bloc: proprietarul e verificat in WHERE (dupa email), fara sa incarce notificarile / userul
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.readFlag = true WHERE n.readFlag = false " +
+            "AND n.user.id IN (SELECT u.id FROM User u WHERE u.email = :email)")
+    int markAllReadForEmail(@Param("email") String email);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.readFlag = true WHERE n.readFlag = false AND n.id IN :ids " +
+            "AND n.user.id IN (SELECT u.id FROM User u WHERE u.email = :email)")
+    int markReadForEmail(@Param("ids") Collection<Long> ids, @Param("email") String email);
+
+    // intai cele necitite (pentru contor), apoi restul; ca la deleteUnreadById, fiecare rand e numarat o data
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Notification n WHERE n.id IN :ids AND n.readFlag = :readFlag " +
+            "AND n.user.id IN (SELECT u.id FROM User u WHERE u.email = :email)")
+    int deleteForEmail(@Param("ids") Collection<Long> ids, @Param("readFlag") boolean readFlag,
+                       @Param("email") String email);
+
+    @Query("SELECT n.loan.id FROM Notification n WHERE n.kind = :kind AND n.notificationDay = :day")
+    List<Long> findLoanIdsByKindAndDay(@Param("kind") NotificationKind kind, @Param("day") LocalDate day);
+
+    @Query("SELECT n.loan.id FROM Notification n " +
+            "WHERE n.kind = :kind AND n.notificationDay = :day AND n.loan.id IN :loanIds")
+    List<Long> findLoanIdsByKindAndDayAndLoanIdIn(@Param("kind") NotificationKind kind,
+                                                  @Param("day") LocalDate day,
+                                                  @Param("loanIds") Collection<Long> loanIds);
 }
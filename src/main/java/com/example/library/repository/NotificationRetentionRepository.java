@@ -0,0 +1,56 @@
+package com.example.library.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// curatenia in notifications, pe bucati mici de id-uri (stergeri dupa cheie primara, lock-uri scurte)
+// trebuie apelat in tranzactia deschisa de NotificationRetentionJob, una per bucata
+@Repository
+public class NotificationRetentionRepository {
+
+    private static final String SELECT_EXPIRED_READ =
+            "SELECT id FROM notifications WHERE read_flag = true AND created_at < ? ORDER BY id LIMIT ?";
+    private static final String SELECT_USERS_OVER_CAP =
+            "SELECT user_id FROM notifications GROUP BY user_id HAVING COUNT(*) > ? ORDER BY user_id";
+    private static final String SELECT_BEYOND_CAP =
+            "SELECT id FROM notifications WHERE user_id = ? ORDER BY created_at DESC, id DESC LIMIT ? OFFSET ?";
+    private static final String DELETE_BY_READ_FLAG =
+            "DELETE FROM notifications WHERE id IN (:ids) AND read_flag = :readFlag";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public NotificationRetentionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    // urmatoarea bucata de notificari citite mai vechi decat limita (cele sterse dispar, deci fara cursor)
+    public List<Long> findExpiredReadIds(LocalDateTime createdBefore, int limit) {
+        return jdbcTemplate.queryForList(SELECT_EXPIRED_READ, Long.class, Timestamp.valueOf(createdBefore), limit);
+    }
+
+    public List<Long> findUsersOverCap(int maxPerUser) {
+        return jdbcTemplate.queryForList(SELECT_USERS_OVER_CAP, Long.class, maxPerUser);
+    }
+
+    // cele mai vechi notificari ale userului, dincolo de primele maxPerUser
+    public List<Long> findIdsBeyondCap(Long userId, int maxPerUser, int limit) {
+        return jdbcTemplate.queryForList(SELECT_BEYOND_CAP, Long.class, userId, limit, maxPerUser);
+    }
+
+    // separat pe read_flag: cine sterge necitite stie exact cu cat scade contorul
+    public int delete(List<Long> ids, boolean readFlag) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return namedJdbcTemplate.update(DELETE_BY_READ_FLAG,
+                new MapSqlParameterSource("ids", ids).addValue("readFlag", readFlag));
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.library.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// BK-tree peste termenii din titluri si autori, pentru cautare cu distanta Levenshtein limitata
+// termenii nu se pot scoate din arbore, asa ca tinem un contor de referinte si
+// reconstruim arborele cand termenii "morti" ajung majoritari
+// nu este thread-safe, sincronizarea se face in BookSearchIndex
+class BkTree {
+
+    private static final int COMPACT_MIN_DEAD = 1024;
+
+    private Node root;
+    private final Map<String, Node> nodes = new HashMap<>();
+    private int deadTerms = 0;
+
+    void add(String term) {
+        Node existing = nodes.get(term);
+        if (existing != null) {
+            if (existing.refs++ == 0) {
+                deadTerms--;
+            }
+            return;
+        }
+        Node node = new Node(term);
+        node.refs = 1;
+        nodes.put(term, node);
+        insert(node);
+    }
+
+    void remove(String term) {
+        Node node = nodes.get(term);
+        if (node == null || node.refs == 0) {
+            return;
+        }
+        if (--node.refs == 0) {
+            deadTerms++;
+            if (deadTerms >= COMPACT_MIN_DEAD && deadTerms > nodes.size() - deadTerms) {
+                compact();
+            }
+        }
+    }
+
+    // termen -> distanta, pentru toti termenii activi aflati la cel mult maxDistance
+    Map<String, Integer> search(String query, int maxDistance) {
+        Map<String, Integer> result = new HashMap<>();
+        if (root == null) {
+            return result;
+        }
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            int distance = Levenshtein.distance(query, node.term);
+            if (distance <= maxDistance && node.refs > 0) {
+                result.put(node.term, distance);
+            }
+            // inegalitatea triunghiului: doar copiii din [d - max, d + max] pot contine potriviri
+            for (int d = Math.max(1, distance - maxDistance); d <= distance + maxDistance; d++) {
+                Node child = node.children.get(d);
+                if (child != null) {
+                    stack.push(child);
+                }
+            }
+        }
+        return result;
+    }
+
+    int liveTerms() {
+        return nodes.size() - deadTerms;
+    }
+
+    IndexStats stats() {
+        long bytes = 0;
+        for (Node node : nodes.values()) {
+            bytes += 32 + MemoryEstimates.MAP_ENTRY * 2 + MemoryEstimates.string(node.term)
+                    + 48 + node.children.size() * MemoryEstimates.MAP_ENTRY;
+        }
+        return new IndexStats("fuzzy-bktree", nodes.size(), liveTerms(), bytes);
+    }
+
+    void clear() {
+        root = null;
+        nodes.clear();
+        deadTerms = 0;
+    }
+
+    private void compact() {
+        List<Node> live = new ArrayList<>();
+        for (Node node : nodes.values()) {
+            if (node.refs > 0) {
+                live.add(node);
+            }
+        }
+        clear();
+        for (Node old : live) {
+            Node node = new Node(old.term);
+            node.refs = old.refs;
+            nodes.put(node.term, node);
+            insert(node);
+        }
+    }
+
+    private void insert(Node node) {
+        if (root == null) {
+            root = node;
+            return;
+        }
+        Node current = root;
+        while (true) {
+            int distance = Levenshtein.distance(node.term, current.term);
+            Node child = current.children.get(distance);
+            if (child == null) {
+                current.children.put(distance, node);
+                return;
+            }
+            current = child;
+        }
+    }
+
+    private static class Node {
+        private final String term;
+        private final Map<Integer, Node> children = new HashMap<>(4);
+        private int refs;
+
+        Node(String term) {
+            this.term = term;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.library.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+// BM25 pe campuri (titlu, autor, categorie), fiecare camp cu ponderea lui
+// tine doar lungimile totale ale campurilor; tf-ul se calculeaza din BookDocument la scorare
+// nu este thread-safe, sincronizarea se face in BookSearchIndex
+class Bm25Scorer {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final Map<BookField, Double> FIELD_WEIGHTS = new EnumMap<>(Map.of(
+            BookField.TITLE, 2.0,
+            BookField.AUTHOR, 1.5,
+            BookField.CATEGORY, 0.5
+    ));
+
+    private final Map<BookField, Long> totalFieldLength = new EnumMap<>(BookField.class);
+    private int documentCount = 0;
+
+    Bm25Scorer() {
+        clear();
+    }
+
+    void add(BookDocument doc) {
+        documentCount++;
+        for (BookField field : BookField.values()) {
+            totalFieldLength.merge(field, (long) doc.getTokens(field).size(), Long::sum);
+        }
+    }
+
+    void remove(BookDocument doc) {
+        documentCount--;
+        for (BookField field : BookField.values()) {
+            totalFieldLength.merge(field, (long) -doc.getTokens(field).size(), Long::sum);
+        }
+    }
+
+    void clear() {
+        documentCount = 0;
+        for (BookField field : BookField.values()) {
+            totalFieldLength.put(field, 0L);
+        }
+    }
+
+    // primele k carti dupa scor (descrescator), la egalitate id-ul mai mic castiga
+    List<Long> topK(List<String> queryTokens, int k, InvertedIndex index, Map<Long, BookDocument> documents) {
+        Map<Long, Double> scores = new HashMap<>();
+        for (String token : queryTokens) {
+            for (BookField field : BookField.values()) {
+                Set<Long> ids = index.match(field, token);
+                if (ids.isEmpty()) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documentCount - ids.size() + 0.5) / (ids.size() + 0.5));
+                double avgLength = Math.max(1.0, (double) totalFieldLength.get(field) / Math.max(1, documentCount));
+                double weight = FIELD_WEIGHTS.get(field);
+
+                for (Long id : ids) {
+                    List<String> fieldTokens = documents.get(id).getTokens(field);
+                    int tf = Collections.frequency(fieldTokens, token);
+                    double norm = K1 * (1 - B + B * fieldTokens.size() / avgLength);
+                    scores.merge(id, weight * idf * tf * (K1 + 1) / (tf + norm), Double::sum);
+                }
+            }
+        }
+
+        // heap de minim marginit la k elemente -> O(n log k), nu sortam toate potrivirile
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(
+                Math.max(1, k), Bm25Scorer::compare);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            if (heap.size() < k) {
+                heap.offer(entry);
+            } else if (compare(entry, heap.peek()) > 0) {
+                heap.poll();
+                heap.offer(entry);
+            }
+        }
+
+        List<Long> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            result.add(heap.poll().getKey());
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    // "mai mare" = scor mai bun; la scor egal, id-ul mai mic e mai bun
+    private static int compare(Map.Entry<Long, Double> a, Map.Entry<Long, Double> b) {
+        int byScore = Double.compare(a.getValue(), b.getValue());
+        return byScore != 0 ? byScore : Long.compare(b.getKey(), a.getKey());
+    }
+}
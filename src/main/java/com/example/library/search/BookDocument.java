@@ -0,0 +1,108 @@
+package com.example.library.search;
+
+import com.example.library.model.Book;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// snapshot imutabil al campurilor indexate dintr-o carte
+public class BookDocument {
+
+    private final Long id;
+    private final String title;
+    private final String author;
+    private final Long categoryId;
+    private final String categoryName;
+    private final int publishedYear;
+    private final int availableCopies;
+    private final Map<BookField, List<String>> tokens = new EnumMap<>(BookField.class);
+
+    public BookDocument(Long id, String title, String author, Long categoryId, String categoryName,
+                        int publishedYear, int availableCopies) {
+        this.id = id;
+        this.title = title;
+        this.author = author;
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+        this.publishedYear = publishedYear;
+        this.availableCopies = availableCopies;
+
+        tokens.put(BookField.TITLE, TextNormalizer.tokenize(title));
+        tokens.put(BookField.AUTHOR, TextNormalizer.tokenize(author));
+        tokens.put(BookField.CATEGORY, TextNormalizer.tokenize(categoryName));
+    }
+
+    public static BookDocument of(Book book, String categoryName) {
+        Long categoryId = book.getCategory() != null ? book.getCategory().getId() : null;
+        return new BookDocument(book.getId(), book.getTitle(), book.getAuthor(), categoryId, categoryName,
+                book.getPublishedYear(), book.getAvailableCopies());
+    }
+
+    public BookDocument withCategoryName(String newCategoryName) {
+        return new BookDocument(id, title, author, categoryId, newCategoryName, publishedYear, availableCopies);
+    }
+
+    public BookDocument withAvailableCopies(int newAvailableCopies) {
+        return new BookDocument(id, title, author, categoryId, categoryName, publishedYear, newAvailableCopies);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public int getPublishedYear() {
+        return publishedYear;
+    }
+
+    public int getAvailableCopies() {
+        return availableCopies;
+    }
+
+    // deceniul (1990, 2000, ...) folosit la fatete
+    public int getDecade() {
+        return Math.floorDiv(publishedYear, 10) * 10;
+    }
+
+    public List<String> getTokens(BookField field) {
+        return tokens.get(field);
+    }
+
+    // semantica din /api/books/search: fiecare cuvant din cautare e inceputul unui cuvant din titlu, autor sau categorie
+    // (aceeasi ca in BookSearchIndex.searchAnywhere; folosita de cache si de cautarea din DB cat indexul nu e gata)
+    public boolean matchesAllTokens(List<String> queryTokens) {
+        for (String queryToken : queryTokens) {
+            if (!hasTokenStartingWith(queryToken)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean hasTokenStartingWith(String prefix) {
+        for (List<String> fieldTokens : tokens.values()) {
+            for (String token : fieldTokens) {
+                if (token.startsWith(prefix)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.library.search;
+
+public enum BookField {
+    TITLE,
+    AUTHOR,
+    CATEGORY
+}
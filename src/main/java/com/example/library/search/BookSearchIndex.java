@@ -0,0 +1,400 @@
+package com.example.library.search;
+
+import com.example.library.model.Book;
+import com.example.library.model.Category;
+import com.example.library.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// index in memorie peste catalog (titlu, autor, categorie)
+// construit la pornire si tinut la zi de BookService / CategoryService
+@Component
+public class BookSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(BookSearchIndex.class);
+
+    private final BookRepository bookRepository;
+    private final SearchResultCache searchResultCache;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, BookDocument> documents = new HashMap<>();
+    private final Map<Long, String> categoryNames = new HashMap<>();
+    private final InvertedIndex invertedIndex = new InvertedIndex();
+    private final TrigramIndex titleTrigrams = new TrigramIndex("title-trigram");
+    private final TrigramIndex authorTrigrams = new TrigramIndex("author-trigram");
+    private final PrefixSuggester suggester = new PrefixSuggester();
+    private final BkTree fuzzyTerms = new BkTree();
+    private final Bm25Scorer bm25 = new Bm25Scorer();
+    private final FacetIndex facets = new FacetIndex();
+
+    private volatile boolean ready = false;
+
+    public BookSearchIndex(BookRepository bookRepository, SearchResultCache searchResultCache) {
+        this.bookRepository = bookRepository;
+        this.searchResultCache = searchResultCache;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            categoryNames.clear();
+            invertedIndex.clear();
+            titleTrigrams.clear();
+            authorTrigrams.clear();
+            suggester.clear();
+            fuzzyTerms.clear();
+            bm25.clear();
+            facets.clear();
+            searchResultCache.clear();
+
+            for (Book book : bookRepository.findAll()) {
+                Category category = book.getCategory();
+                if (category != null && category.getId() != null) {
+                    categoryNames.put(category.getId(), category.getName());
+                }
+                addDocument(BookDocument.of(book, category != null ? category.getName() : null));
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Book search index built: {} books in {} ms", documents.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // adauga sau inlocuieste cartea in index
+    public void index(Book book) {
+        if (book == null || book.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            BookDocument doc = BookDocument.of(book, resolveCategoryName(book.getCategory()));
+            BookDocument before = documents.get(book.getId());
+            removeDocument(book.getId());
+            addDocument(doc);
+            searchResultCache.documentChanged(before, doc);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            BookDocument before = documents.get(bookId);
+            removeDocument(bookId);
+            if (before != null) {
+                searchResultCache.documentChanged(before, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // categorie noua sau redenumita: reindexam doar cartile din categoria respectiva
+    public void categoryChanged(Long categoryId, String name) {
+        if (categoryId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            categoryNames.put(categoryId, name);
+
+            List<BookDocument> affected = new ArrayList<>();
+            for (BookDocument doc : documents.values()) {
+                if (categoryId.equals(doc.getCategoryId())) {
+                    affected.add(doc);
+                }
+            }
+            for (BookDocument doc : affected) {
+                BookDocument renamed = doc.withCategoryName(name);
+                removeDocument(doc.getId());
+                addDocument(renamed);
+                searchResultCache.documentChanged(doc, renamed);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void categoryRemoved(Long categoryId) {
+        lock.writeLock().lock();
+        try {
+            categoryNames.remove(categoryId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // fiecare cuvant din keyword trebuie sa fie prefix al unui termen din titlu, autor sau categorie
+    // rezultatul e sortat dupa id
+    public List<Long> searchAnywhere(String keyword) {
+        List<String> queryTokens = TextNormalizer.tokenize(keyword);
+
+        lock.readLock().lock();
+        try {
+            return sorted(matchAnywhere(queryTokens));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // s-a schimbat doar numarul de exemplare (imprumut / returnare)
+    // SearchResultCache nu se invalideaza: tine doar id-uri, exemplarele se citesc din DB
+    // apelat din tranzactia imprumutului / returnarii: fateta se schimba abia dupa commit, un rollback o lasa neatinsa
+    public void updateAvailability(Long bookId, int availableCopies) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    updateAvailabilityNow(bookId, availableCopies);
+                }
+            });
+        } else {
+            updateAvailabilityNow(bookId, availableCopies);
+        }
+    }
+
+    private void updateAvailabilityNow(Long bookId, int availableCopies) {
+        lock.writeLock().lock();
+        try {
+            BookDocument existing = documents.get(bookId);
+            if (existing != null) {
+                documents.put(bookId, existing.withAvailableCopies(availableCopies));
+                facets.setAvailable(bookId, availableCopies > 0);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // hit-urile si toate numaratorile de fatete dintr-o singura trecere peste bitmap-uri
+    public FacetResult facetSearch(String keyword, Long categoryId, Integer decade, Boolean available, int limit) {
+        List<String> queryTokens = TextNormalizer.tokenize(keyword);
+
+        lock.readLock().lock();
+        try {
+            BitSet candidates;
+            if (queryTokens.isEmpty()) {
+                candidates = facets.all();
+            } else {
+                candidates = new BitSet();
+                for (Long id : matchAnywhere(queryTokens)) {
+                    candidates.set(FacetIndex.bit(id));
+                }
+            }
+            return facets.compute(candidates, categoryId, decade, available, limit, categoryNames);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // echivalentul findByTitleContainingIgnoreCase, sortat dupa id
+    public List<Long> searchTitleContaining(String text) {
+        lock.readLock().lock();
+        try {
+            return sorted(titleTrigrams.search(text));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // echivalentul findByAuthorContainingIgnoreCase, sortat dupa id
+    public List<Long> searchAuthorContaining(String text) {
+        lock.readLock().lock();
+        try {
+            return sorted(authorTrigrams.search(text));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // cautare toleranta la greseli pe titlu si autor; fiecare cuvant din query trebuie sa se potriveasca
+    // cu un termen aflat la cel mult maxDistance editari (limitat si de lungimea cuvantului)
+    // rezultatul e sortat dupa suma distantelor, apoi dupa id
+    public List<Long> searchFuzzy(String query, int maxDistance) {
+        List<String> queryTokens = TextNormalizer.tokenize(query);
+        if (queryTokens.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> totalDistance = null;
+            for (String token : queryTokens) {
+                int allowed = Math.min(maxDistance, allowedEdits(token));
+                Map<Long, Integer> best = new HashMap<>();
+                for (Map.Entry<String, Integer> term : fuzzyTerms.search(token, allowed).entrySet()) {
+                    for (BookField field : List.of(BookField.TITLE, BookField.AUTHOR)) {
+                        for (Long id : invertedIndex.match(field, term.getKey())) {
+                            best.merge(id, term.getValue(), Math::min);
+                        }
+                    }
+                }
+                if (totalDistance == null) {
+                    totalDistance = best;
+                } else {
+                    totalDistance.keySet().retainAll(best.keySet());
+                    totalDistance.replaceAll((id, distance) -> distance + best.get(id));
+                }
+                if (totalDistance.isEmpty()) {
+                    break;
+                }
+            }
+
+            Map<Long, Integer> distances = totalDistance;
+            List<Long> ids = new ArrayList<>(distances.keySet());
+            ids.sort(Comparator.comparing((Long id) -> distances.get(id)).thenComparing(id -> id));
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // cautare cu relevanta (BM25 pe titlu/autor/categorie), doar primele `limit` rezultate
+    public List<Long> searchRanked(String keyword, int limit) {
+        List<String> queryTokens = TextNormalizer.tokenize(keyword);
+        if (queryTokens.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            return bm25.topK(queryTokens, limit, invertedIndex, documents);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            return suggester.suggest(prefix, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<IndexStats> stats() {
+        lock.readLock().lock();
+        try {
+            return List.of(
+                    invertedIndex.stats(),
+                    titleTrigrams.stats(),
+                    authorTrigrams.stats(),
+                    suggester.stats(),
+                    fuzzyTerms.stats(),
+                    facets.stats()
+            );
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Set<Long> matchAnywhere(List<String> queryTokens) {
+        Set<Long> result = null;
+        if (queryTokens.isEmpty()) {
+            result = new HashSet<>(documents.keySet());
+        }
+        for (String token : queryTokens) {
+            Set<Long> matches = new HashSet<>();
+            for (BookField field : BookField.values()) {
+                matches.addAll(invertedIndex.matchPrefix(field, token));
+            }
+            if (result == null) {
+                result = matches;
+            } else {
+                result.retainAll(matches);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    // cuvintele scurte tolereaza mai putine greseli, altfel "it" s-ar potrivi cu orice
+    private static int allowedEdits(String token) {
+        if (token.length() <= 2) {
+            return 0;
+        }
+        return token.length() <= 5 ? 1 : 2;
+    }
+
+    private String resolveCategoryName(Category category) {
+        if (category == null) {
+            return null;
+        }
+        // la createBook categoria vine de obicei doar cu id-ul
+        if (category.getName() != null) {
+            return category.getName();
+        }
+        return categoryNames.get(category.getId());
+    }
+
+    private void addDocument(BookDocument doc) {
+        documents.put(doc.getId(), doc);
+        invertedIndex.add(doc);
+        bm25.add(doc);
+        facets.add(doc);
+        titleTrigrams.add(doc.getId(), doc.getTitle());
+        authorTrigrams.add(doc.getId(), doc.getAuthor());
+        suggester.add(doc.getTitle(), BookField.TITLE);
+        suggester.add(doc.getAuthor(), BookField.AUTHOR);
+        doc.getTokens(BookField.TITLE).forEach(fuzzyTerms::add);
+        doc.getTokens(BookField.AUTHOR).forEach(fuzzyTerms::add);
+    }
+
+    private void removeDocument(Long bookId) {
+        BookDocument existing = documents.remove(bookId);
+        if (existing != null) {
+            invertedIndex.remove(existing);
+            bm25.remove(existing);
+            facets.remove(existing);
+            titleTrigrams.remove(bookId);
+            authorTrigrams.remove(bookId);
+            suggester.remove(existing.getTitle(), BookField.TITLE);
+            suggester.remove(existing.getAuthor(), BookField.AUTHOR);
+            existing.getTokens(BookField.TITLE).forEach(fuzzyTerms::remove);
+            existing.getTokens(BookField.AUTHOR).forEach(fuzzyTerms::remove);
+        }
+    }
+
+    private static List<Long> sorted(Set<Long> ids) {
+        List<Long> list = new ArrayList<>(ids);
+        Collections.sort(list);
+        return list;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.library.search;
+
+public class FacetCount {
+
+    private final String key;
+    private final String label;
+    private final long count;
+
+    public FacetCount(String key, String label, long count) {
+        this.key = key;
+        this.label = label;
+        this.count = count;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
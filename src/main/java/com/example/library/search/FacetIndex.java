@@ -0,0 +1,143 @@
+package com.example.library.search;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// bitmap-uri pe id-ul cartii pentru fiecare valoare de fateta (categorie, deceniu, disponibilitate)
+// id-urile sunt generate secvential (IDENTITY), deci un BitSet pe id ramane dens
+// nu este thread-safe, sincronizarea se face in BookSearchIndex
+class FacetIndex {
+
+    private final BitSet all = new BitSet();
+    private final Map<Long, BitSet> byCategory = new HashMap<>();
+    private final NavigableMap<Integer, BitSet> byDecade = new TreeMap<>();
+    private final BitSet available = new BitSet();
+
+    void add(BookDocument doc) {
+        int bit = bit(doc.getId());
+        all.set(bit);
+        if (doc.getCategoryId() != null) {
+            byCategory.computeIfAbsent(doc.getCategoryId(), c -> new BitSet()).set(bit);
+        }
+        byDecade.computeIfAbsent(doc.getDecade(), d -> new BitSet()).set(bit);
+        available.set(bit, doc.getAvailableCopies() > 0);
+    }
+
+    void remove(BookDocument doc) {
+        int bit = bit(doc.getId());
+        all.clear(bit);
+        if (doc.getCategoryId() != null) {
+            clearAndPrune(byCategory, doc.getCategoryId(), bit);
+        }
+        clearAndPrune(byDecade, doc.getDecade(), bit);
+        available.clear(bit);
+    }
+
+    void setAvailable(Long bookId, boolean isAvailable) {
+        int bit = bit(bookId);
+        if (all.get(bit)) {
+            available.set(bit, isAvailable);
+        }
+    }
+
+    BitSet all() {
+        return (BitSet) all.clone();
+    }
+
+    // filtrele se aplica prin AND pe bitmap-uri, apoi numaratorile se fac pe setul rezultat
+    FacetResult compute(BitSet candidates, Long categoryId, Integer decade, Boolean onlyAvailable,
+                        int limit, Map<Long, String> categoryNames) {
+        BitSet hits = (BitSet) candidates.clone();
+        hits.and(all);
+        if (categoryId != null) {
+            hits.and(byCategory.getOrDefault(categoryId, new BitSet()));
+        }
+        if (decade != null) {
+            hits.and(byDecade.getOrDefault(decade, new BitSet()));
+        }
+        if (onlyAvailable != null) {
+            if (onlyAvailable) {
+                hits.and(available);
+            } else {
+                hits.andNot(available);
+            }
+        }
+
+        List<FacetCount> categories = new ArrayList<>();
+        for (Map.Entry<Long, BitSet> entry : byCategory.entrySet()) {
+            int count = intersectionSize(hits, entry.getValue());
+            if (count > 0) {
+                categories.add(new FacetCount(String.valueOf(entry.getKey()),
+                        categoryNames.get(entry.getKey()), count));
+            }
+        }
+        categories.sort((a, b) -> Long.compare(b.getCount(), a.getCount()));
+
+        List<FacetCount> decades = new ArrayList<>();
+        for (Map.Entry<Integer, BitSet> entry : byDecade.entrySet()) {
+            int count = intersectionSize(hits, entry.getValue());
+            if (count > 0) {
+                decades.add(new FacetCount(String.valueOf(entry.getKey()), entry.getKey() + "s", count));
+            }
+        }
+
+        int total = hits.cardinality();
+        int availableCount = intersectionSize(hits, available);
+        List<FacetCount> availability = List.of(
+                new FacetCount("true", "Available now", availableCount),
+                new FacetCount("false", "Not available", total - availableCount)
+        );
+
+        List<Long> hitIds = new ArrayList<>();
+        for (int bit = hits.nextSetBit(0); bit >= 0 && hitIds.size() < limit; bit = hits.nextSetBit(bit + 1)) {
+            hitIds.add((long) bit);
+        }
+        return new FacetResult(hitIds, total, categories, decades, availability);
+    }
+
+    IndexStats stats() {
+        long bytes = all.size() / 8 + available.size() / 8;
+        long keys = 2;
+        for (BitSet bits : byCategory.values()) {
+            bytes += bits.size() / 8 + MemoryEstimates.MAP_ENTRY;
+            keys++;
+        }
+        for (BitSet bits : byDecade.values()) {
+            bytes += bits.size() / 8 + MemoryEstimates.MAP_ENTRY;
+            keys++;
+        }
+        return new IndexStats("facets", keys, all.cardinality(), bytes);
+    }
+
+    void clear() {
+        all.clear();
+        byCategory.clear();
+        byDecade.clear();
+        available.clear();
+    }
+
+    static int bit(Long bookId) {
+        return Math.toIntExact(bookId);
+    }
+
+    private static int intersectionSize(BitSet a, BitSet b) {
+        BitSet copy = (BitSet) a.clone();
+        copy.and(b);
+        return copy.cardinality();
+    }
+
+    private static <K> void clearAndPrune(Map<K, BitSet> map, K key, int bit) {
+        BitSet bits = map.get(key);
+        if (bits != null) {
+            bits.clear(bit);
+            if (bits.isEmpty()) {
+                map.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.library.search;
+
+import java.util.List;
+
+// rezultatul unei cautari cu fatete: primele id-uri + numaratorile pentru fiecare fateta
+public class FacetResult {
+
+    private final List<Long> hitIds;
+    private final long totalHits;
+    private final List<FacetCount> categories;
+    private final List<FacetCount> decades;
+    private final List<FacetCount> availability;
+
+    public FacetResult(List<Long> hitIds, long totalHits, List<FacetCount> categories,
+                       List<FacetCount> decades, List<FacetCount> availability) {
+        this.hitIds = hitIds;
+        this.totalHits = totalHits;
+        this.categories = categories;
+        this.decades = decades;
+        this.availability = availability;
+    }
+
+    public List<Long> getHitIds() {
+        return hitIds;
+    }
+
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    public List<FacetCount> getCategories() {
+        return categories;
+    }
+
+    public List<FacetCount> getDecades() {
+        return decades;
+    }
+
+    public List<FacetCount> getAvailability() {
+        return availability;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.library.search;
+
+public class IndexStats {
+
+    private final String name;
+    private final long keys;
+    private final long postings;
+    private final long estimatedBytes;
+
+    public IndexStats(String name, long keys, long postings, long estimatedBytes) {
+        this.name = name;
+        this.keys = keys;
+        this.postings = postings;
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getKeys() {
+        return keys;
+    }
+
+    public long getPostings() {
+        return postings;
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+}
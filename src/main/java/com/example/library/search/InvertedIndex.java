@@ -0,0 +1,86 @@
+package com.example.library.search;
+
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+// term -> id-uri de carti, separat pe camp; termenii sunt sortati ca sa putem face match pe prefix
+// nu este thread-safe, sincronizarea se face in BookSearchIndex
+class InvertedIndex {
+
+    private final Map<BookField, NavigableMap<String, Set<Long>>> postings = new EnumMap<>(BookField.class);
+
+    InvertedIndex() {
+        for (BookField field : BookField.values()) {
+            postings.put(field, new TreeMap<>());
+        }
+    }
+
+    void add(BookDocument doc) {
+        for (BookField field : BookField.values()) {
+            NavigableMap<String, Set<Long>> terms = postings.get(field);
+            for (String token : doc.getTokens(field)) {
+                terms.computeIfAbsent(token, t -> new HashSet<>()).add(doc.getId());
+            }
+        }
+    }
+
+    void remove(BookDocument doc) {
+        for (BookField field : BookField.values()) {
+            NavigableMap<String, Set<Long>> terms = postings.get(field);
+            for (String token : doc.getTokens(field)) {
+                Set<Long> ids = terms.get(token);
+                if (ids != null) {
+                    ids.remove(doc.getId());
+                    if (ids.isEmpty()) {
+                        terms.remove(token);
+                    }
+                }
+            }
+        }
+    }
+
+    // toate cartile care au in campul dat un termen care incepe cu prefixul
+    Set<Long> matchPrefix(BookField field, String prefix) {
+        Set<Long> result = new HashSet<>();
+        for (Set<Long> ids : prefixRange(field, prefix).values()) {
+            result.addAll(ids);
+        }
+        return result;
+    }
+
+    Set<Long> match(BookField field, String term) {
+        Set<Long> ids = postings.get(field).get(term);
+        return ids != null ? ids : Set.of();
+    }
+
+    NavigableMap<String, Set<Long>> prefixRange(BookField field, String prefix) {
+        return postings.get(field).subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    int termCount(BookField field) {
+        return postings.get(field).size();
+    }
+
+    IndexStats stats() {
+        long terms = 0;
+        long postingCount = 0;
+        long bytes = 0;
+        for (NavigableMap<String, Set<Long>> fieldTerms : postings.values()) {
+            terms += fieldTerms.size();
+            for (Map.Entry<String, Set<Long>> entry : fieldTerms.entrySet()) {
+                postingCount += entry.getValue().size();
+                // TreeMap: ~40 bytes / nod
+                bytes += 40 + MemoryEstimates.string(entry.getKey()) + MemoryEstimates.idSet(entry.getValue().size());
+            }
+        }
+        return new IndexStats("inverted", terms, postingCount, bytes);
+    }
+
+    void clear() {
+        postings.values().forEach(Map::clear);
+    }
+}
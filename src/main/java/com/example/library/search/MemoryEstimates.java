@@ -0,0 +1,21 @@
+package com.example.library.search;
+
+// estimari aproximative (JVM 64-bit, compressed oops) folosite in statisticile indexurilor
+final class MemoryEstimates {
+
+    static final long MAP_ENTRY = 32;
+    static final long BOXED_LONG = 16;
+    static final long EMPTY_SET = 64;
+
+    private MemoryEstimates() {
+    }
+
+    static long string(String value) {
+        return 40 + value.length();
+    }
+
+    static long idSet(int size) {
+        // tabela de bucket-uri (~4 bytes / slot, load factor 0.75) + intrare + Long
+        return EMPTY_SET + (long) (size / 0.75) * 4 + size * (MAP_ENTRY + BOXED_LONG);
+    }
+}
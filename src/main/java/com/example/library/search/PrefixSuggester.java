@@ -0,0 +1,241 @@
+package com.example.library.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+// autocomplete pe titluri si autori: doua array-uri sortate (TreeMap) cu cheile normalizate
+// - phrases: fraza intreaga ("the lord of the rings")
+// - wordStarts: sufixele care incep la granita de cuvant ("lord of the rings", "rings", ...)
+// greutatea unei completari = cate carti o au (refs): un autor cu 10 carti trece inaintea unuia cu o carte,
+// la egalitate ramane ordinea alfabetica din TreeMap
+// pentru prefixele scurte (1-3 caractere, intervalele mari) se tine gata lista top-K, actualizata la add/remove;
+// prefixele mai lungi au intervale mici si se parcurg la cerere
+// nu este thread-safe, sincronizarea se face in BookSearchIndex
+class PrefixSuggester {
+
+    private static final char SEPARATOR = '\u0000';
+
+    // cate completari se tin gata per prefix scurt; limitele mai mari se servesc din interval
+    static final int TOP_K = 50;
+    static final int CACHED_PREFIX_LENGTH = 3;
+
+    // cele mai bune primele: refs descrescator, apoi ordinea cheilor (pozitia in intervalul prefixului)
+    private static final Comparator<Completion> RANKING = Comparator
+            .comparingInt((Completion completion) -> completion.refs).reversed()
+            .thenComparing(completion -> completion.key);
+
+    private final CompletionRange phrases = new CompletionRange();
+    private final CompletionRange wordStarts = new CompletionRange();
+
+    void add(String text, BookField type) {
+        String normalized = TextNormalizer.normalize(text);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        String suffixKey = SEPARATOR + normalized + SEPARATOR + type;
+        phrases.add(normalized, suffixKey, text.trim(), type);
+        for (int i = 1; i < normalized.length(); i++) {
+            if (normalized.charAt(i - 1) == ' ' && normalized.charAt(i) != ' ') {
+                wordStarts.add(normalized.substring(i), suffixKey, text.trim(), type);
+            }
+        }
+    }
+
+    void remove(String text, BookField type) {
+        String normalized = TextNormalizer.normalize(text);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        String suffixKey = SEPARATOR + normalized + SEPARATOR + type;
+        phrases.release(normalized, suffixKey);
+        for (int i = 1; i < normalized.length(); i++) {
+            if (normalized.charAt(i - 1) == ' ' && normalized.charAt(i) != ' ') {
+                wordStarts.release(normalized.substring(i), suffixKey);
+            }
+        }
+    }
+
+    // top `limit` dupa greutate: intai frazele care incep cu prefixul, apoi cele care il contin la inceput de cuvant
+    List<Suggestion> suggest(String prefix, int limit) {
+        String normalized = TextNormalizer.normalize(prefix);
+        List<Suggestion> result = new ArrayList<>();
+        if (normalized.isEmpty() || limit <= 0) {
+            return result;
+        }
+        Set<String> seen = new HashSet<>();
+        phrases.collect(normalized, limit, seen, result);
+        wordStarts.collect(normalized, limit, seen, result);
+        return result;
+    }
+
+    int size() {
+        return phrases.entries.size() + wordStarts.entries.size();
+    }
+
+    IndexStats stats() {
+        long bytes = phrases.estimateBytes() + wordStarts.estimateBytes();
+        return new IndexStats("suggest", size(), phrases.entries.size(), bytes);
+    }
+
+    void clear() {
+        phrases.clear();
+        wordStarts.clear();
+    }
+
+    // un TreeMap de completari + top-K gata sortat pentru fiecare prefix de cel mult CACHED_PREFIX_LENGTH caractere
+    private static class CompletionRange {
+        private final NavigableMap<String, Completion> entries = new TreeMap<>();
+        private final Map<String, List<Completion>> topByPrefix = new HashMap<>();
+
+        // refs doar cresc: completarea urca in listele prefixelor ei, fara sa se parcurga intervalul
+        void add(String suffix, String suffixKey, String text, BookField type) {
+            String key = suffix + suffixKey;
+            Completion completion = entries.computeIfAbsent(key, k -> new Completion(k, text, type));
+            completion.refs++;
+            for (int length = 1; length <= Math.min(CACHED_PREFIX_LENGTH, suffix.length()); length++) {
+                promote(topByPrefix.computeIfAbsent(suffix.substring(0, length), p -> new ArrayList<>()), completion);
+            }
+        }
+
+        // refs scad: doar listele in care completarea era in top se recalculeaza (urmatorul candidat e necunoscut)
+        void release(String suffix, String suffixKey) {
+            String key = suffix + suffixKey;
+            Completion completion = entries.get(key);
+            if (completion == null) {
+                return;
+            }
+            if (--completion.refs <= 0) {
+                entries.remove(key);
+            }
+            for (int length = 1; length <= Math.min(CACHED_PREFIX_LENGTH, suffix.length()); length++) {
+                String prefix = suffix.substring(0, length);
+                List<Completion> top = topByPrefix.get(prefix);
+                if (top == null || !containsSame(top, completion)) {
+                    continue;
+                }
+                List<Completion> rebuilt = scan(prefix, TOP_K, Set.of());
+                if (rebuilt.isEmpty()) {
+                    topByPrefix.remove(prefix);
+                } else {
+                    topByPrefix.put(prefix, rebuilt);
+                }
+            }
+        }
+
+        void collect(String prefix, int limit, Set<String> seen, List<Suggestion> result) {
+            int room = limit - result.size();
+            if (room <= 0) {
+                return;
+            }
+            // lista tine TOP_K completari distincte; cel mult `seen.size()` dintre ele sunt deja in rezultat
+            List<Completion> candidates = prefix.length() <= CACHED_PREFIX_LENGTH && limit <= TOP_K
+                    ? topByPrefix.getOrDefault(prefix, List.of())
+                    : scan(prefix, room, seen);
+            List<Completion> best = new ArrayList<>(room);
+            for (Completion completion : candidates) {
+                if (best.size() == room) {
+                    break;
+                }
+                if (!seen.contains(completion.dedupeKey)) {
+                    best.add(completion);
+                }
+            }
+            for (Completion completion : best) {
+                seen.add(completion.dedupeKey);
+                result.add(new Suggestion(completion.text, completion.type));
+            }
+        }
+
+        // un heap de cel mult `room` elemente peste tot intervalul prefixului (radacina = cea mai slaba dintre ele)
+        private List<Completion> scan(String prefix, int room, Set<String> seen) {
+            PriorityQueue<Completion> top = new PriorityQueue<>(room, RANKING.reversed());
+            Set<String> candidates = new HashSet<>();
+            for (Completion completion : entries.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+                if (seen.contains(completion.dedupeKey) || !candidates.add(completion.dedupeKey)) {
+                    continue;
+                }
+                if (top.size() < room) {
+                    top.add(completion);
+                } else if (RANKING.compare(completion, top.peek()) < 0) {
+                    top.poll();
+                    top.add(completion);
+                }
+            }
+            List<Completion> best = new ArrayList<>(top);
+            best.sort(RANKING);
+            return best;
+        }
+
+        // acelasi text poate aparea sub mai multe chei din interval ("ring of ring x": "ring of..." si "ring x");
+        // ramane doar cea mai bine clasata
+        private static void promote(List<Completion> top, Completion completion) {
+            if (!top.contains(completion)) {
+                Completion duplicate = findSame(top, completion);
+                if (duplicate != null) {
+                    if (RANKING.compare(completion, duplicate) >= 0) {
+                        return;
+                    }
+                    top.remove(duplicate);
+                }
+                top.add(completion);
+            }
+            top.sort(RANKING);
+            if (top.size() > TOP_K) {
+                top.remove(top.size() - 1);
+            }
+        }
+
+        private static boolean containsSame(List<Completion> top, Completion completion) {
+            return findSame(top, completion) != null;
+        }
+
+        private static Completion findSame(List<Completion> top, Completion completion) {
+            for (Completion candidate : top) {
+                if (candidate.dedupeKey.equals(completion.dedupeKey)) {
+                    return candidate;
+                }
+            }
+            return null;
+        }
+
+        long estimateBytes() {
+            long bytes = 0;
+            for (String key : entries.keySet()) {
+                bytes += 40 + MemoryEstimates.string(key) + 24;
+            }
+            for (Map.Entry<String, List<Completion>> entry : topByPrefix.entrySet()) {
+                bytes += 32 + MemoryEstimates.string(entry.getKey()) + 24 + 4L * entry.getValue().size();
+            }
+            return bytes;
+        }
+
+        void clear() {
+            entries.clear();
+            topByPrefix.clear();
+        }
+    }
+
+    private static class Completion {
+        private final String key;
+        private final String text;
+        private final BookField type;
+        // cheia de deduplicare, calculata o singura data
+        private final String dedupeKey;
+        private int refs;
+
+        Completion(String key, String text, BookField type) {
+            this.key = key;
+            this.text = text;
+            this.type = type;
+            this.dedupeKey = type + ":" + text.toLowerCase();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.library.search;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+// cache LRU pentru rezultatele cautarilor simple (doar id-uri, cartile se incarca mereu din DB)
+// limitat dupa greutate = numarul total de id-uri tinute in cache
+// invalidarea se face pe carte: un rezultat se sterge doar daca cartea se potrivea inainte sau dupa modificare
+@Component
+public class SearchResultCache {
+
+    public enum Kind {
+        ANYWHERE,
+        TITLE,
+        AUTHOR,
+        CATEGORY
+    }
+
+    private final long maxWeight;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long weight = 0;
+    // creste la fiecare invalidare; un rezultat calculat inainte de o modificare nu mai intra in cache
+    private long generation = 0;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long invalidations = 0;
+
+    public SearchResultCache(@Value("${library.search.cache.max-weight:50000}") long maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized Optional<List<Long>> get(Kind kind, String query) {
+        Entry entry = entries.get(key(kind, query));
+        if (entry == null) {
+            misses++;
+            return Optional.empty();
+        }
+        hits++;
+        return Optional.of(entry.ids);
+    }
+
+    public synchronized void put(Kind kind, String query, List<Long> ids, long computedAt) {
+        long entryWeight = 1L + ids.size();
+        if (computedAt != generation || entryWeight > maxWeight) {
+            return;
+        }
+        Entry previous = entries.put(key(kind, query), new Entry(List.copyOf(ids), entryWeight, matcher(kind, query)));
+        if (previous != null) {
+            weight -= previous.weight;
+        }
+        weight += entryWeight;
+
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (weight > maxWeight && eldest.hasNext()) {
+            weight -= eldest.next().weight;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    // before / after pot fi null (carte noua, carte stearsa)
+    public synchronized void documentChanged(BookDocument before, BookDocument after) {
+        generation++;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if ((before != null && entry.matcher.test(before)) || (after != null && entry.matcher.test(after))) {
+                weight -= entry.weight;
+                iterator.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        invalidations += entries.size();
+        entries.clear();
+        weight = 0;
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(entries.size(), weight, maxWeight, hits, misses, evictions, invalidations);
+    }
+
+    private static String key(Kind kind, String query) {
+        return kind + ":" + normalizedQuery(kind, query);
+    }
+
+    // aceeasi normalizare ca la cautarea propriu-zisa, ca "Java" si "java " sa imparta intrarea
+    private static String normalizedQuery(Kind kind, String query) {
+        switch (kind) {
+            case ANYWHERE:
+                return String.join(" ", TextNormalizer.tokenize(query));
+            case CATEGORY:
+                // findByCategory_NameIgnoreCase compara exact, fara trim / diacritice
+                return query == null ? "" : query.toLowerCase(Locale.ROOT);
+            default:
+                return TextNormalizer.normalize(query);
+        }
+    }
+
+    // aceeasi conditie pe care o verifica indexul / query-ul, evaluata pe o singura carte
+    private static Predicate<BookDocument> matcher(Kind kind, String query) {
+        String normalized = normalizedQuery(kind, query);
+        switch (kind) {
+            case ANYWHERE:
+                List<String> tokens = TextNormalizer.tokenize(normalized);
+                return doc -> doc.matchesAllTokens(tokens);
+            case TITLE:
+                return doc -> TextNormalizer.normalize(doc.getTitle()).contains(normalized);
+            case AUTHOR:
+                return doc -> TextNormalizer.normalize(doc.getAuthor()).contains(normalized);
+            default:
+                return doc -> doc.getCategoryName() != null
+                        && doc.getCategoryName().toLowerCase(Locale.ROOT).equals(normalized);
+        }
+    }
+
+    private static final class Entry {
+
+        private final List<Long> ids;
+        private final long weight;
+        private final Predicate<BookDocument> matcher;
+
+        private Entry(List<Long> ids, long weight, Predicate<BookDocument> matcher) {
+            this.ids = ids;
+            this.weight = weight;
+            this.matcher = matcher;
+        }
+    }
+
+}
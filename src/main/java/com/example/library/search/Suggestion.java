@@ -0,0 +1,20 @@
+package com.example.library.search;
+
+public class Suggestion {
+
+    private final String text;
+    private final BookField type;
+
+    public Suggestion(String text, BookField type) {
+        this.text = text;
+        this.type = type;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public BookField getType() {
+        return type;
+    }
+}
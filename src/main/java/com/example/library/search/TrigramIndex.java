@@ -0,0 +1,111 @@
+package com.example.library.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// index de trigrame pentru cautare substring (LIKE '%x%') pe un singur camp
+// nu este thread-safe, sincronizarea se face in BookSearchIndex
+class TrigramIndex {
+
+    private static final int N = 3;
+
+    private final String name;
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, String> texts = new HashMap<>();
+
+    TrigramIndex(String name) {
+        this.name = name;
+    }
+
+    void add(Long id, String text) {
+        String normalized = TextNormalizer.normalize(text);
+        texts.put(id, normalized);
+        for (String gram : trigrams(normalized)) {
+            postings.computeIfAbsent(gram, g -> new HashSet<>()).add(id);
+        }
+    }
+
+    void remove(Long id) {
+        String normalized = texts.remove(id);
+        if (normalized == null) {
+            return;
+        }
+        for (String gram : trigrams(normalized)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    Set<Long> search(String query) {
+        String needle = TextNormalizer.normalize(query);
+
+        // sub 3 caractere nu avem trigrame -> verificam direct textele din memorie
+        Iterable<Long> candidates;
+        if (needle.length() < N) {
+            candidates = texts.keySet();
+        } else {
+            List<Set<Long>> lists = new ArrayList<>();
+            for (String gram : trigrams(needle)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null) {
+                    return new HashSet<>();
+                }
+                lists.add(ids);
+            }
+            // intersectam pornind de la cea mai scurta lista
+            lists.sort(Comparator.comparingInt(Set::size));
+            Set<Long> intersection = new HashSet<>(lists.get(0));
+            for (int i = 1; i < lists.size() && !intersection.isEmpty(); i++) {
+                intersection.retainAll(lists.get(i));
+            }
+            candidates = intersection;
+        }
+
+        // trigramele comune nu garanteaza ordinea -> verificam substring-ul
+        Set<Long> result = new HashSet<>();
+        for (Long id : candidates) {
+            if (texts.get(id).contains(needle)) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    IndexStats stats() {
+        long postingCount = 0;
+        long bytes = 0;
+        for (Map.Entry<String, Set<Long>> entry : postings.entrySet()) {
+            postingCount += entry.getValue().size();
+            bytes += MemoryEstimates.MAP_ENTRY + MemoryEstimates.string(entry.getKey())
+                    + MemoryEstimates.idSet(entry.getValue().size());
+        }
+        for (String text : texts.values()) {
+            bytes += MemoryEstimates.MAP_ENTRY + MemoryEstimates.BOXED_LONG + MemoryEstimates.string(text);
+        }
+        return new IndexStats(name, postings.size(), postingCount, bytes);
+    }
+
+    void clear() {
+        postings.clear();
+        texts.clear();
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + N <= text.length(); i++) {
+            grams.add(text.substring(i, i + N));
+        }
+        return grams;
+    }
+}
@@ -1,26 +1,65 @@
 package com.example.library.service;
 
+import com.example.library.dto.BookFacetsResponse;
+import com.example.library.dto.CursorPage;
 import com.example.library.exception.BusinessException;
 import com.example.library.model.Book;
+import com.example.library.repository.BookExportRepository;
 import com.example.library.repository.BookRepository;
+import com.example.library.search.BookDocument;
+import com.example.library.search.BookSearchIndex;
+import com.example.library.search.CacheStats;
+import com.example.library.search.FacetResult;
+import com.example.library.search.IndexStats;
+import com.example.library.search.SearchResultCache;
+import com.example.library.search.Suggestion;
+import com.example.library.search.TextNormalizer;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Service
 public class BookService {
 
+    private static final int MAX_SUGGESTIONS = 50;
+    private static final int MAX_FUZZY_DISTANCE = 2;
+    private static final int MAX_RANKED_RESULTS = 100;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final BookRepository bookRepository;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookExportRepository bookExportRepository;
+    private final SearchResultCache searchResultCache;
 
-    public BookService(BookRepository bookRepository) {
+    public BookService(BookRepository bookRepository,
+                       BookSearchIndex bookSearchIndex,
+                       BookExportRepository bookExportRepository,
+                       SearchResultCache searchResultCache) {
         this.bookRepository = bookRepository;
+        this.bookSearchIndex = bookSearchIndex;
+        this.bookExportRepository = bookExportRepository;
+        this.searchResultCache = searchResultCache;
     }
 
     public List<Book> getAllBooks() {
         return bookRepository.findAll();
     }
 
+    // tot catalogul, cate o carte odata (cartile sunt detasate, nu trec prin persistence context)
+    public void streamAllBooks(Consumer<Book> consumer) {
+        bookExportRepository.streamAll(consumer);
+    }
+
     public Book getBookById(Long id) {
         return bookRepository.findById(id)
                 .orElseThrow(() -> new BusinessException("Book not found with id: " + id, HttpStatus.NOT_FOUND));
@@ -28,7 +67,9 @@ public class BookService {
 
     public Book createBook(Book book) {
         book.setId(null);
-        return bookRepository.save(book);
+        Book saved = bookRepository.save(book);
+        bookSearchIndex.index(saved);
+        return saved;
     }
 
     public Book updateBook(Long id, Book updatedBook) {
@@ -40,34 +81,257 @@ public class BookService {
         existing.setPublishedYear(updatedBook.getPublishedYear());
         existing.setAvailableCopies(updatedBook.getAvailableCopies());
 
-        return bookRepository.save(existing);
+        Book saved = bookRepository.save(existing);
+        bookSearchIndex.index(saved);
+        return saved;
     }
 
     public void deleteBook(Long id) {
         Book existing = getBookById(id);
         bookRepository.delete(existing);
+        bookSearchIndex.remove(id);
     }
 
     public List<Book> searchByTitle(String title) {
-        return bookRepository.findByTitleContainingIgnoreCase(title);
+        if (!bookSearchIndex.isReady()) {
+            return bookRepository.findByTitleContainingIgnoreCase(title);
+        }
+        return cachedSearch(SearchResultCache.Kind.TITLE, title, bookSearchIndex::searchTitleContaining);
     }
 
     public List<Book> searchByAuthor(String author) {
-        return bookRepository.findByAuthorContainingIgnoreCase(author);
+        if (!bookSearchIndex.isReady()) {
+            return bookRepository.findByAuthorContainingIgnoreCase(author);
+        }
+        return cachedSearch(SearchResultCache.Kind.AUTHOR, author, bookSearchIndex::searchAuthorContaining);
     }
 
     public List<Book> searchByCategoryName(String categoryName) {
-        return bookRepository.findByCategory_NameIgnoreCase(categoryName);
+        // invalidarea cache-ului vine din index, deci fara index nu cache-uim
+        if (!bookSearchIndex.isReady()) {
+            return bookRepository.findByCategory_NameIgnoreCase(categoryName);
+        }
+        Optional<List<Long>> cachedIds = searchResultCache.get(SearchResultCache.Kind.CATEGORY, categoryName);
+        if (cachedIds.isPresent()) {
+            return loadInOrder(cachedIds.get());
+        }
+        long generation = searchResultCache.generation();
+        List<Book> books = bookRepository.findByCategory_NameIgnoreCase(categoryName);
+        List<Long> ids = new ArrayList<>(books.size());
+        for (Book book : books) {
+            ids.add(book.getId());
+        }
+        searchResultCache.put(SearchResultCache.Kind.CATEGORY, categoryName, ids, generation);
+        return books;
     }
 
     public List<Book> searchAnywhere(String keyword) {
-        return bookRepository
+        // pana se construieste indexul (la pornire) cautam in DB, cu aceeasi potrivire pe cuvinte ca indexul
+        if (!bookSearchIndex.isReady()) {
+            return searchAnywhereInDatabase(keyword);
+        }
+        return cachedSearch(SearchResultCache.Kind.ANYWHERE, keyword, bookSearchIndex::searchAnywhere);
+    }
+
+    public List<Book> searchFuzzy(String query, Integer maxDistance) {
+        int distance = maxDistance != null ? maxDistance : MAX_FUZZY_DISTANCE;
+        if (distance < 0 || distance > MAX_FUZZY_DISTANCE) {
+            throw new BusinessException("maxDistance must be between 0 and " + MAX_FUZZY_DISTANCE, HttpStatus.BAD_REQUEST);
+        }
+        if (!bookSearchIndex.isReady()) {
+            throw new BusinessException("Search index is not ready yet", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return loadInOrder(bookSearchIndex.searchFuzzy(query, distance));
+    }
+
+    // paginare keyset: cursorul e ultimul id intors, deci pagina N costa cat prima pagina
+    public CursorPage<Book> searchAnywherePage(String keyword, String cursor, int size) {
+        Long afterId = CursorPage.decodeCursor(cursor);
+        validatePageSize(size);
+        if (!bookSearchIndex.isReady()) {
+            return searchAnywherePageInDatabase(keyword, afterId, size);
+        }
+        return pageFromIds(bookSearchIndex.searchAnywhere(keyword), afterId, size);
+    }
+
+    public CursorPage<Book> searchByTitlePage(String title, String cursor, int size) {
+        Long afterId = CursorPage.decodeCursor(cursor);
+        validatePageSize(size);
+        if (!bookSearchIndex.isReady()) {
+            return pageFromRows(bookRepository.findByTitleContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(
+                    title, afterId, Limit.of(size + 1)), size);
+        }
+        return pageFromIds(bookSearchIndex.searchTitleContaining(title), afterId, size);
+    }
+
+    public CursorPage<Book> searchByAuthorPage(String author, String cursor, int size) {
+        Long afterId = CursorPage.decodeCursor(cursor);
+        validatePageSize(size);
+        if (!bookSearchIndex.isReady()) {
+            return pageFromRows(bookRepository.findByAuthorContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(
+                    author, afterId, Limit.of(size + 1)), size);
+        }
+        return pageFromIds(bookSearchIndex.searchAuthorContaining(author), afterId, size);
+    }
+
+    public CursorPage<Book> searchByCategoryNamePage(String categoryName, String cursor, int size) {
+        Long afterId = CursorPage.decodeCursor(cursor);
+        validatePageSize(size);
+        return pageFromRows(bookRepository.findByCategory_NameIgnoreCaseAndIdGreaterThanOrderByIdAsc(
+                categoryName, afterId, Limit.of(size + 1)), size);
+    }
+
+    public List<Book> searchRanked(String keyword, int limit) {
+        if (limit < 1 || limit > MAX_RANKED_RESULTS) {
+            throw new BusinessException("limit must be between 1 and " + MAX_RANKED_RESULTS, HttpStatus.BAD_REQUEST);
+        }
+        if (!bookSearchIndex.isReady()) {
+            throw new BusinessException("Search index is not ready yet", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return loadInOrder(bookSearchIndex.searchRanked(keyword, limit));
+    }
+
+    public BookFacetsResponse facetSearch(String keyword, Long categoryId, Integer decade,
+                                          Boolean available, int limit) {
+        validatePageSize(limit);
+        if (!bookSearchIndex.isReady()) {
+            throw new BusinessException("Search index is not ready yet", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        FacetResult result = bookSearchIndex.facetSearch(keyword, categoryId, decade, available, limit);
+        return new BookFacetsResponse(
+                loadInOrder(result.getHitIds()),
+                result.getTotalHits(),
+                result.getCategories(),
+                result.getDecades(),
+                result.getAvailability()
+        );
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+        // fara fallback in DB: sugestiile se cer la fiecare tasta, mai bine nimic decat un full scan
+        if (!bookSearchIndex.isReady()) {
+            return new ArrayList<>();
+        }
+        return bookSearchIndex.suggest(prefix, boundedLimit);
+    }
+
+    public List<IndexStats> getSearchIndexStats() {
+        return bookSearchIndex.stats();
+    }
+
+    public CacheStats getSearchCacheStats() {
+        return searchResultCache.stats();
+    }
+
+    private static void validatePageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BusinessException("size must be between 1 and " + MAX_PAGE_SIZE, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // rows vin deja ordonate dupa id, cu un element in plus ca sa stim daca mai exista pagina
+    // LIKE pe cel mai lung cuvant doar restrange randurile (orice potrivire pe cuvinte e si subsir),
+    // filtrul exact e cel al indexului, ca rezultatele si cursoarele sa nu se schimbe cand indexul devine gata
+    private List<Book> searchAnywhereInDatabase(String keyword) {
+        List<String> queryTokens = TextNormalizer.tokenize(keyword);
+        String filter = longestToken(queryTokens);
+        List<Book> matches = new ArrayList<>();
+        for (Book book : bookRepository
                 .findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCaseOrCategory_NameContainingIgnoreCase(
-                        keyword,
-                        keyword,
-                        keyword
-                );
+                        filter, filter, filter)) {
+            if (matchesAnywhere(book, queryTokens)) {
+                matches.add(book);
+            }
+        }
+        matches.sort(Comparator.comparing(Book::getId));
+        return matches;
+    }
+
+    // loturi keyset de size + 1 randuri pana se aduna o pagina intreaga (plus unul, pentru cursor)
+    private CursorPage<Book> searchAnywherePageInDatabase(String keyword, Long afterId, int size) {
+        List<String> queryTokens = TextNormalizer.tokenize(keyword);
+        String filter = longestToken(queryTokens);
+        List<Book> rows = new ArrayList<>();
+        Long lastId = afterId;
+        while (rows.size() <= size) {
+            List<Book> batch = bookRepository.searchAnywhereAfter(filter, lastId, Limit.of(size + 1));
+            for (Book book : batch) {
+                if (matchesAnywhere(book, queryTokens)) {
+                    rows.add(book);
+                }
+            }
+            if (batch.size() <= size) {
+                break;
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+        return pageFromRows(rows, size);
+    }
+
+    private static String longestToken(List<String> queryTokens) {
+        String longest = "";
+        for (String token : queryTokens) {
+            if (token.length() > longest.length()) {
+                longest = token;
+            }
+        }
+        return longest;
+    }
+
+    private static boolean matchesAnywhere(Book book, List<String> queryTokens) {
+        String categoryName = book.getCategory() != null ? book.getCategory().getName() : null;
+        return BookDocument.of(book, categoryName).matchesAllTokens(queryTokens);
+    }
+
+    private static CursorPage<Book> pageFromRows(List<Book> rows, int size) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<Book> items = new ArrayList<>(rows.subList(0, size));
+        return new CursorPage<>(items, CursorPage.encodeCursor(items.get(size - 1).getId()));
+    }
+
+    // sortedIds vin din index sortate crescator -> cautare binara dupa cursor
+    private CursorPage<Book> pageFromIds(List<Long> sortedIds, Long afterId, int size) {
+        int position = Collections.binarySearch(sortedIds, afterId);
+        int from = position >= 0 ? position + 1 : -position - 1;
+        int to = Math.min(from + size, sortedIds.size());
+
+        List<Long> pageIds = sortedIds.subList(from, to);
+        String nextCursor = to < sortedIds.size() ? CursorPage.encodeCursor(pageIds.get(pageIds.size() - 1)) : null;
+        return new CursorPage<>(loadInOrder(pageIds), nextCursor);
+    }
+
+    // generation se citeste inainte de cautare: daca intre timp s-a modificat o carte, rezultatul nu intra in cache
+    private List<Book> cachedSearch(SearchResultCache.Kind kind, String query, Function<String, List<Long>> search) {
+        Optional<List<Long>> cachedIds = searchResultCache.get(kind, query);
+        if (cachedIds.isPresent()) {
+            return loadInOrder(cachedIds.get());
+        }
+        long generation = searchResultCache.generation();
+        List<Long> ids = search.apply(query);
+        searchResultCache.put(kind, query, ids, generation);
+        return loadInOrder(ids);
+    }
 
+    // incarcare dupa cheie primara, pastrand ordinea data de index
+    private List<Book> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Book> byId = new HashMap<>();
+        for (Book book : bookRepository.findAllById(ids)) {
+            byId.put(book.getId(), book);
+        }
+        List<Book> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Book book = byId.get(id);
+            if (book != null) {
+                result.add(book);
+            }
+        }
+        return result;
     }
 
 }
@@ -3,6 +3,7 @@ package com.example.library.service;
 import com.example.library.exception.BusinessException;
 import com.example.library.model.Category;
 import com.example.library.repository.CategoryRepository;
+import com.example.library.search.BookSearchIndex;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
@@ -12,9 +13,12 @@ import java.util.List;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final BookSearchIndex bookSearchIndex;
 
-    public CategoryService(CategoryRepository categoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository,
+                           BookSearchIndex bookSearchIndex) {
         this.categoryRepository = categoryRepository;
+        this.bookSearchIndex = bookSearchIndex;
     }
 
     public List<Category> getAllCategories() {
@@ -28,7 +32,9 @@ public class CategoryService {
 
     public Category createCategory(Category category) {
         category.setId(null);
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        bookSearchIndex.categoryChanged(saved.getId(), saved.getName());
+        return saved;
     }
 
     public Category updateCategory(Long id, Category updatedCategory) {
@@ -37,11 +43,14 @@ public class CategoryService {
         existing.setName(updatedCategory.getName());
         existing.setDescription(updatedCategory.getDescription());
 
-        return categoryRepository.save(existing);
+        Category saved = categoryRepository.save(existing);
+        bookSearchIndex.categoryChanged(saved.getId(), saved.getName());
+        return saved;
     }
 
     public void deleteCategory(Long id) {
         Category existing = getCategoryById(id);
         categoryRepository.delete(existing);
+        bookSearchIndex.categoryRemoved(id);
     }
 }
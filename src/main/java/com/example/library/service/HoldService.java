@@ -0,0 +1,192 @@
+package com.example.library.service;
+
+import com.example.library.exception.BusinessException;
+import com.example.library.hold.HoldQueueIndex;
+import com.example.library.loan.DueDateIndex;
+import com.example.library.lock.BookLockManager;
+import com.example.library.model.Book;
+import com.example.library.model.Hold;
+import com.example.library.model.HoldStatus;
+import com.example.library.model.Loan;
+import com.example.library.model.User;
+import com.example.library.notification.PendingNotification;
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.HoldRepository;
+import com.example.library.repository.LoanRepository;
+import com.example.library.repository.LoanStatsRepository;
+import com.example.library.repository.UserRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@Service
+public class HoldService {
+
+    private final HoldRepository holdRepository;
+    private final BookRepository bookRepository;
+    private final UserRepository userRepository;
+    private final LoanRepository loanRepository;
+    private final LoanStatsRepository loanStatsRepository;
+    private final NotificationService notificationService;
+    private final HoldQueueIndex holdQueueIndex;
+    private final DueDateIndex dueDateIndex;
+    private final BookLockManager bookLockManager;
+    private final TransactionTemplate transactionTemplate;
+
+    public HoldService(HoldRepository holdRepository,
+                       BookRepository bookRepository,
+                       UserRepository userRepository,
+                       LoanRepository loanRepository,
+                       LoanStatsRepository loanStatsRepository,
+                       NotificationService notificationService,
+                       HoldQueueIndex holdQueueIndex,
+                       DueDateIndex dueDateIndex,
+                       BookLockManager bookLockManager,
+                       PlatformTransactionManager transactionManager) {
+        this.holdRepository = holdRepository;
+        this.bookRepository = bookRepository;
+        this.userRepository = userRepository;
+        this.loanRepository = loanRepository;
+        this.loanStatsRepository = loanStatsRepository;
+        this.notificationService = notificationService;
+        this.holdQueueIndex = holdQueueIndex;
+        this.dueDateIndex = dueDateIndex;
+        this.bookLockManager = bookLockManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // acelasi lock ca la imprumut / returnare: o returnare nu poate rata o rezervare facuta in paralel
+    // rezervarea intra in coada din memorie tot sub lock, imediat dupa commit (altfel returnarea ar vedea coada goala)
+    public Hold placeHold(Long bookId, String email) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new BusinessException("User not found with email: " + email, HttpStatus.NOT_FOUND));
+        if (!user.isActive()) {
+            throw new BusinessException("User is not active", HttpStatus.BAD_REQUEST);
+        }
+
+        return bookLockManager.withLock(bookId, () -> {
+            Hold saved = transactionTemplate.execute(status -> placeHoldInTransaction(user, bookId));
+            holdQueueIndex.add(bookId, saved.getId());
+            return saved;
+        });
+    }
+
+    private Hold placeHoldInTransaction(User user, Long bookId) {
+        Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> new BusinessException("Book not found with id: " + bookId, HttpStatus.NOT_FOUND));
+        if (book.getAvailableCopies() > 0) {
+            throw new BusinessException("Book has available copies, borrow it instead", HttpStatus.BAD_REQUEST);
+        }
+        if (holdRepository.existsByUserIdAndBookIdAndStatus(user.getId(), bookId, HoldStatus.WAITING)) {
+            throw new BusinessException("You already have a hold on this book", HttpStatus.BAD_REQUEST);
+        }
+
+        Hold hold = new Hold();
+        hold.setUser(user);
+        hold.setBook(book);
+        hold.setCreatedAt(LocalDateTime.now());
+        return holdRepository.save(hold);
+    }
+
+    public void cancelHold(Long holdId, String email) {
+        Hold hold = holdRepository.findById(holdId)
+                .orElseThrow(() -> new BusinessException("Hold not found with id: " + holdId, HttpStatus.NOT_FOUND));
+        if (!hold.getUser().getEmail().equals(email)) {
+            throw new BusinessException("You are not allowed to cancel this hold", HttpStatus.FORBIDDEN);
+        }
+
+        bookLockManager.withLock(hold.getBook().getId(), () -> transactionTemplate.execute(status -> {
+            // intre timp poate fi fost onorata de o returnare
+            Hold current = holdRepository.findById(holdId).orElseThrow();
+            if (current.getStatus() != HoldStatus.WAITING) {
+                throw new BusinessException("Hold is no longer waiting", HttpStatus.BAD_REQUEST);
+            }
+            current.setStatus(HoldStatus.CANCELLED);
+            return holdRepository.save(current);
+        }));
+        holdQueueIndex.remove(List.of(holdId));
+    }
+
+    public List<Hold> getWaitingHoldsForUserEmail(String email) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new BusinessException("User not found with email: " + email, HttpStatus.NOT_FOUND));
+        return holdRepository.findByUserIdAndStatusOrderByIdAsc(user.getId(), HoldStatus.WAITING);
+    }
+
+    public int getQueueLength(Long bookId) {
+        return holdQueueIndex.queueLength(bookId);
+    }
+
+    public int getPosition(Long holdId, String email) {
+        Hold hold = holdRepository.findById(holdId)
+                .orElseThrow(() -> new BusinessException("Hold not found with id: " + holdId, HttpStatus.NOT_FOUND));
+        if (!hold.getUser().getEmail().equals(email)) {
+            throw new BusinessException("You are not allowed to view this hold", HttpStatus.FORBIDDEN);
+        }
+        return holdQueueIndex.position(holdId);
+    }
+
+    // apelat la returnare, in tranzactia si sub lock-ul cartii: exemplarul eliberat devine direct
+    // imprumutul primului din coada care e inca activ; null = nu asteapta nimeni, exemplarul merge in stoc
+    // rezervarile consumate (onorate sau anulate) se adauga in consumedHolds si se scot din coada dupa commit
+    // imprumutul intors se anunta de apelant, prin notifyHolders, dupa ce elibereaza lock-ul
+    Loan handOverToNextHolder(Book book, Collection<Long> consumedHolds) {
+        for (Long holdId : holdQueueIndex.waiting(book.getId())) {
+            Hold hold = holdRepository.findById(holdId).orElse(null);
+            consumedHolds.add(holdId);
+            if (hold == null || hold.getStatus() != HoldStatus.WAITING) {
+                continue;
+            }
+            if (!hold.getUser().isActive()) {
+                hold.setStatus(HoldStatus.CANCELLED);
+                holdRepository.save(hold);
+                continue;
+            }
+
+            Loan loan = new Loan();
+            loan.setUser(hold.getUser());
+            loan.setBook(book);
+            loan.setLoanDate(LocalDate.now());
+            loan.setDueDate(LocalDate.now().plusDays(LoanService.LOAN_DAYS));
+            Loan saved = loanRepository.save(loan);
+            dueDateIndex.add(saved.getId(), saved.getDueDate());
+            loanStatsRepository.addToUser(hold.getUser().getId(), 1, 1);
+            loanStatsRepository.addToBook(book.getId(), 1, 1);
+
+            hold.setStatus(HoldStatus.FULFILLED);
+            hold.setLoan(saved);
+            holdRepository.save(hold);
+            return saved;
+        }
+        return null;
+    }
+
+    // dupa commit si dupa eliberarea lock-ului: coada de notificari poate astepta daca e plina,
+    // iar lock-ul cartii nu trebuie tinut in timpul asteptarii
+    void notifyHolders(List<Loan> handedOver) {
+        if (handedOver.isEmpty()) {
+            return;
+        }
+        List<PendingNotification> notifications = new ArrayList<>(handedOver.size());
+        for (Loan loan : handedOver) {
+            notifications.add(new PendingNotification(loan.getUser().getId(), loan.getId(),
+                    "Your hold for '" + loan.getBook().getTitle() + "' is ready: the book is now loaned to you until "
+                            + loan.getDueDate(), LocalDateTime.now()));
+        }
+        notificationService.createLoanNotifications(notifications);
+    }
+
+    // dupa commit: rezervarile consumate nu mai stau in coada
+    void removeFromQueue(Collection<Long> holdIds) {
+        if (!holdIds.isEmpty()) {
+            holdQueueIndex.remove(holdIds);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.library.service;
+
+import com.example.library.exception.BusinessException;
+import com.example.library.loan.LoanArchiveJob;
+import com.example.library.model.ArchivedLoan;
+import com.example.library.model.Loan;
+import com.example.library.model.User;
+import com.example.library.repository.ArchivedLoanRepository;
+import com.example.library.repository.LoanRepository;
+import com.example.library.repository.UserRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class LoanArchiveService {
+
+    private final ArchivedLoanRepository archivedLoanRepository;
+    private final LoanRepository loanRepository;
+    private final UserRepository userRepository;
+    private final LoanArchiveJob loanArchiveJob;
+
+    public LoanArchiveService(ArchivedLoanRepository archivedLoanRepository,
+                              LoanRepository loanRepository,
+                              UserRepository userRepository,
+                              LoanArchiveJob loanArchiveJob) {
+        this.archivedLoanRepository = archivedLoanRepository;
+        this.loanRepository = loanRepository;
+        this.userRepository = userRepository;
+        this.loanArchiveJob = loanArchiveJob;
+    }
+
+    // istoricul complet: intai imprumuturile arhivate (cele mai vechi), apoi cele din loans
+    public List<Loan> getLoanHistoryForUserEmail(String email) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new BusinessException("User not found with email: " + email, HttpStatus.NOT_FOUND));
+
+        List<Loan> history = new ArrayList<>();
+        for (ArchivedLoan archived : archivedLoanRepository.findByUserIdOrderByIdAsc(user.getId())) {
+            history.add(archived.toLoan());
+        }
+        history.addAll(loanRepository.findByUserId(user.getId()));
+        return history;
+    }
+
+    public int archiveReturnedLoans() {
+        return loanArchiveJob.run();
+    }
+}
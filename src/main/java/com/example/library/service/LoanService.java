@@ -1,36 +1,78 @@
 package com.example.library.service;
 
+import com.example.library.dto.BulkLoanItem;
+import com.example.library.dto.BulkLoanResponse;
+import com.example.library.dto.BulkLoanStatus;
 import com.example.library.exception.BusinessException;
+import com.example.library.loan.DueDateIndex;
+import com.example.library.loan.OverdueNotificationJob;
+import com.example.library.loan.OverdueRunStats;
+import com.example.library.lock.BookLockManager;
+import com.example.library.lock.LockStats;
 import com.example.library.model.Book;
 import com.example.library.model.Loan;
 import com.example.library.model.User;
 import com.example.library.repository.BookRepository;
+import com.example.library.repository.LoanBatchRepository;
 import com.example.library.repository.LoanRepository;
+import com.example.library.repository.LoanStatsRepository;
 import com.example.library.repository.UserRepository;
-import com.example.library.service.NotificationService;
+import com.example.library.search.BookSearchIndex;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import com.example.library.model.Role;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class LoanService {
 
+    static final int LOAN_DAYS = 14;
+    private static final int MAX_BULK_ITEMS = 100;
+
     private final LoanRepository loanRepository;
     private final BookRepository bookRepository;
+    private final LoanBatchRepository loanBatchRepository;
+    private final LoanStatsRepository loanStatsRepository;
     private final UserRepository userRepository;
-    private final NotificationService notificationService;
+    private final HoldService holdService;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookLockManager bookLockManager;
+    private final DueDateIndex dueDateIndex;
+    private final OverdueNotificationJob overdueNotificationJob;
+    private final TransactionTemplate transactionTemplate;
 
     public LoanService(LoanRepository loanRepository,
                        BookRepository bookRepository,
+                       LoanBatchRepository loanBatchRepository,
+                       LoanStatsRepository loanStatsRepository,
                        UserRepository userRepository,
-                       NotificationService notificationService) {
+                       HoldService holdService,
+                       BookSearchIndex bookSearchIndex,
+                       BookLockManager bookLockManager,
+                       DueDateIndex dueDateIndex,
+                       OverdueNotificationJob overdueNotificationJob,
+                       PlatformTransactionManager transactionManager) {
         this.loanRepository = loanRepository;
         this.bookRepository = bookRepository;
+        this.loanBatchRepository = loanBatchRepository;
+        this.loanStatsRepository = loanStatsRepository;
         this.userRepository = userRepository;
-        this.notificationService = notificationService;
+        this.holdService = holdService;
+        this.bookSearchIndex = bookSearchIndex;
+        this.bookLockManager = bookLockManager;
+        this.dueDateIndex = dueDateIndex;
+        this.overdueNotificationJob = overdueNotificationJob;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     public List<Loan> getAllLoans() {
@@ -48,10 +90,28 @@ public class LoanService {
 
     public List<Loan> getOverdueLoans() {
         LocalDate today = LocalDate.now();
-        return loanRepository.findByDueDateBeforeAndReturnDateIsNull(today);
+        if (!dueDateIndex.isReady()) {
+            return loanRepository.findByDueDateBeforeAndReturnDateIsNull(today);
+        }
+        // indexul da direct id-urile intarziate; in DB ajunge doar o cautare dupa cheie primara
+        return loadActiveInOrder(dueDateIndex.dueBefore(today));
     }
 
+    public int countOverdueLoans() {
+        LocalDate today = LocalDate.now();
+        if (!dueDateIndex.isReady()) {
+            return loanRepository.findByDueDateBeforeAndReturnDateIsNull(today).size();
+        }
+        return dueDateIndex.countDueBefore(today);
+    }
+
+    // lock-ul pe carte cuprinde toata tranzactia (inclusiv commit-ul), de aceea nu @Transactional pe metoda
     public Loan createLoan(Long userId, Long bookId) {
+        return bookLockManager.withLock(bookId,
+                () -> transactionTemplate.execute(status -> createLoanInTransaction(userId, bookId)));
+    }
+
+    private Loan createLoanInTransaction(Long userId, Long bookId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new BusinessException("User not found with id: " + userId, HttpStatus.NOT_FOUND));
 
@@ -62,26 +122,116 @@ public class LoanService {
             throw new BusinessException("User is not active", HttpStatus.BAD_REQUEST);
         }
 
-        if (book.getAvailableCopies() <= 0) {
+        // fara read-check-save: un singur UPDATE conditionat, 0 randuri = nu mai sunt exemplare
+        if (bookRepository.decrementAvailableCopies(bookId) == 0) {
             throw new BusinessException("No copies available for this book", HttpStatus.BAD_REQUEST);
         }
-
-        book.setAvailableCopies(book.getAvailableCopies() - 1);
-        bookRepository.save(book);
+        // book e detasat dupa update, setter-ul doar actualizeaza raspunsul
+        book.setAvailableCopies(bookRepository.findAvailableCopiesById(bookId));
+        bookSearchIndex.updateAvailability(book.getId(), book.getAvailableCopies());
 
         Loan loan = new Loan();
         loan.setUser(user);
         loan.setBook(book);
         loan.setLoanDate(LocalDate.now());
-        loan.setDueDate(LocalDate.now().plusDays(14));
+        loan.setDueDate(LocalDate.now().plusDays(LOAN_DAYS));
+
+        Loan saved = loanRepository.save(loan);
+        loanStatsRepository.addToUser(userId, 1, 1);
+        loanStatsRepository.addToBook(bookId, 1, 1);
+        dueDateIndex.add(saved.getId(), saved.getDueDate());
+        return saved;
+    }
+
+    // imprumut in bloc la ghiseu: userul se valideaza o data, copiile si imprumuturile se scriu in batch,
+    // intr-o singura tranzactie; fiecare carte are rezultatul ei in raspuns (in ordinea din cerere)
+    public BulkLoanResponse createLoans(Long userId, List<Long> bookIds) {
+        if (bookIds == null || bookIds.isEmpty() || bookIds.size() > MAX_BULK_ITEMS) {
+            throw new BusinessException("Between 1 and " + MAX_BULK_ITEMS + " books per checkout", HttpStatus.BAD_REQUEST);
+        }
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new BusinessException("User not found with id: " + userId, HttpStatus.NOT_FOUND));
+        if (!user.isActive()) {
+            throw new BusinessException("User is not active", HttpStatus.BAD_REQUEST);
+        }
 
-        return loanRepository.save(loan);
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(bookIds));
+        Map<Long, BulkLoanItem> outcomes = bookLockManager.withLocks(distinctIds,
+                () -> transactionTemplate.execute(status -> createLoansInTransaction(userId, distinctIds)));
+
+        List<BulkLoanItem> items = new ArrayList<>(bookIds.size());
+        Set<Long> seen = new HashSet<>();
+        int succeeded = 0;
+        for (Long bookId : bookIds) {
+            BulkLoanItem item = seen.add(bookId) ? outcomes.get(bookId) : new BulkLoanItem(bookId, null, BulkLoanStatus.DUPLICATE);
+            if (item.getStatus() == BulkLoanStatus.BORROWED) {
+                succeeded++;
+            }
+            items.add(item);
+        }
+        return new BulkLoanResponse(succeeded, items.size() - succeeded, items);
+    }
+
+    private Map<Long, BulkLoanItem> createLoansInTransaction(Long userId, List<Long> bookIds) {
+        Map<Long, BulkLoanItem> outcomes = new HashMap<>();
+
+        Set<Long> existing = loanBatchRepository.findAvailableCopies(bookIds).keySet();
+        List<Long> found = new ArrayList<>();
+        for (Long bookId : bookIds) {
+            if (existing.contains(bookId)) {
+                found.add(bookId);
+            } else {
+                outcomes.put(bookId, new BulkLoanItem(bookId, null, BulkLoanStatus.BOOK_NOT_FOUND));
+            }
+        }
+
+        int[] updated = loanBatchRepository.decrementAvailableCopies(found);
+        List<Long> borrowed = new ArrayList<>();
+        for (int i = 0; i < found.size(); i++) {
+            if (updated[i] > 0) {
+                borrowed.add(found.get(i));
+            } else {
+                outcomes.put(found.get(i), new BulkLoanItem(found.get(i), null, BulkLoanStatus.NO_COPIES));
+            }
+        }
+        if (borrowed.isEmpty()) {
+            return outcomes;
+        }
+
+        LocalDate today = LocalDate.now();
+        List<Long> loanIds = loanBatchRepository.insertLoans(userId, borrowed, today, today.plusDays(LOAN_DAYS));
+        for (int i = 0; i < borrowed.size(); i++) {
+            outcomes.put(borrowed.get(i), new BulkLoanItem(borrowed.get(i), loanIds.get(i), BulkLoanStatus.BORROWED));
+            dueDateIndex.add(loanIds.get(i), today.plusDays(LOAN_DAYS));
+        }
+        loanStatsRepository.addToUser(userId, borrowed.size(), borrowed.size());
+        for (Long bookId : borrowed) {
+            loanStatsRepository.addToBook(bookId, 1, 1);
+        }
+
+        loanBatchRepository.findAvailableCopies(borrowed).forEach(bookSearchIndex::updateAvailability);
+        return outcomes;
     }
 
 
     public Loan returnLoan(Long loanId, String currentUserEmail) {
         Loan loan = getLoanById(loanId);
+        List<Loan> handedOver = new ArrayList<>();
+        Loan returned = bookLockManager.withLock(loan.getBook().getId(), () -> {
+            List<Long> consumedHolds = new ArrayList<>();
+            Loan result = transactionTemplate.execute(
+                    status -> returnLoanInTransaction(loan, currentUserEmail, consumedHolds, handedOver));
+            holdService.removeFromQueue(consumedHolds);
+            dueDateIndex.remove(List.of(loan.getId()));
+            return result;
+        });
+        holdService.notifyHolders(handedOver);
+        return returned;
+    }
 
+    // loan e citit inainte de lock; returnDate se verifica oricum din nou in markReturned
+    private Loan returnLoanInTransaction(Loan loan, String currentUserEmail, List<Long> consumedHolds,
+                                         List<Loan> handedOver) {
         if (loan.getReturnDate() != null) {
             throw new BusinessException("Loan already returned", HttpStatus.BAD_REQUEST);
         }
@@ -96,19 +246,156 @@ public class LoanService {
             throw new BusinessException("You are not allowed to return this loan", HttpStatus.BAD_REQUEST);
         }
 
-        loan.setReturnDate(LocalDate.now());
+        // doua returnari simultane ale aceluiasi imprumut: doar una trece si incrementeaza
+        LocalDate today = LocalDate.now();
+        if (loanRepository.markReturned(loan.getId(), today) == 0) {
+            throw new BusinessException("Loan already returned", HttpStatus.BAD_REQUEST);
+        }
+        loan.setReturnDate(today);
+        loanStatsRepository.addToUser(loan.getUser().getId(), -1, 0);
+        loanStatsRepository.addToBook(loan.getBook().getId(), -1, 0);
 
+        // daca cineva a rezervat cartea, exemplarul devine direct imprumutul lui si stocul nu se schimba
         Book book = loan.getBook();
-        book.setAvailableCopies(book.getAvailableCopies() + 1);
-        bookRepository.save(book);
+        Loan next = holdService.handOverToNextHolder(book, consumedHolds);
+        if (next == null) {
+            bookRepository.incrementAvailableCopies(book.getId());
+        } else {
+            handedOver.add(next);
+        }
+        book.setAvailableCopies(bookRepository.findAvailableCopiesById(book.getId()));
+        bookSearchIndex.updateAvailability(book.getId(), book.getAvailableCopies());
 
-        return loanRepository.save(loan);
+        return loan;
     }
 
 
+    // returnari din cutia de carti: imprumuturile se citesc cu un singur query, returnDate se scrie
+    // intr-un batch conditionat, iar stocul creste cu un UPDATE per carte (nu per imprumut)
+    public BulkLoanResponse returnLoans(List<Long> loanIds, String currentUserEmail) {
+        if (loanIds == null || loanIds.isEmpty() || loanIds.size() > MAX_BULK_ITEMS) {
+            throw new BusinessException("Between 1 and " + MAX_BULK_ITEMS + " loans per return", HttpStatus.BAD_REQUEST);
+        }
+        User currentUser = userRepository.findByEmail(currentUserEmail)
+                .orElseThrow(() -> new BusinessException("Current user not found: " + currentUserEmail, HttpStatus.NOT_FOUND));
+        boolean isStaff = currentUser.getRole() == Role.LIBRARIAN || currentUser.getRole() == Role.ADMIN;
+
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(loanIds));
+        Map<Long, Loan> loansById = new HashMap<>();
+        for (Loan loan : loanRepository.findAllWithBookAndUserByIdIn(distinctIds)) {
+            loansById.put(loan.getId(), loan);
+        }
+
+        Map<Long, BulkLoanItem> outcomes = new HashMap<>();
+        List<Loan> toReturn = new ArrayList<>();
+        for (Long loanId : distinctIds) {
+            Loan loan = loansById.get(loanId);
+            if (loan == null) {
+                outcomes.put(loanId, new BulkLoanItem(null, loanId, BulkLoanStatus.LOAN_NOT_FOUND));
+            } else if (loan.getReturnDate() != null) {
+                outcomes.put(loanId, new BulkLoanItem(loan.getBook().getId(), loanId, BulkLoanStatus.ALREADY_RETURNED));
+            } else if (!isStaff && !loan.getUser().getId().equals(currentUser.getId())) {
+                outcomes.put(loanId, new BulkLoanItem(loan.getBook().getId(), loanId, BulkLoanStatus.NOT_ALLOWED));
+            } else {
+                toReturn.add(loan);
+            }
+        }
+
+        if (!toReturn.isEmpty()) {
+            List<Long> bookIds = new ArrayList<>();
+            for (Loan loan : toReturn) {
+                bookIds.add(loan.getBook().getId());
+            }
+            List<Long> consumedHolds = new ArrayList<>();
+            List<Loan> handedOver = new ArrayList<>();
+            outcomes.putAll(bookLockManager.withLocks(bookIds, () -> {
+                Map<Long, BulkLoanItem> returned = transactionTemplate.execute(
+                        status -> returnLoansInTransaction(toReturn, consumedHolds, handedOver));
+                holdService.removeFromQueue(consumedHolds);
+                // returnate acum sau intre timp, oricum nu mai sunt active
+                dueDateIndex.remove(loanIdsOf(toReturn));
+                return returned;
+            }));
+            holdService.notifyHolders(handedOver);
+        }
+
+        List<BulkLoanItem> items = new ArrayList<>(loanIds.size());
+        Set<Long> seen = new HashSet<>();
+        int succeeded = 0;
+        for (Long loanId : loanIds) {
+            BulkLoanItem item = outcomes.get(loanId);
+            if (!seen.add(loanId)) {
+                item = new BulkLoanItem(item.getBookId(), loanId, BulkLoanStatus.DUPLICATE);
+            }
+            if (item.getStatus() == BulkLoanStatus.RETURNED) {
+                succeeded++;
+            }
+            items.add(item);
+        }
+        return new BulkLoanResponse(succeeded, items.size() - succeeded, items);
+    }
+
+    // imprumuturile sunt citite inainte de lock; batch-ul conditionat decide care se returneaza acum
+    private Map<Long, BulkLoanItem> returnLoansInTransaction(List<Loan> loans, List<Long> consumedHolds,
+                                                             List<Loan> handedOver) {
+        Map<Long, BulkLoanItem> outcomes = new HashMap<>();
+        List<Long> loanIds = loanIdsOf(loans);
+        LocalDate today = LocalDate.now();
+        int[] updated = loanBatchRepository.markReturned(loanIds, today);
+        Map<Long, Book> booksById = new HashMap<>();
+        Map<Long, Integer> returnedPerBook = new HashMap<>();
+        Map<Long, Integer> returnedPerUser = new HashMap<>();
+        for (int i = 0; i < loans.size(); i++) {
+            Loan loan = loans.get(i);
+            Long bookId = loan.getBook().getId();
+            if (updated[i] > 0) {
+                booksById.putIfAbsent(bookId, loan.getBook());
+                returnedPerBook.merge(bookId, 1, Integer::sum);
+                returnedPerUser.merge(loan.getUser().getId(), 1, Integer::sum);
+                outcomes.put(loan.getId(), new BulkLoanItem(bookId, loan.getId(), BulkLoanStatus.RETURNED));
+            } else {
+                outcomes.put(loan.getId(), new BulkLoanItem(bookId, loan.getId(), BulkLoanStatus.ALREADY_RETURNED));
+            }
+        }
+
+        returnedPerUser.forEach((userId, count) -> loanStatsRepository.addToUser(userId, -count, 0));
+        loanStatsRepository.addToBooks(returnedPerBook, -1, 0);
+
+        // exemplarele asteptate de rezervari trec direct la cei din coada, doar restul intra in stoc
+        Map<Long, Integer> copiesToStock = new HashMap<>();
+        returnedPerBook.forEach((bookId, count) -> {
+            int remaining = count;
+            while (remaining > 0) {
+                Loan next = holdService.handOverToNextHolder(booksById.get(bookId), consumedHolds);
+                if (next == null) {
+                    break;
+                }
+                handedOver.add(next);
+                remaining--;
+            }
+            if (remaining > 0) {
+                copiesToStock.put(bookId, remaining);
+            }
+        });
+        if (copiesToStock.isEmpty()) {
+            return outcomes;
+        }
+
+        loanBatchRepository.incrementAvailableCopies(copiesToStock);
+        loanBatchRepository.findAvailableCopies(copiesToStock.keySet()).forEach(bookSearchIndex::updateAvailability);
+        return outcomes;
+    }
+
+    // un imprumut sters dispare si din contoare (si din cele totale: nu mai exista in istoric)
     public void deleteLoan(Long id) {
         Loan existing = getLoanById(id);
-        loanRepository.delete(existing);
+        int active = existing.getReturnDate() == null ? 1 : 0;
+        transactionTemplate.executeWithoutResult(status -> {
+            loanRepository.delete(existing);
+            loanStatsRepository.addToUser(existing.getUser().getId(), -active, -1);
+            loanStatsRepository.addToBook(existing.getBook().getId(), -active, -1);
+        });
+        dueDateIndex.remove(List.of(id));
     }
 
     public Loan createLoanForUserEmail(String email, Long bookId) {
@@ -136,17 +423,49 @@ public class LoanService {
         return loanRepository.findByReturnDateIsNull();
     }
 
+    public LockStats getLockStats() {
+        return bookLockManager.stats();
+    }
+
+    // aceeasi rulare ca cea programata, pornita manual
     public int createOverdueNotifications() {
-        List<Loan> overdue = getOverdueLoans();
-        int count = 0;
-        for (Loan loan : overdue) {
-            String msg = "Loan for book '" + loan.getBook().getTitle()
-                    + "' is overdue. Due date was " + loan.getDueDate() + ".";
-            notificationService.createLoanNotification(loan, msg);
-            count++;
-        }
-        return count;
+        return overdueNotificationJob.run().getNotifications();
     }
 
+    public OverdueRunStats getLastOverdueRun() {
+        return overdueNotificationJob.getLastRun();
+    }
 
+    private static List<Long> loanIdsOf(List<Loan> loans) {
+        List<Long> ids = new ArrayList<>(loans.size());
+        for (Loan loan : loans) {
+            ids.add(loan.getId());
+        }
+        return ids;
+    }
+
+    // incarcare dupa cheie primara in ordinea din index; ce nu mai e activ (sters / returnat) iese si din index
+    private List<Loan> loadActiveInOrder(List<Long> loanIds) {
+        if (loanIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Loan> byId = new HashMap<>();
+        for (Loan loan : loanRepository.findAllWithBookAndUserByIdIn(loanIds)) {
+            byId.put(loan.getId(), loan);
+        }
+        List<Loan> result = new ArrayList<>(loanIds.size());
+        List<Long> stale = new ArrayList<>();
+        for (Long loanId : loanIds) {
+            Loan loan = byId.get(loanId);
+            if (loan != null && loan.getReturnDate() == null) {
+                result.add(loan);
+            } else {
+                stale.add(loanId);
+            }
+        }
+        if (!stale.isEmpty()) {
+            dueDateIndex.remove(stale);
+        }
+        return result;
+    }
 }
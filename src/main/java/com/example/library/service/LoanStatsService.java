@@ -0,0 +1,85 @@
+package com.example.library.service;
+
+import com.example.library.exception.BusinessException;
+import com.example.library.loan.LoanCounters;
+import com.example.library.model.User;
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.LoanStatsRepository;
+import com.example.library.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+// citiri O(1) din contoarele materializate, in loc de liste de imprumuturi numarate in client
+@Service
+public class LoanStatsService implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(LoanStatsService.class);
+
+    private static final int MAX_TOP_BOOKS = 100;
+
+    private final LoanStatsRepository loanStatsRepository;
+    private final UserRepository userRepository;
+    private final BookRepository bookRepository;
+
+    public LoanStatsService(LoanStatsRepository loanStatsRepository,
+                            UserRepository userRepository,
+                            BookRepository bookRepository) {
+        this.loanStatsRepository = loanStatsRepository;
+        this.userRepository = userRepository;
+        this.bookRepository = bookRepository;
+    }
+
+    // dupa crearea bean-urilor, dar inainte sa porneasca serverul web si job-urile @Scheduled:
+    // nimic nu scrie inca in contoare, deci "tabela goala" inseamna chiar prima pornire cu contoarele
+    @Override
+    public void afterSingletonsInstantiated() {
+        backfill();
+    }
+
+    // prima pornire cu contoarele: se calculeaza o data din imprumuturile existente, apoi doar se actualizeaza
+    void backfill() {
+        if (!loanStatsRepository.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        loanStatsRepository.rebuild();
+        log.info("Loan counters backfilled in {} ms", System.currentTimeMillis() - start);
+    }
+
+    public LoanCounters getForUserEmail(String email) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new BusinessException("User not found with email: " + email, HttpStatus.NOT_FOUND));
+        return loanStatsRepository.findForUser(user.getId())
+                .orElse(new LoanCounters(user.getId(), 0, 0));
+    }
+
+    public LoanCounters getForUser(Long userId) {
+        return loanStatsRepository.findForUser(userId).orElseGet(() -> {
+            if (!userRepository.existsById(userId)) {
+                throw new BusinessException("User not found with id: " + userId, HttpStatus.NOT_FOUND);
+            }
+            return new LoanCounters(userId, 0, 0);
+        });
+    }
+
+    public LoanCounters getForBook(Long bookId) {
+        return loanStatsRepository.findForBook(bookId).orElseGet(() -> {
+            if (!bookRepository.existsById(bookId)) {
+                throw new BusinessException("Book not found with id: " + bookId, HttpStatus.NOT_FOUND);
+            }
+            return new LoanCounters(bookId, 0, 0);
+        });
+    }
+
+    public List<LoanCounters> getTopBooks(int limit) {
+        if (limit < 1 || limit > MAX_TOP_BOOKS) {
+            throw new BusinessException("Limit must be between 1 and " + MAX_TOP_BOOKS, HttpStatus.BAD_REQUEST);
+        }
+        return loanStatsRepository.findTopBooks(limit);
+    }
+}
@@ -1,31 +1,89 @@
 package com.example.library.service;
 
-import com.example.library.model.Loan;
+import com.example.library.loan.DueDateIndex;
 import com.example.library.model.Notification;
+import com.example.library.model.NotificationKind;
 import com.example.library.model.Role;
 import com.example.library.model.User;
+import com.example.library.notification.NotificationQueue;
+import com.example.library.notification.NotificationQueueStats;
+import com.example.library.notification.NotificationRetentionJob;
+import com.example.library.notification.NotificationRetentionStats;
+import com.example.library.notification.NotificationStreamHub;
+import com.example.library.notification.PendingNotification;
 import com.example.library.repository.LoanRepository;
+import com.example.library.repository.NotificationBatchRepository;
+import com.example.library.repository.NotificationCounterRepository;
 import com.example.library.repository.NotificationRepository;
 import com.example.library.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
-public class NotificationService {
+public class NotificationService implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
 
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
     private final LoanRepository loanRepository;
+    private final DueDateIndex dueDateIndex;
+    private final NotificationQueue notificationQueue;
+    private final NotificationBatchRepository notificationBatchRepository;
+    private final NotificationStreamHub notificationStreamHub;
+    private final NotificationCounterRepository notificationCounterRepository;
+    private final NotificationRetentionJob notificationRetentionJob;
+    private final TransactionTemplate transactionTemplate;
 
     public NotificationService(NotificationRepository notificationRepository,
                                UserRepository userRepository,
-                               LoanRepository loanRepository) {
+                               LoanRepository loanRepository,
+                               DueDateIndex dueDateIndex,
+                               NotificationQueue notificationQueue,
+                               NotificationBatchRepository notificationBatchRepository,
+                               NotificationStreamHub notificationStreamHub,
+                               NotificationCounterRepository notificationCounterRepository,
+                               NotificationRetentionJob notificationRetentionJob,
+                               PlatformTransactionManager transactionManager) {
         this.notificationRepository = notificationRepository;
         this.userRepository = userRepository;
         this.loanRepository = loanRepository;
+        this.dueDateIndex = dueDateIndex;
+        this.notificationQueue = notificationQueue;
+        this.notificationBatchRepository = notificationBatchRepository;
+        this.notificationStreamHub = notificationStreamHub;
+        this.notificationCounterRepository = notificationCounterRepository;
+        this.notificationRetentionJob = notificationRetentionJob;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // inainte sa porneasca serverul web si job-urile (ca la LoanStatsService): nicio notificare noua nu poate
+    // aparea intre verificare si rebuild
+    @Override
+    public void afterSingletonsInstantiated() {
+        backfillUnreadCounters();
+    }
+
+    // prima pornire cu contorul: se numara o data notificarile necitite existente
+    void backfillUnreadCounters() {
+        if (!notificationCounterRepository.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        notificationCounterRepository.rebuild();
+        log.info("Unread notification counters backfilled in {} ms", System.currentTimeMillis() - start);
     }
 
     public List<Notification> getNotificationsForUser(Long userId) {
@@ -44,6 +102,18 @@ public class NotificationService {
         return notificationRepository.findByUserIdAndReadFlagFalseOrderByCreatedAtDesc(user.getId());
     }
 
+    // userul se cauta o singura data, la deschiderea stream-ului; apoi notificarile noi vin prin push
+    public SseEmitter subscribe(String email) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
+        return notificationStreamHub.subscribe(user.getId());
+    }
+
+    // badge-ul din header: doar numarul, citit din contor (fara lista de notificari)
+    public int countUnreadForUserEmail(String email) {
+        return notificationCounterRepository.findUnreadByEmail(email);
+    }
+
     public Notification markAsRead(Long id, String email) {
         Notification notification = notificationRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Notification not found with id: " + id));
@@ -53,9 +123,15 @@ public class NotificationService {
             throw new RuntimeException("You are not allowed to modify this notification");
         }
 
+        // UPDATE conditionat: doua marcari simultane scad contorul o singura data
         if (!notification.isReadFlag()) {
+            Long userId = notification.getUser().getId();
+            transactionTemplate.executeWithoutResult(status -> {
+                if (notificationRepository.markRead(id) > 0) {
+                    notificationCounterRepository.addUnread(userId, -1);
+                }
+            });
             notification.setReadFlag(true);
-            notification = notificationRepository.save(notification);
         }
 
         return notification;
@@ -69,28 +145,89 @@ public class NotificationService {
             throw new RuntimeException("You are not allowed to delete this notification");
         }
 
-        notificationRepository.delete(notification);
+        Long userId = notification.getUser().getId();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (notificationRepository.deleteUnreadById(id) > 0) {
+                notificationCounterRepository.addUnread(userId, -1);
+            } else {
+                notificationRepository.deleteById(id);
+            }
+        });
+    }
+
+    // "marcheaza tot ca citit": un singur UPDATE pe notificarile userului, contorul scade cu cate s-au schimbat
+    public int markAllAsRead(String email) {
+        return transactionTemplate.execute(status -> {
+            int updated = notificationRepository.markAllReadForEmail(email);
+            notificationCounterRepository.subtractUnreadForEmail(email, updated);
+            return updated;
+        });
+    }
+
+    // id-urile altor useri sunt ignorate (nu se potrivesc in WHERE)
+    public int markAsRead(List<Long> ids, String email) {
+        return transactionTemplate.execute(status -> {
+            int updated = notificationRepository.markReadForEmail(ids, email);
+            notificationCounterRepository.subtractUnreadForEmail(email, updated);
+            return updated;
+        });
+    }
+
+    public int deleteNotifications(List<Long> ids, String email) {
+        return transactionTemplate.execute(status -> {
+            int unreadDeleted = notificationRepository.deleteForEmail(ids, false, email);
+            int readDeleted = notificationRepository.deleteForEmail(ids, true, email);
+            notificationCounterRepository.subtractUnreadForEmail(email, unreadDeleted);
+            return unreadDeleted + readDeleted;
+        });
+    }
+
+    //notificare generica; scrierea in DB se face asincron, prin NotificationQueue
+    public void createNotification(Long userId, String message) {
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found with id: " + userId);
+        }
+        notificationQueue.enqueue(new PendingNotification(userId, null, message, LocalDateTime.now()));
+    }
+
+    // notificari pe imprumuturi deja salvate (ex. rezervari onorate); intra in coada cu un singur apel,
+    // asa ca producatorul asteapta cel mult o data daca e coada plina
+    public void createLoanNotifications(List<PendingNotification> notifications) {
+        notificationQueue.enqueue(notifications);
+    }
+
+    // notificari zilnice pe imprumut (ex. intarzieri, din OverdueNotificationJob): scrise sincron, intr-o tranzactie
+    // cu contoarele de necitite, apoi trimise pe stream-uri ca si cele din coada
+    // acelasi imprumut, tip si zi de doua ori = DuplicateKeyException pentru tot batch-ul (nu se scrie nimic)
+    public int createDailyLoanNotifications(List<PendingNotification> notifications, NotificationKind kind,
+                                            LocalDate day) {
+        if (notifications.isEmpty()) {
+            return 0;
+        }
+        Map<Long, Integer> unreadPerUser = new HashMap<>();
+        for (PendingNotification notification : notifications) {
+            unreadPerUser.merge(notification.getUserId(), 1, Integer::sum);
+        }
+        List<Long> ids = transactionTemplate.execute(status -> {
+            List<Long> inserted = notificationBatchRepository.insertLoanNotifications(notifications, kind, day);
+            notificationCounterRepository.addUnread(unreadPerUser);
+            return inserted;
+        });
+        notificationStreamHub.publish(notifications, ids);
+        return ids.size();
+    }
+
+    public NotificationQueueStats getQueueStats() {
+        return notificationQueue.stats();
     }
-    //notificare generica
-    public Notification createNotification(Long userId, String message) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
 
-        Notification n = new Notification();
-        n.setUser(user);
-        n.setMessage(message);
-        n.setCreatedAt(LocalDateTime.now());
-        return notificationRepository.save(n);
+    // aceeasi curatenie ca cea programata, pornita manual
+    public NotificationRetentionStats runRetention() {
+        return notificationRetentionJob.run();
     }
 
-    // creare notificare pt overdue loan
-    public Notification createLoanNotification(Loan loan, String message) {
-        Notification n = new Notification();
-        n.setUser(loan.getUser());
-        n.setLoan(loan);
-        n.setMessage(message);
-        n.setCreatedAt(LocalDateTime.now());
-        return notificationRepository.save(n);
+    public NotificationRetentionStats getLastRetentionRun() {
+        return notificationRetentionJob.getLastRun();
     }
 
     public void notifyLibrariansAboutOverdueLoansMoreThanWeekManual() {
@@ -98,26 +235,25 @@ public class NotificationService {
         LocalDate today = LocalDate.now();
         LocalDate limit = today.minusWeeks(1);
 
-        // imprumuturi overdue cu mai mult de o saptamana
-        List<Loan> overdueLoans =
-                loanRepository.findByDueDateBeforeAndReturnDateIsNull(limit);
+        // imprumuturi overdue cu mai mult de o saptamana (doar numarul lor conteaza)
+        int overdueCount = dueDateIndex.isReady()
+                ? dueDateIndex.countDueBefore(limit)
+                : loanRepository.findByDueDateBeforeAndReturnDateIsNull(limit).size();
 
-        if (overdueLoans.isEmpty()) {
+        if (overdueCount == 0) {
             return;
         }
 
-        String message = "Exista " + overdueLoans.size()
+        String message = "Exista " + overdueCount
                 + " imprumuturi intarziate cu mai mult de o saptamana.";
 
         List<User> librarians = userRepository.findByRole(Role.LIBRARIAN);
 
+        List<PendingNotification> notifications = new ArrayList<>(librarians.size());
         for (User librarian : librarians) {
-            Notification n = new Notification();
-            n.setUser(librarian);
-            n.setMessage(message);
-            n.setCreatedAt(LocalDateTime.now());
-            notificationRepository.save(n);
+            notifications.add(new PendingNotification(librarian.getId(), null, message, LocalDateTime.now()));
         }
+        notificationQueue.enqueue(notifications);
     }
 
 }
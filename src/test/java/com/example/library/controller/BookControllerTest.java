@@ -1,7 +1,14 @@
 package com.example.library.controller;
 
+import com.example.library.dto.BookFacetsResponse;
+import com.example.library.dto.CursorPage;
 import com.example.library.model.Book;
 import com.example.library.model.Category;
+import com.example.library.search.BookField;
+import com.example.library.search.CacheStats;
+import com.example.library.search.FacetCount;
+import com.example.library.search.IndexStats;
+import com.example.library.search.Suggestion;
 import com.example.library.service.BookService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
@@ -13,20 +20,26 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(BookController.class)
@@ -210,4 +223,157 @@ class BookControllerTest {
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].title", is("Clean Code")));
     }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    @DisplayName("GET /api/books/search/stats")
+    void searchStats_shouldReturnIndexStats() throws Exception {
+        Mockito.when(bookService.getSearchIndexStats())
+                .thenReturn(List.of(new IndexStats("title-trigram", 120, 800, 65536)));
+
+        mockMvc.perform(get("/api/books/search/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is("title-trigram")))
+                .andExpect(jsonPath("$[0].estimatedBytes", is(65536)));
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    @DisplayName("GET /api/books/search/cache/stats")
+    void searchCacheStats_shouldReturnCounters() throws Exception {
+        Mockito.when(bookService.getSearchCacheStats())
+                .thenReturn(new CacheStats(2, 12, 50000, 3, 1, 0, 4));
+
+        mockMvc.perform(get("/api/books/search/cache/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits", is(3)))
+                .andExpect(jsonPath("$.misses", is(1)))
+                .andExpect(jsonPath("$.hitRate", is(0.75)));
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("GET /api/books/suggest?prefix=...")
+    void suggest_shouldReturnCompletions() throws Exception {
+        Mockito.when(bookService.suggest("rob", 5))
+                .thenReturn(List.of(new Suggestion("Robert Martin", BookField.AUTHOR)));
+
+        mockMvc.perform(get("/api/books/suggest")
+                        .param("prefix", "rob")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].text", is("Robert Martin")))
+                .andExpect(jsonPath("$[0].type", is("AUTHOR")));
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("GET /api/books/search/fuzzy?q=...")
+    void searchFuzzy_shouldReturnBooks() throws Exception {
+        List<Book> books = List.of(
+                buildBook(1L, "The Hobbit", "J.R.R. Tolkien", "Fantasy")
+        );
+        Mockito.when(bookService.searchFuzzy("tolkein", 2))
+                .thenReturn(books);
+
+        mockMvc.perform(get("/api/books/search/fuzzy")
+                        .param("q", "tolkein")
+                        .param("maxDistance", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].author", is("J.R.R. Tolkien")));
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("GET /api/books/search/ranked?keyword=...")
+    void searchRanked_shouldReturnBooksInRankOrder() throws Exception {
+        List<Book> books = List.of(
+                buildBook(2L, "A History of Rome", "Mary Beard", "History"),
+                buildBook(1L, "Sapiens", "Yuval Harari", "History")
+        );
+        Mockito.when(bookService.searchRanked("history", 20))
+                .thenReturn(books);
+
+        mockMvc.perform(get("/api/books/search/ranked")
+                        .param("keyword", "history"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(2)))
+                .andExpect(jsonPath("$[1].id", is(1)));
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("GET /api/books/search/page?keyword=...&cursor=...")
+    void searchPage_shouldReturnItemsAndNextCursor() throws Exception {
+        CursorPage<Book> page = new CursorPage<>(
+                List.of(buildBook(1L, "Clean Code", "Robert Martin", "Programming")),
+                CursorPage.encodeCursor(1L)
+        );
+        Mockito.when(bookService.searchAnywherePage("clean", null, 1))
+                .thenReturn(page);
+
+        mockMvc.perform(get("/api/books/search/page")
+                        .param("keyword", "clean")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].title", is("Clean Code")))
+                .andExpect(jsonPath("$.nextCursor", is(CursorPage.encodeCursor(1L))));
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("GET /api/books/facets")
+    void facets_shouldReturnBooksAndCounts() throws Exception {
+        BookFacetsResponse response = new BookFacetsResponse(
+                List.of(buildBook(1L, "Clean Code", "Robert Martin", "Programming")),
+                1,
+                List.of(new FacetCount("10", "Programming", 1)),
+                List.of(new FacetCount("2020", "2020s", 1)),
+                List.of(new FacetCount("true", "Available now", 1), new FacetCount("false", "Not available", 0))
+        );
+        Mockito.when(bookService.facetSearch("clean", null, null, true, 20))
+                .thenReturn(response);
+
+        mockMvc.perform(get("/api/books/facets")
+                        .param("keyword", "clean")
+                        .param("available", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalHits", is(1)))
+                .andExpect(jsonPath("$.books[0].title", is("Clean Code")))
+                .andExpect(jsonPath("$.categories[0].label", is("Programming")))
+                .andExpect(jsonPath("$.decades[0].key", is("2020")))
+                .andExpect(jsonPath("$.availability[0].count", is(1)));
+    }
+
+    @Test
+    @WithMockUser
+    @DisplayName("GET /api/books/export - NDJSON, o carte pe linie")
+    @SuppressWarnings("unchecked")
+    void export_shouldStreamOneJsonObjectPerLine() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Book> consumer = invocation.getArgument(0);
+            consumer.accept(buildBook(1L, "Clean Code", "Robert Martin", "Programming"));
+            consumer.accept(buildBook(2L, "Effective Java", "Joshua Bloch", "Programming"));
+            return null;
+        }).when(bookService).streamAllBooks(any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/api/books/export")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        org.assertj.core.api.Assertions.assertThat(lines).hasSize(2);
+        org.assertj.core.api.Assertions.assertThat(objectMapper.readValue(lines[1], Book.class).getTitle())
+                .isEqualTo("Effective Java");
+    }
 }
@@ -0,0 +1,103 @@
+package com.example.library.controller;
+
+import com.example.library.model.Book;
+import com.example.library.model.Hold;
+import com.example.library.model.User;
+import com.example.library.service.HoldService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(HoldController.class)
+class HoldControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private HoldService holdService;
+
+    private Hold buildHold(Long id, Long bookId) {
+        User user = new User();
+        user.setId(1L);
+        user.setName("User");
+        user.setEmail("user@mail.com");
+        user.setPassword("123456");
+
+        Book book = new Book();
+        book.setId(bookId);
+        book.setTitle("Book " + bookId);
+        book.setAuthor("Author");
+        book.setAvailableCopies(0);
+
+        Hold hold = new Hold();
+        hold.setId(id);
+        hold.setUser(user);
+        hold.setBook(book);
+        hold.setCreatedAt(LocalDateTime.now());
+        return hold;
+    }
+
+    @Test
+    @WithMockUser(username = "user@mail.com", roles = "USER")
+    @DisplayName("POST /api/holds/book/{bookId}")
+    void placeHold_shouldCreateHold() throws Exception {
+        Mockito.when(holdService.placeHold(7L, "user@mail.com")).thenReturn(buildHold(3L, 7L));
+
+        mockMvc.perform(post("/api/holds/book/7")
+                        .with(csrf()))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id", is(3)))
+                .andExpect(jsonPath("$.book.id", is(7)))
+                .andExpect(jsonPath("$.status", is("WAITING")));
+    }
+
+    @Test
+    @WithMockUser(username = "user@mail.com")
+    @DisplayName("GET /api/holds/me")
+    void getMyHolds_shouldReturnWaitingHolds() throws Exception {
+        Mockito.when(holdService.getWaitingHoldsForUserEmail("user@mail.com"))
+                .thenReturn(List.of(buildHold(3L, 7L), buildHold(4L, 8L)));
+
+        mockMvc.perform(get("/api/holds/me"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].book.id", is(8)));
+    }
+
+    @Test
+    @WithMockUser(username = "user@mail.com")
+    @DisplayName("GET /api/holds/{id}/position")
+    void getPosition_shouldReturnPlaceInQueue() throws Exception {
+        Mockito.when(holdService.getPosition(3L, "user@mail.com")).thenReturn(2);
+
+        mockMvc.perform(get("/api/holds/3/position"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("2"));
+    }
+
+    @Test
+    @WithMockUser(username = "user@mail.com")
+    @DisplayName("DELETE /api/holds/{id}")
+    void cancel_shouldCancelHold() throws Exception {
+        mockMvc.perform(delete("/api/holds/3")
+                        .with(csrf()))
+                .andExpect(status().isNoContent());
+
+        Mockito.verify(holdService).cancelHold(3L, "user@mail.com");
+    }
+}
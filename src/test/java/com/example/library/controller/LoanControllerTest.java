@@ -1,8 +1,18 @@
 package com.example.library.controller;
 
+import com.example.library.dto.BulkCheckoutRequest;
+import com.example.library.dto.BulkLoanItem;
+import com.example.library.dto.BulkLoanResponse;
+import com.example.library.dto.BulkLoanStatus;
+import com.example.library.dto.BulkReturnRequest;
+import com.example.library.loan.OverdueChunkStats;
+import com.example.library.loan.OverdueRunStats;
+import com.example.library.lock.LockStats;
+import com.example.library.lock.StripeStats;
 import com.example.library.model.Book;
 import com.example.library.model.Loan;
 import com.example.library.model.User;
+import com.example.library.service.LoanArchiveService;
 import com.example.library.service.LoanService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
@@ -11,10 +21,12 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
@@ -33,6 +45,9 @@ class LoanControllerTest {
     @MockBean
     private LoanService loanService;
 
+    @MockBean
+    private LoanArchiveService loanArchiveService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -142,6 +157,64 @@ class LoanControllerTest {
                 .andExpect(jsonPath("$.book.id", is(7)));
     }
 
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    @DisplayName("GET /api/loans/overdue/count")
+    void countOverdue_shouldReturnNumberOfOverdueLoans() throws Exception {
+        Mockito.when(loanService.countOverdueLoans()).thenReturn(12);
+
+        mockMvc.perform(get("/api/loans/overdue/count"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("12"));
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    @DisplayName("POST /api/loans/bulk")
+    void createBulk_shouldReturnOutcomePerBook() throws Exception {
+        Mockito.when(loanService.createLoans(3L, List.of(7L, 8L))).thenReturn(new BulkLoanResponse(1, 1, List.of(
+                new BulkLoanItem(7L, 21L, BulkLoanStatus.BORROWED),
+                new BulkLoanItem(8L, null, BulkLoanStatus.NO_COPIES))));
+
+        mockMvc.perform(post("/api/loans/bulk")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BulkCheckoutRequest(3L, List.of(7L, 8L)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded", is(1)))
+                .andExpect(jsonPath("$.items[0].loanId", is(21)))
+                .andExpect(jsonPath("$.items[1].status", is("NO_COPIES")));
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    @DisplayName("POST /api/loans/bulk fara carti")
+    void createBulk_shouldRejectEmptyBookList() throws Exception {
+        mockMvc.perform(post("/api/loans/bulk")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BulkCheckoutRequest(3L, List.of()))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "lib@mail.com", roles = "LIBRARIAN")
+    @DisplayName("POST /api/loans/bulk-return")
+    void returnBulk_shouldReturnOutcomePerLoan() throws Exception {
+        Mockito.when(loanService.returnLoans(List.of(21L, 22L), "lib@mail.com")).thenReturn(new BulkLoanResponse(1, 1, List.of(
+                new BulkLoanItem(7L, 21L, BulkLoanStatus.RETURNED),
+                new BulkLoanItem(null, 22L, BulkLoanStatus.LOAN_NOT_FOUND))));
+
+        mockMvc.perform(post("/api/loans/bulk-return")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BulkReturnRequest(List.of(21L, 22L)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded", is(1)))
+                .andExpect(jsonPath("$.items[0].status", is("RETURNED")))
+                .andExpect(jsonPath("$.items[1].status", is("LOAN_NOT_FOUND")));
+    }
+
     @Test
     @WithMockUser(username = "user@mail.com")
     @DisplayName("POST /api/loans/{id}/return ")
@@ -188,6 +261,35 @@ class LoanControllerTest {
                 .andExpect(jsonPath("$.book.id", is(10)));
     }
 
+    @Test
+    @WithMockUser(username = "user@mail.com")
+    @DisplayName("GET /api/loans/me?includeArchived=true")
+    void getMyLoans_shouldIncludeArchivedLoans_whenRequested() throws Exception {
+        Loan archived = buildLoan(1L, 5L, 10L);
+        archived.setReturnDate(LocalDate.now().minusYears(2));
+        Mockito.when(loanArchiveService.getLoanHistoryForUserEmail("user@mail.com"))
+                .thenReturn(List.of(archived, buildLoan(7L, 5L, 11L)));
+
+        mockMvc.perform(get("/api/loans/me").param("includeArchived", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(1)));
+
+        Mockito.verify(loanService, Mockito.never()).getLoansForUserEmail(Mockito.anyString());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("POST /api/loans/archive/run")
+    void archiveReturnedLoans_shouldReturnNumberOfArchivedLoans() throws Exception {
+        Mockito.when(loanArchiveService.archiveReturnedLoans()).thenReturn(250);
+
+        mockMvc.perform(post("/api/loans/archive/run")
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(content().string("250"));
+    }
+
     @Test
     @WithMockUser(username = "user@mail.com")
     @DisplayName("GET /api/loans/me ")
@@ -249,4 +351,34 @@ class LoanControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string("3"));
     }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    @DisplayName("GET /api/loans/overdue/notify/stats")
+    void getLastOverdueRun_shouldReturnThroughputPerChunk() throws Exception {
+        Mockito.when(loanService.getLastOverdueRun()).thenReturn(new OverdueRunStats(LocalDateTime.now(), 700, 700, 350,
+                List.of(new OverdueChunkStats(1, 500, 500, 250), new OverdueChunkStats(2, 200, 200, 100))));
+
+        mockMvc.perform(get("/api/loans/overdue/notify/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.notifications", is(700)))
+                .andExpect(jsonPath("$.notificationsPerSecond", is(2000)))
+                .andExpect(jsonPath("$.chunks", hasSize(2)))
+                .andExpect(jsonPath("$.chunks[0].notificationsPerSecond", is(2000)));
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    @DisplayName("GET /api/loans/locks/stats")
+    void getLockStats_shouldReturnStripeContention() throws Exception {
+        Mockito.when(loanService.getLockStats()).thenReturn(new LockStats(64, 10, 4, 800,
+                List.of(new StripeStats(3, 10, 4, 800, 500, 1, 3))));
+
+        mockMvc.perform(get("/api/loans/locks/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stripes", is(64)))
+                .andExpect(jsonPath("$.usedStripes[0].stripe", is(3)))
+                .andExpect(jsonPath("$.usedStripes[0].averageWaitMicros", is(200)))
+                .andExpect(jsonPath("$.usedStripes[0].maxQueueLength", is(3)));
+    }
 }
@@ -0,0 +1,55 @@
+package com.example.library.controller;
+
+import com.example.library.loan.LoanCounters;
+import com.example.library.service.LoanStatsService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(LoanStatsController.class)
+class LoanStatsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private LoanStatsService loanStatsService;
+
+    @Test
+    @WithMockUser(username = "user@mail.com", roles = "USER")
+    @DisplayName("GET /api/loan-stats/me")
+    void getMine_shouldReturnCountersOfCurrentUser() throws Exception {
+        Mockito.when(loanStatsService.getForUserEmail("user@mail.com")).thenReturn(new LoanCounters(1L, 2, 17));
+
+        mockMvc.perform(get("/api/loan-stats/me"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.activeLoans", is(2)))
+                .andExpect(jsonPath("$.lifetimeLoans", is(17)));
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    @DisplayName("GET /api/loan-stats/books/top")
+    void getTopBooks_shouldReturnMostBorrowedBooks() throws Exception {
+        Mockito.when(loanStatsService.getTopBooks(2))
+                .thenReturn(List.of(new LoanCounters(11L, 1, 50), new LoanCounters(10L, 0, 30)));
+
+        mockMvc.perform(get("/api/loan-stats/books/top").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(11)));
+    }
+}
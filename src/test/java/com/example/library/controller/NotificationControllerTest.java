@@ -1,7 +1,10 @@
 package com.example.library.controller;
 
+import com.example.library.dto.BulkNotificationRequest;
 import com.example.library.model.Notification;
 import com.example.library.model.User;
+import com.example.library.notification.NotificationQueueStats;
+import com.example.library.notification.NotificationRetentionStats;
 import com.example.library.service.NotificationService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
@@ -10,8 +13,10 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -129,4 +134,95 @@ class NotificationControllerTest {
         Mockito.verify(notificationService)
                 .notifyLibrariansAboutOverdueLoansMoreThanWeekManual();
     }
+
+    @Test
+    @WithMockUser(username = "user1@mail.com")
+    @DisplayName("POST /api/notifications/me/read-all")
+    void markAllAsRead_shouldReturnUpdatedCount() throws Exception {
+        Mockito.when(notificationService.markAllAsRead("user1@mail.com")).thenReturn(5);
+
+        mockMvc.perform(post("/api/notifications/me/read-all")
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(content().string("5"));
+    }
+
+    @Test
+    @WithMockUser(username = "user1@mail.com")
+    @DisplayName("POST /api/notifications/me/bulk-delete")
+    void deleteMyNotifications_shouldDeleteGivenIds() throws Exception {
+        Mockito.when(notificationService.deleteNotifications(List.of(1L, 2L), "user1@mail.com")).thenReturn(2);
+
+        mockMvc.perform(post("/api/notifications/me/bulk-delete")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BulkNotificationRequest(List.of(1L, 2L)))))
+                .andExpect(status().isOk())
+                .andExpect(content().string("2"));
+    }
+
+    @Test
+    @WithMockUser(username = "user1@mail.com")
+    @DisplayName("POST /api/notifications/me/bulk-delete - lista goala")
+    void deleteMyNotifications_shouldReject_whenNoIds() throws Exception {
+        mockMvc.perform(post("/api/notifications/me/bulk-delete")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BulkNotificationRequest(List.of()))))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    @WithMockUser(username = "user1@mail.com")
+    @DisplayName("GET /api/notifications/me/unread/count")
+    void countMyUnreadNotifications_shouldReturnCounter() throws Exception {
+        Mockito.when(notificationService.countUnreadForUserEmail("user1@mail.com")).thenReturn(4);
+
+        mockMvc.perform(get("/api/notifications/me/unread/count"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("4"));
+    }
+
+    @Test
+    @WithMockUser(username = "user1@mail.com")
+    @DisplayName("GET /api/notifications/me/stream")
+    void streamMyNotifications_shouldOpenSseStream() throws Exception {
+        Mockito.when(notificationService.subscribe("user1@mail.com")).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/notifications/me/stream"))
+                .andExpect(request().asyncStarted());
+
+        Mockito.verify(notificationService).subscribe("user1@mail.com");
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("GET /api/notifications/queue/stats")
+    void getQueueStats_shouldReturnQueueMetrics() throws Exception {
+        Mockito.when(notificationService.getQueueStats())
+                .thenReturn(new NotificationQueueStats(10000, 3, 2, 120, 117, 0, 0, 4, 17, 12, 40));
+
+        mockMvc.perform(get("/api/notifications/queue/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.depth", is(3)))
+                .andExpect(jsonPath("$.lastBatchSize", is(17)))
+                .andExpect(jsonPath("$.maxLagMillis", is(40)));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("POST /api/notifications/retention/run")
+    void runRetention_shouldReturnReclaimedRows() throws Exception {
+        Mockito.when(notificationService.runRetention())
+                .thenReturn(new NotificationRetentionStats(LocalDateTime.now(), 1200, 300, 4, 850, 4000));
+
+        mockMvc.perform(post("/api/notifications/retention/run")
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reclaimed", is(1500)))
+                .andExpect(jsonPath("$.chunks", is(4)))
+                .andExpect(jsonPath("$.totalReclaimed", is(4000)));
+    }
 }
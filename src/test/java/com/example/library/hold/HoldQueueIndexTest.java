@@ -0,0 +1,61 @@
+package com.example.library.hold;
+
+import com.example.library.model.Book;
+import com.example.library.model.Hold;
+import com.example.library.model.HoldStatus;
+import com.example.library.repository.HoldRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HoldQueueIndexTest {
+
+    private static final Long BOOK_ID = 10L;
+
+    private final HoldRepository holdRepository = mock(HoldRepository.class);
+
+    private Hold buildHold(Long id) {
+        Book book = new Book();
+        book.setId(BOOK_ID);
+        Hold hold = new Hold();
+        hold.setId(id);
+        hold.setBook(book);
+        return hold;
+    }
+
+    @Test
+    void rebuild_shouldQueueWaitingHoldsInFifoOrder() {
+        when(holdRepository.findByStatusOrderByIdAsc(HoldStatus.WAITING))
+                .thenReturn(List.of(buildHold(50L), buildHold(51L)));
+        HoldQueueIndex index = new HoldQueueIndex(holdRepository);
+
+        index.rebuild();
+        index.add(BOOK_ID, 52L);
+        index.remove(List.of(50L));
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.waiting(BOOK_ID)).containsExactly(51L, 52L);
+        assertThat(index.queueLength(BOOK_ID)).isEqualTo(2);
+        assertThat(index.position(52L)).isEqualTo(2);
+        assertThat(index.position(50L)).isZero();
+    }
+
+    @Test
+    void waiting_shouldReadHoldsFromDatabase_beforeRebuild() {
+        // o returnare venita intre pornirea serverului web si ApplicationReadyEvent
+        when(holdRepository.findByBookIdAndStatusOrderByIdAsc(BOOK_ID, HoldStatus.WAITING))
+                .thenReturn(List.of(buildHold(50L), buildHold(51L)));
+        when(holdRepository.findById(51L)).thenReturn(Optional.of(buildHold(51L)));
+        HoldQueueIndex index = new HoldQueueIndex(holdRepository);
+
+        assertThat(index.isReady()).isFalse();
+        assertThat(index.waiting(BOOK_ID)).containsExactly(50L, 51L);
+        assertThat(index.queueLength(BOOK_ID)).isEqualTo(2);
+        assertThat(index.position(51L)).isEqualTo(2);
+    }
+}
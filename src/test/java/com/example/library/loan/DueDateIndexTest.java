@@ -0,0 +1,86 @@
+package com.example.library.loan;
+
+import com.example.library.repository.LoanRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DueDateIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 5, 20);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private DueDateIndex buildIndex() {
+        LoanRepository loanRepository = mock(LoanRepository.class);
+        when(loanRepository.findActiveDueDates()).thenReturn(List.of(
+                new LoanDue(1L, TODAY.minusDays(3)),
+                new LoanDue(2L, TODAY.minusDays(10)),
+                new LoanDue(3L, TODAY),
+                new LoanDue(4L, TODAY.plusDays(5))
+        ));
+        DueDateIndex index = new DueDateIndex(loanRepository);
+        index.rebuild();
+        return index;
+    }
+
+    @Test
+    void dueBefore_shouldReturnOverdueLoansOrderedByDueDate() {
+        DueDateIndex index = buildIndex();
+
+        assertThat(index.isReady()).isTrue();
+        // scadenta azi nu e inca intarziere
+        assertThat(index.dueBefore(TODAY)).containsExactly(2L, 1L);
+        assertThat(index.countDueBefore(TODAY)).isEqualTo(2);
+        assertThat(index.countDueBefore(TODAY.plusDays(6))).isEqualTo(4);
+    }
+
+    @Test
+    void addAndRemove_shouldKeepRangesUpToDate() {
+        DueDateIndex index = buildIndex();
+
+        index.add(5L, TODAY.minusDays(1));
+        index.remove(List.of(2L, 42L));
+
+        assertThat(index.dueBefore(TODAY)).containsExactly(1L, 5L);
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void add_shouldMoveLoanWhenDueDateChanges() {
+        DueDateIndex index = buildIndex();
+
+        index.add(4L, TODAY.minusDays(20));
+
+        assertThat(index.dueBefore(TODAY)).containsExactly(4L, 2L, 1L);
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void add_shouldWaitForCommit_whenCalledInsideTransaction() {
+        DueDateIndex index = buildIndex();
+        TransactionSynchronizationManager.initSynchronization();
+
+        index.add(5L, TODAY.minusDays(1));
+
+        // nimic inainte de commit; la rollback afterCommit nu se apeleaza, deci imprumutul nu apare deloc
+        assertThat(index.dueBefore(TODAY)).containsExactly(2L, 1L);
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertThat(index.dueBefore(TODAY)).containsExactly(2L, 1L, 5L);
+    }
+}
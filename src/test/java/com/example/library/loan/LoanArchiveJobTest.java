@@ -0,0 +1,46 @@
+package com.example.library.loan;
+
+import com.example.library.repository.LoanArchiveRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoanArchiveJobTest {
+
+    @Mock
+    private LoanArchiveRepository loanArchiveRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void run_shouldMoveChunksUntilOnePageIsIncomplete() {
+        // given: bucati de 2, la a doua mai ramane un singur imprumut
+        LoanArchiveJob job = new LoanArchiveJob(loanArchiveRepository, transactionManager, 12, 2);
+        LocalDate cutoff = LocalDate.now().minusMonths(12);
+        when(loanArchiveRepository.findArchivableIds(cutoff, 2))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(5L));
+        when(loanArchiveRepository.archive(anyList(), any()))
+                .thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+
+        // when
+        int archived = job.run();
+
+        // then
+        assertThat(archived).isEqualTo(3);
+        verify(loanArchiveRepository).archive(eq(List.of(1L, 2L)), any());
+        verify(loanArchiveRepository).archive(eq(List.of(5L)), any());
+        verify(loanArchiveRepository, times(2)).findArchivableIds(any(), anyInt());
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.library.loan;
+
+import com.example.library.model.NotificationKind;
+import com.example.library.notification.PendingNotification;
+import com.example.library.repository.LoanRepository;
+import com.example.library.repository.NotificationRepository;
+import com.example.library.service.NotificationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OverdueNotificationJobTest {
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    private OverdueNotificationJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new OverdueNotificationJob(loanRepository, notificationRepository, notificationService, 2);
+    }
+
+    private OverdueLoan overdue(long loanId) {
+        return new OverdueLoan(loanId, 1L, "Book " + loanId, LocalDate.now().minusDays(3));
+    }
+
+    // notificarile trimise catre NotificationService au exact imprumuturile date, in ordine
+    private static List<PendingNotification> forLoans(Long... loanIds) {
+        return argThat(notifications -> notifications != null
+                && notifications.stream().map(PendingNotification::getLoanId).toList().equals(List.of(loanIds)));
+    }
+
+    @Test
+    void run_shouldPageByLastLoanIdAndInsertEachChunkInOneBatch() {
+        // given: 3 imprumuturi intarziate, bucati de cate 2
+        LocalDate today = LocalDate.now();
+        List<OverdueLoan> first = List.of(overdue(4L), overdue(9L));
+        List<OverdueLoan> second = List.of(overdue(12L));
+        when(loanRepository.findOverdueAfter(today, 0L, Limit.of(2))).thenReturn(first);
+        when(loanRepository.findOverdueAfter(today, 9L, Limit.of(2))).thenReturn(second);
+        when(notificationService.createDailyLoanNotifications(anyList(), any(), any()))
+                .thenAnswer(invocation -> invocation.<List<PendingNotification>>getArgument(0).size());
+
+        // when
+        OverdueRunStats stats = job.run();
+
+        // then: a doua pagina e incompleta, deci nu se mai cere a treia
+        assertThat(stats.getLoans()).isEqualTo(3);
+        assertThat(stats.getNotifications()).isEqualTo(3);
+        assertThat(stats.getChunks()).extracting(OverdueChunkStats::getNotifications).containsExactly(2, 1);
+        assertThat(job.getLastRun()).isSameAs(stats);
+        // fiecare bucata trece prin NotificationService (contoare + push pe stream-uri)
+        verify(notificationService).createDailyLoanNotifications(forLoans(4L, 9L), eq(NotificationKind.OVERDUE),
+                eq(today));
+        verify(notificationService).createDailyLoanNotifications(forLoans(12L), eq(NotificationKind.OVERDUE),
+                eq(today));
+        verify(loanRepository, times(2)).findOverdueAfter(any(), anyLong(), any());
+    }
+
+    @Test
+    void run_shouldDoNothing_whenNoOverdueLoans() {
+        // given
+        when(loanRepository.findOverdueAfter(any(), eq(0L), any())).thenReturn(List.of());
+
+        // when
+        OverdueRunStats stats = job.run();
+
+        // then
+        assertThat(stats.getNotifications()).isZero();
+        assertThat(stats.getChunks()).isEmpty();
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void run_shouldSkipLoansAlreadyNotifiedToday_andNotInsertTwiceOnRepeatedRuns() {
+        // given: 4 a primit deja notificarea azi (rulare anterioara, inainte de restart)
+        LocalDate today = LocalDate.now();
+        List<OverdueLoan> page = List.of(overdue(4L));
+        when(notificationRepository.findLoanIdsByKindAndDay(NotificationKind.OVERDUE, today)).thenReturn(List.of(4L));
+        when(loanRepository.findOverdueAfter(today, 0L, Limit.of(2))).thenReturn(page);
+
+        // when
+        OverdueRunStats first = job.run();
+        OverdueRunStats second = job.run();
+
+        // then: filtrul din memorie se incarca o singura data pe zi
+        assertThat(first.getNotifications()).isZero();
+        assertThat(second.getNotifications()).isZero();
+        assertThat(second.getLoans()).isEqualTo(1);
+        verify(notificationRepository, times(1)).findLoanIdsByKindAndDay(any(), any());
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void run_shouldInsertOnlyMissingNotifications_whenBatchHitsUniqueConstraint() {
+        // given: alta instanta a notificat 9 intre timp
+        LocalDate today = LocalDate.now();
+        List<OverdueLoan> page = List.of(overdue(4L), overdue(9L));
+        when(loanRepository.findOverdueAfter(today, 0L, Limit.of(2))).thenReturn(page);
+        when(loanRepository.findOverdueAfter(today, 9L, Limit.of(2))).thenReturn(List.of());
+        when(notificationService.createDailyLoanNotifications(forLoans(4L, 9L), any(), any()))
+                .thenThrow(new DuplicateKeyException("uk_notifications_loan_kind_day"));
+        when(notificationRepository.findLoanIdsByKindAndDayAndLoanIdIn(NotificationKind.OVERDUE, today, List.of(4L, 9L)))
+                .thenReturn(List.of(9L));
+        when(notificationService.createDailyLoanNotifications(forLoans(4L), any(), any()))
+                .thenReturn(1);
+
+        // when
+        OverdueRunStats stats = job.run();
+
+        // then
+        assertThat(stats.getNotifications()).isEqualTo(1);
+    }
+
+    @Test
+    void message_shouldMentionTitleAndDueDate() {
+        OverdueLoan loan = new OverdueLoan(1L, 2L, "Dune", LocalDate.of(2024, 3, 1));
+
+        assertThat(OverdueNotificationJob.message(loan))
+                .isEqualTo("Loan for book 'Dune' is overdue. Due date was 2024-03-01.");
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.library.lock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookLockManagerTest {
+
+    @Test
+    void constructor_shouldRoundStripesToPowerOfTwo() {
+        assertThat(new BookLockManager(1).getStripeCount()).isEqualTo(1);
+        assertThat(new BookLockManager(64).getStripeCount()).isEqualTo(64);
+        assertThat(new BookLockManager(100).getStripeCount()).isEqualTo(128);
+    }
+
+    @Test
+    void withLock_shouldSerializeSameBookAndRecordContention() throws Exception {
+        BookLockManager manager = new BookLockManager(16);
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        int threads = 8;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            Future<?>[] futures = new Future<?>[threads];
+            for (int i = 0; i < threads; i++) {
+                futures[i] = executor.submit(() -> {
+                    start.await();
+                    return manager.withLock(7L, () -> {
+                        maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                        sleep(20);
+                        inside.decrementAndGet();
+                        return null;
+                    });
+                });
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(maxInside.get()).isEqualTo(1);
+
+        LockStats stats = manager.stats();
+        assertThat(stats.getAcquisitions()).isEqualTo(threads);
+        assertThat(stats.getContended()).isPositive();
+        assertThat(stats.getUsedStripes()).hasSize(1);
+        StripeStats stripe = stats.getUsedStripes().get(0);
+        assertThat(stripe.getStripe()).isEqualTo(manager.stripeFor(7L));
+        assertThat(stripe.getMaxQueueLength()).isGreaterThan(1);
+        assertThat(stripe.getMaxWaitMicros()).isPositive();
+        assertThat(stripe.getQueueLength()).isZero();
+    }
+
+    @Test
+    void withLock_shouldNotBlockBooksOnOtherStripes() throws Exception {
+        BookLockManager manager = new BookLockManager(16);
+        assertThat(manager.stripeFor(1L)).isNotEqualTo(manager.stripeFor(2L));
+
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = executor.submit(() -> manager.withLock(1L, () -> {
+                holding.countDown();
+                await(release);
+                return null;
+            }));
+            holding.await();
+
+            // cartea 2 e pe alt stripe: intra imediat, fara contentie
+            String result = manager.withLock(2L, () -> "done");
+            release.countDown();
+            holder.get(10, TimeUnit.SECONDS);
+
+            assertThat(result).isEqualTo("done");
+            assertThat(manager.stats().getContended()).isZero();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
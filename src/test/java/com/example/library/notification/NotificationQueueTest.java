@@ -0,0 +1,201 @@
+package com.example.library.notification;
+
+import com.example.library.repository.NotificationBatchRepository;
+import com.example.library.repository.NotificationCounterRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationQueueTest {
+
+    @Mock
+    private NotificationBatchRepository notificationBatchRepository;
+
+    @Mock
+    private NotificationCounterRepository notificationCounterRepository;
+
+    @Mock
+    private NotificationStreamHub notificationStreamHub;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Captor
+    private ArgumentCaptor<Map<Long, Integer>> unreadCaptor;
+
+    private NotificationQueue queue;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (queue != null) {
+            queue.stop();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static List<PendingNotification> notifications(int count) {
+        List<PendingNotification> notifications = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            notifications.add(new PendingNotification(1L, null, "message " + i, LocalDateTime.now()));
+        }
+        return notifications;
+    }
+
+    @Test
+    void enqueue_shouldWriteEverythingInBatchesNoLargerThanBatchSize() throws Exception {
+        // given
+        List<Integer> batchSizes = new ArrayList<>();
+        when(notificationBatchRepository.insertNotifications(anyList())).thenAnswer(invocation -> {
+            synchronized (batchSizes) {
+                batchSizes.add(invocation.<List<?>>getArgument(0).size());
+            }
+            return List.of();
+        });
+        queue = new NotificationQueue(notificationBatchRepository, notificationCounterRepository, notificationStreamHub, transactionManager, 100, 1, 10, 500);
+        queue.start();
+
+        // when
+        queue.enqueue(notifications(35));
+
+        // then
+        assertThat(queue.awaitDrained(Duration.ofSeconds(5))).isTrue();
+        NotificationQueueStats stats = queue.stats();
+        assertThat(stats.getEnqueued()).isEqualTo(35);
+        assertThat(stats.getWritten()).isEqualTo(35);
+        assertThat(stats.getDepth()).isZero();
+        assertThat(stats.getCallerWrites()).isZero();
+        assertThat(batchSizes).allSatisfy(size -> assertThat(size).isBetween(1, 10));
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(35);
+        verify(notificationStreamHub, times(batchSizes.size())).publish(anyList(), anyList());
+    }
+
+    @Test
+    void enqueue_shouldWriteInCallerThread_whenQueueStaysFull() throws Exception {
+        // given: writer-ul e blocat in primul batch, coada (capacitate 1) se umple
+        CountDownLatch writerBlocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread caller = Thread.currentThread();
+        when(notificationBatchRepository.insertNotifications(anyList())).thenAnswer(invocation -> {
+            if (Thread.currentThread() != caller && writerBlocked.getCount() > 0) {
+                writerBlocked.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return List.of();
+        });
+        queue = new NotificationQueue(notificationBatchRepository, notificationCounterRepository, notificationStreamHub, transactionManager, 1, 1, 10, 50);
+        queue.start();
+        queue.enqueue(notifications(1));
+        assertThat(writerBlocked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // when: una incape in coada, a doua asteapta 50 ms si e scrisa de producator
+        queue.enqueue(notifications(2));
+
+        // then
+        assertThat(queue.stats().getCallerWrites()).isEqualTo(1);
+        release.countDown();
+        assertThat(queue.awaitDrained(Duration.ofSeconds(5))).isTrue();
+        assertThat(queue.stats().getWritten()).isEqualTo(3);
+    }
+
+    @Test
+    void enqueue_shouldWaitOnlyOnce_whenQueueIsFullForTheWholeBatch() throws Exception {
+        // given: writer-ul e blocat, coada (capacitate 1) e deja plina
+        CountDownLatch writerBlocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread caller = Thread.currentThread();
+        when(notificationBatchRepository.insertNotifications(anyList())).thenAnswer(invocation -> {
+            if (Thread.currentThread() != caller && writerBlocked.getCount() > 0) {
+                writerBlocked.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return List.of();
+        });
+        queue = new NotificationQueue(notificationBatchRepository, notificationCounterRepository, notificationStreamHub, transactionManager, 1, 1, 10, 300);
+        queue.start();
+        queue.enqueue(notifications(1));
+        assertThat(writerBlocked.await(5, TimeUnit.SECONDS)).isTrue();
+        queue.enqueue(notifications(1));
+
+        // when: primul offer asteapta 300 ms si e refuzat, restul nu mai asteapta deloc
+        long start = System.nanoTime();
+        queue.enqueue(notifications(5));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // then
+        assertThat(elapsedMillis).isLessThan(900);
+        assertThat(queue.stats().getCallerWrites()).isEqualTo(5);
+        release.countDown();
+        assertThat(queue.awaitDrained(Duration.ofSeconds(5))).isTrue();
+        assertThat(queue.stats().getWritten()).isEqualTo(7);
+    }
+
+    @Test
+    void enqueue_shouldWaitForCommit_whenCalledInsideTransaction() throws Exception {
+        // given
+        queue = new NotificationQueue(notificationBatchRepository, notificationCounterRepository, notificationStreamHub, transactionManager, 100, 1, 10, 500);
+        queue.start();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // when
+        queue.enqueue(notifications(2));
+
+        // then: nimic inainte de commit
+        assertThat(queue.stats().getEnqueued()).isZero();
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertThat(queue.awaitDrained(Duration.ofSeconds(5))).isTrue();
+        assertThat(queue.stats().getWritten()).isEqualTo(2);
+        // writer-ul poate prinde notificarile in unul sau doua batch-uri; contorul creste cu 2 in total
+        verify(notificationCounterRepository, atLeastOnce()).addUnread(unreadCaptor.capture());
+        assertThat(unreadCaptor.getAllValues().stream().mapToInt(perUser -> perUser.get(1L)).sum()).isEqualTo(2);
+    }
+
+    @Test
+    void write_shouldRetryOneByOneAndCountFailures_whenBatchFails() throws Exception {
+        // given: batch-ul cade, la reincercare doar "bad" esueaza
+        when(notificationBatchRepository.insertNotifications(anyList())).thenAnswer(invocation -> {
+            List<PendingNotification> batch = invocation.getArgument(0);
+            if (batch.size() > 1 || batch.get(0).getMessage().equals("bad")) {
+                throw new DataIntegrityViolationException("fk");
+            }
+            return List.of(1L);
+        });
+        queue = new NotificationQueue(notificationBatchRepository, notificationCounterRepository, notificationStreamHub, transactionManager, 100, 1, 10, 500);
+
+        // when: fara writer pornit, producatorul scrie direct
+        queue.enqueue(List.of(
+                new PendingNotification(1L, null, "ok", LocalDateTime.now()),
+                new PendingNotification(1L, 7L, "bad", LocalDateTime.now())));
+
+        // then
+        NotificationQueueStats stats = queue.stats();
+        assertThat(stats.getWritten()).isEqualTo(1);
+        assertThat(stats.getFailed()).isEqualTo(1);
+        assertThat(stats.getCallerWrites()).isEqualTo(2);
+        assertThat(queue.awaitDrained(Duration.ofMillis(100))).isTrue();
+    }
+}
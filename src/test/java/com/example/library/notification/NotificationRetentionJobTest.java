@@ -0,0 +1,81 @@
+package com.example.library.notification;
+
+import com.example.library.repository.NotificationCounterRepository;
+import com.example.library.repository.NotificationRetentionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationRetentionJobTest {
+
+    @Mock
+    private NotificationRetentionRepository notificationRetentionRepository;
+
+    @Mock
+    private NotificationCounterRepository notificationCounterRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private NotificationRetentionJob job() {
+        return new NotificationRetentionJob(notificationRetentionRepository, notificationCounterRepository,
+                transactionManager, 90, 100, 2, 0);
+    }
+
+    @Test
+    void run_shouldDeleteExpiredReadNotificationsInChunks() {
+        // given: bucati de 2, la a doua mai ramane o singura notificare
+        when(notificationRetentionRepository.findExpiredReadIds(any(), eq(2)))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+        when(notificationRetentionRepository.delete(anyList(), eq(true)))
+                .thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+        when(notificationRetentionRepository.findUsersOverCap(100)).thenReturn(List.of());
+
+        // when
+        NotificationRetentionStats stats = job().run();
+
+        // then
+        assertThat(stats.getExpiredDeleted()).isEqualTo(3);
+        assertThat(stats.getOverCapDeleted()).isZero();
+        assertThat(stats.getChunks()).isEqualTo(2);
+        verify(notificationRetentionRepository, times(2)).findExpiredReadIds(any(), anyInt());
+        verifyNoInteractions(notificationCounterRepository);
+    }
+
+    @Test
+    void run_shouldTrimUsersOverCapAndDecrementUnreadCounter() {
+        // given: userul 7 are 3 notificari peste plafon, una dintre ele necitita
+        when(notificationRetentionRepository.findExpiredReadIds(any(), eq(2))).thenReturn(List.of());
+        when(notificationRetentionRepository.delete(List.of(), true)).thenReturn(0);
+        when(notificationRetentionRepository.findUsersOverCap(100)).thenReturn(List.of(7L));
+        when(notificationRetentionRepository.findIdsBeyondCap(7L, 100, 2))
+                .thenReturn(List.of(10L, 11L))
+                .thenReturn(List.of(12L));
+        when(notificationRetentionRepository.delete(List.of(10L, 11L), false)).thenReturn(1);
+        when(notificationRetentionRepository.delete(List.of(10L, 11L), true)).thenReturn(1);
+        when(notificationRetentionRepository.delete(List.of(12L), false)).thenReturn(0);
+        when(notificationRetentionRepository.delete(List.of(12L), true)).thenReturn(1);
+
+        // when
+        NotificationRetentionJob job = job();
+        job.run();
+
+        // then
+        NotificationRetentionStats stats = job.getLastRun();
+        assertThat(stats.getOverCapDeleted()).isEqualTo(3);
+        assertThat(stats.getReclaimed()).isEqualTo(3);
+        assertThat(stats.getTotalReclaimed()).isEqualTo(3);
+        verify(notificationCounterRepository).addUnread(7L, -1);
+        verifyNoMoreInteractions(notificationCounterRepository);
+    }
+}
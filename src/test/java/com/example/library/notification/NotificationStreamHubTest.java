@@ -0,0 +1,207 @@
+package com.example.library.notification;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NotificationStreamHubTest {
+
+    // retine ce s-ar fi trimis pe conexiune; broken = clientul a inchis conexiunea
+    private static class RecordingEmitter extends SseEmitter {
+
+        final List<SseEventBuilder> sent = new CopyOnWriteArrayList<>();
+        private final boolean broken;
+        volatile boolean completed;
+
+        RecordingEmitter(boolean broken) {
+            this.broken = broken;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (broken) {
+                throw new IOException("Broken pipe");
+            }
+            sent.add(builder);
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            completed = true;
+        }
+    }
+
+    // clientul care nu mai citeste: primul send sta blocat pana la release
+    private static class StuckEmitter extends RecordingEmitter {
+
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        StuckEmitter() {
+            super(false);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.send(builder);
+        }
+    }
+
+    // trimiterea direct pe thread-ul apelant, ca testul sa fie determinist
+    private final NotificationStreamHub hub = new NotificationStreamHub(60_000, 10_000, 64, Runnable::run);
+
+    private ExecutorService pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    private static PendingNotification notificationFor(Long userId) {
+        return new PendingNotification(userId, null, "hello " + userId, LocalDateTime.now());
+    }
+
+    @Test
+    void publish_shouldFanOutOnlyToConnectionsOfTheRecipient() {
+        // given: userul 1 are doua tab-uri deschise, userul 2 unul
+        RecordingEmitter firstTab = new RecordingEmitter(false);
+        RecordingEmitter secondTab = new RecordingEmitter(false);
+        RecordingEmitter otherUser = new RecordingEmitter(false);
+        hub.register(1L, firstTab);
+        hub.register(1L, secondTab);
+        hub.register(2L, otherUser);
+
+        // when
+        hub.publish(List.of(notificationFor(1L), notificationFor(3L)), List.of(100L, 101L));
+
+        // then
+        assertThat(firstTab.sent).hasSize(1);
+        assertThat(secondTab.sent).hasSize(1);
+        assertThat(otherUser.sent).isEmpty();
+        assertThat(hub.connections()).isEqualTo(3);
+    }
+
+    @Test
+    void publish_shouldDropConnection_whenSendFails() {
+        // given
+        hub.register(1L, new RecordingEmitter(true));
+        RecordingEmitter alive = new RecordingEmitter(false);
+        hub.register(1L, alive);
+
+        // when
+        hub.publish(List.of(notificationFor(1L)), List.of(100L));
+        hub.heartbeat();
+
+        // then
+        assertThat(hub.connections()).isEqualTo(1);
+        assertThat(alive.sent).hasSize(2);
+    }
+
+    @Test
+    void publish_shouldDropConnection_whenTooManyEventsWaitToBeSent() {
+        // given: pool-ul nu apuca sa ruleze nimic, conexiunea poate tine cel mult 2 evenimente
+        List<Runnable> scheduled = new ArrayList<>();
+        NotificationStreamHub slowHub = new NotificationStreamHub(60_000, 10_000, 2, scheduled::add);
+        RecordingEmitter slow = new RecordingEmitter(false);
+        slowHub.register(1L, slow);
+
+        // when
+        slowHub.publish(List.of(notificationFor(1L), notificationFor(1L), notificationFor(1L)),
+                List.of(100L, 101L, 102L));
+        scheduled.forEach(Runnable::run);
+
+        // then: nimic trimis, conexiunea scoasa si inchisa
+        assertThat(slowHub.connections()).isZero();
+        assertThat(slow.sent).isEmpty();
+        assertThat(slow.completed).isTrue();
+    }
+
+    @Test
+    void heartbeat_shouldDropStuckConnectionWithoutDelayingTheOthers() throws Exception {
+        // given: doua thread-uri de trimitere, send-timeout 50 ms
+        pool = Executors.newFixedThreadPool(2);
+        NotificationStreamHub pooledHub = new NotificationStreamHub(60_000, 50, 64, pool);
+        StuckEmitter stuck = new StuckEmitter();
+        RecordingEmitter alive = new RecordingEmitter(false);
+        pooledHub.register(1L, stuck);
+        pooledHub.register(2L, alive);
+        pooledHub.publish(List.of(notificationFor(1L), notificationFor(2L)), List.of(100L, 101L));
+        assertThat(stuck.sending.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(100);
+
+        // when
+        pooledHub.heartbeat();
+
+        // then: conexiunea blocata iese imediat, cealalta primeste in continuare
+        assertThat(pooledHub.connections()).isEqualTo(1);
+        awaitSent(alive, 2);
+        assertThat(stuck.completed).isFalse();
+        // emitter-ul blocat se inchide abia dupa ce send-ul lui revine
+        stuck.release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!stuck.completed && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(stuck.completed).isTrue();
+        assertThat(stuck.sent).hasSize(1);
+    }
+
+    @Test
+    void close_shouldCompleteEmitter_whenDroppedWhileRunnerIsFinishing() throws Exception {
+        // drop-ul vine exact cand runner-ul iese din bucla: fiecare emitter trebuie inchis oricum
+        pool = Executors.newFixedThreadPool(2);
+        for (int round = 0; round < 2000; round++) {
+            // Executor simplu, ca close() sa nu opreasca pool-ul comun
+            NotificationStreamHub racingHub = new NotificationStreamHub(60_000, 10_000, 64, pool::execute);
+            RecordingEmitter emitter = new RecordingEmitter(false);
+            racingHub.register(1L, emitter);
+            racingHub.publish(List.of(notificationFor(1L)), List.of(100L));
+            while (emitter.sent.isEmpty()) {
+                Thread.onSpinWait();
+            }
+
+            // when
+            racingHub.close();
+
+            // then
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!emitter.completed && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            assertThat(emitter.completed).as("round %d", round).isTrue();
+        }
+    }
+
+    private static void awaitSent(RecordingEmitter emitter, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (emitter.sent.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(emitter.sent).hasSize(count);
+    }
+}
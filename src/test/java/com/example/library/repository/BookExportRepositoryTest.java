@@ -0,0 +1,45 @@
+package com.example.library.repository;
+
+import com.example.library.model.Book;
+import com.example.library.model.Category;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.library.repository.RepositoryFixtures.persistBook;
+import static com.example.library.repository.RepositoryFixtures.persistCategory;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import(BookExportRepository.class)
+class BookExportRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BookExportRepository bookExportRepository;
+
+    @Test
+    void streamAll_shouldMapEveryRowWithItsCategoryInIdOrder() {
+        Category category = persistCategory(entityManager, "Programming");
+
+        Book first = persistBook(entityManager, "Clean Code", "ISBN-1", 2, category);
+        Book second = persistBook(entityManager, "Untitled", "ISBN-2", 2);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Book> streamed = new ArrayList<>();
+        bookExportRepository.streamAll(streamed::add);
+
+        assertThat(streamed).extracting(Book::getId).containsExactly(first.getId(), second.getId());
+        assertThat(streamed.get(0).getCategory().getName()).isEqualTo("Programming");
+        assertThat(streamed.get(0).getAvailableCopies()).isEqualTo(2);
+        assertThat(streamed.get(1).getCategory()).isNull();
+    }
+}
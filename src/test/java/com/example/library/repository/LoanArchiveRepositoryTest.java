@@ -0,0 +1,70 @@
+package com.example.library.repository;
+
+import com.example.library.model.ArchivedLoan;
+import com.example.library.model.Book;
+import com.example.library.model.Loan;
+import com.example.library.model.Notification;
+import com.example.library.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.example.library.repository.RepositoryFixtures.persistBook;
+import static com.example.library.repository.RepositoryFixtures.persistLoan;
+import static com.example.library.repository.RepositoryFixtures.persistNotification;
+import static com.example.library.repository.RepositoryFixtures.persistUser;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import(LoanArchiveRepository.class)
+class LoanArchiveRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private LoanArchiveRepository loanArchiveRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private ArchivedLoanRepository archivedLoanRepository;
+
+    @Test
+    void archive_shouldMoveOldReturnedLoansAndKeepTheirNotifications() {
+        User user = persistUser(entityManager, "reader@test.com");
+        Book book = persistBook(entityManager, "Dune", "ISBN-1", 1);
+
+        LocalDate cutoff = LocalDate.now().minusMonths(12);
+        LocalDate dueDate = LocalDate.now().minusYears(3).plusDays(14);
+        Loan old = persistLoan(entityManager, user, book, dueDate, LocalDate.now().minusYears(2));
+        Loan recent = persistLoan(entityManager, user, book, dueDate, LocalDate.now().minusMonths(1));
+        Loan active = persistLoan(entityManager, user, book, dueDate, null);
+        Notification notification = persistNotification(entityManager, user, old, false,
+                LocalDateTime.now().minusYears(2));
+        entityManager.flush();
+
+        List<Long> archivable = loanArchiveRepository.findArchivableIds(cutoff, 10);
+        int archived = loanArchiveRepository.archive(archivable, LocalDateTime.now());
+        entityManager.clear();
+
+        assertThat(archivable).containsExactly(old.getId());
+        assertThat(archived).isEqualTo(1);
+        assertThat(loanRepository.findAll()).extracting(Loan::getId)
+                .containsExactlyInAnyOrder(recent.getId(), active.getId());
+        ArchivedLoan moved = archivedLoanRepository.findByUserIdOrderByIdAsc(user.getId()).get(0);
+        assertThat(moved.getId()).isEqualTo(old.getId());
+        assertThat(moved.getReturnDate()).isEqualTo(old.getReturnDate());
+        assertThat(moved.getArchivedAt()).isNotNull();
+        Notification kept = entityManager.find(Notification.class, notification.getId());
+        assertThat(kept.getLoan()).isNull();
+        assertThat(loanArchiveRepository.findArchivableIds(cutoff, 10)).isEmpty();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.library.repository;
+
+import com.example.library.model.Book;
+import com.example.library.model.Loan;
+import com.example.library.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.library.repository.RepositoryFixtures.persistBook;
+import static com.example.library.repository.RepositoryFixtures.persistLoan;
+import static com.example.library.repository.RepositoryFixtures.persistUser;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import(LoanBatchRepository.class)
+class LoanBatchRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private LoanBatchRepository loanBatchRepository;
+
+    @Test
+    void decrementAvailableCopies_shouldSkipBooksWithoutCopies() {
+        Book available = persistBook(entityManager, "Title ISBN-1", "ISBN-1", 1);
+        Book empty = persistBook(entityManager, "Title ISBN-2", "ISBN-2", 0);
+        entityManager.flush();
+
+        int[] updated = loanBatchRepository.decrementAvailableCopies(List.of(available.getId(), empty.getId()));
+
+        assertThat(updated).containsExactly(1, 0);
+        assertThat(loanBatchRepository.findAvailableCopies(List.of(available.getId(), empty.getId())))
+                .isEqualTo(Map.of(available.getId(), 0, empty.getId(), 0));
+    }
+
+    @Test
+    void markReturnedAndIncrement_shouldReturnOnlyOpenLoansAndAddCopiesPerBook() {
+        User user = persistUser(entityManager, "reader@test.com");
+        Book book = persistBook(entityManager, "Title ISBN-1", "ISBN-1", 0);
+        Loan first = persistLoan(entityManager, user, book, LocalDate.now().plusDays(11), null);
+        Loan second = persistLoan(entityManager, user, book, LocalDate.now().plusDays(11), null);
+        Loan closed = persistLoan(entityManager, user, book, LocalDate.now().plusDays(11), null);
+        closed.setReturnDate(LocalDate.now().minusDays(1));
+        entityManager.flush();
+
+        int[] updated = loanBatchRepository.markReturned(
+                List.of(first.getId(), second.getId(), closed.getId()), LocalDate.now());
+        loanBatchRepository.incrementAvailableCopies(Map.of(book.getId(), 2));
+        entityManager.clear();
+
+        assertThat(updated).containsExactly(1, 1, 0);
+        assertThat(entityManager.find(Loan.class, first.getId()).getReturnDate()).isEqualTo(LocalDate.now());
+        assertThat(entityManager.find(Loan.class, closed.getId()).getReturnDate()).isEqualTo(LocalDate.now().minusDays(1));
+        assertThat(loanBatchRepository.findAvailableCopies(List.of(book.getId()))).containsEntry(book.getId(), 2);
+    }
+
+    @Test
+    void insertLoans_shouldReturnGeneratedIdsInBookOrder() {
+        User user = persistUser(entityManager, "reader@test.com");
+        Book first = persistBook(entityManager, "Title ISBN-1", "ISBN-1", 1);
+        Book second = persistBook(entityManager, "Title ISBN-2", "ISBN-2", 1);
+        entityManager.flush();
+        LocalDate today = LocalDate.now();
+
+        List<Long> ids = loanBatchRepository.insertLoans(user.getId(), List.of(second.getId(), first.getId()),
+                today, today.plusDays(14));
+        entityManager.clear();
+
+        assertThat(ids).hasSize(2);
+        Loan loan = entityManager.find(Loan.class, ids.get(0));
+        assertThat(loan.getBook().getId()).isEqualTo(second.getId());
+        assertThat(loan.getUser().getId()).isEqualTo(user.getId());
+        assertThat(loan.getDueDate()).isEqualTo(today.plusDays(14));
+        assertThat(loan.getReturnDate()).isNull();
+        assertThat(entityManager.find(Loan.class, ids.get(1)).getBook().getId()).isEqualTo(first.getId());
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.library.repository;
+
+import com.example.library.loan.LoanCounters;
+import com.example.library.model.Book;
+import com.example.library.model.Loan;
+import com.example.library.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.library.repository.RepositoryFixtures.persistBook;
+import static com.example.library.repository.RepositoryFixtures.persistLoan;
+import static com.example.library.repository.RepositoryFixtures.persistUser;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import({LoanStatsRepository.class, LoanArchiveRepository.class})
+class LoanStatsRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private LoanStatsRepository loanStatsRepository;
+
+    @Autowired
+    private LoanArchiveRepository loanArchiveRepository;
+
+    @Test
+    void addToUser_shouldCreateRowOnFirstLoanAndUpdateItAfterwards() {
+        // when
+        loanStatsRepository.addToUser(1L, 1, 1);
+        loanStatsRepository.addToUser(1L, 1, 1);
+        loanStatsRepository.addToUser(1L, -1, 0);
+
+        // then
+        LoanCounters counters = loanStatsRepository.findForUser(1L).orElseThrow();
+        assertThat(counters.getActiveLoans()).isEqualTo(1);
+        assertThat(counters.getLifetimeLoans()).isEqualTo(2);
+        assertThat(loanStatsRepository.findForUser(2L)).isEmpty();
+    }
+
+    @Test
+    void findTopBooks_shouldOrderByLifetimeLoans() {
+        // given
+        loanStatsRepository.addToBooks(Map.of(10L, 2, 11L, 5, 12L, 1), 1, 1);
+        loanStatsRepository.addToBooks(Map.of(11L, 5), -1, 0);
+
+        // when
+        List<LoanCounters> top = loanStatsRepository.findTopBooks(2);
+
+        // then
+        assertThat(top).extracting(LoanCounters::getId).containsExactly(11L, 10L);
+        assertThat(top.get(0).getActiveLoans()).isZero();
+        assertThat(top.get(0).getLifetimeLoans()).isEqualTo(5);
+    }
+
+    @Test
+    void rebuild_shouldCountActiveAndLifetimeLoansIncludingArchived() {
+        // given: un imprumut activ, unul returnat recent si unul mutat deja in arhiva
+        User user = persistUser(entityManager, "reader@test.com");
+        Book book = persistBook(entityManager, "Dune", "ISBN-1", 3);
+        LocalDate dueDate = LocalDate.now().minusYears(3).plusDays(14);
+        persistLoan(entityManager, user, book, dueDate, null);
+        persistLoan(entityManager, user, book, dueDate, LocalDate.now().minusMonths(1));
+        Loan old = persistLoan(entityManager, user, book, dueDate, LocalDate.now().minusYears(2));
+        entityManager.flush();
+        loanArchiveRepository.archive(List.of(old.getId()), LocalDateTime.now());
+        assertThat(loanStatsRepository.isEmpty()).isTrue();
+
+        // when
+        loanStatsRepository.rebuild();
+
+        // then
+        assertThat(loanStatsRepository.isEmpty()).isFalse();
+        LoanCounters forUser = loanStatsRepository.findForUser(user.getId()).orElseThrow();
+        assertThat(forUser.getActiveLoans()).isEqualTo(1);
+        assertThat(forUser.getLifetimeLoans()).isEqualTo(3);
+        LoanCounters forBook = loanStatsRepository.findForBook(book.getId()).orElseThrow();
+        assertThat(forBook.getActiveLoans()).isEqualTo(1);
+        assertThat(forBook.getLifetimeLoans()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.library.repository;
+
+import com.example.library.loan.OverdueLoan;
+import com.example.library.model.Book;
+import com.example.library.model.Loan;
+import com.example.library.model.Notification;
+import com.example.library.model.NotificationKind;
+import com.example.library.model.User;
+import com.example.library.notification.PendingNotification;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.library.repository.RepositoryFixtures.persistBook;
+import static com.example.library.repository.RepositoryFixtures.persistLoan;
+import static com.example.library.repository.RepositoryFixtures.persistUser;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import(NotificationBatchRepository.class)
+class NotificationBatchRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationBatchRepository notificationBatchRepository;
+
+    @Test
+    void findOverdueAfterAndInsert_shouldPageOverdueLoansAndStoreOneNotificationEach() {
+        User user = persistUser(entityManager, "reader@test.com");
+        Book book = persistBook(entityManager, "Dune", "ISBN-1", 1);
+
+        LocalDate today = LocalDate.now();
+        Loan first = persistLoan(entityManager, user, book, today.minusDays(5), null);
+        persistLoan(entityManager, user, book, today.minusDays(5), today.minusDays(1));
+        persistLoan(entityManager, user, book, today.plusDays(3), null);
+        Loan second = persistLoan(entityManager, user, book, today.minusDays(1), null);
+        entityManager.flush();
+
+        List<OverdueLoan> page = loanRepository.findOverdueAfter(today, 0L, Limit.of(10));
+        List<OverdueLoan> afterFirst = loanRepository.findOverdueAfter(today, first.getId(), Limit.of(10));
+        List<PendingNotification> notifications = new ArrayList<>();
+        for (OverdueLoan loan : page) {
+            notifications.add(new PendingNotification(loan.getUserId(), loan.getLoanId(),
+                    "overdue " + loan.getBookTitle(), LocalDateTime.now()));
+        }
+        List<Long> ids = notificationBatchRepository.insertLoanNotifications(notifications, NotificationKind.OVERDUE,
+                today);
+
+        assertThat(page).extracting(OverdueLoan::getLoanId).containsExactly(first.getId(), second.getId());
+        assertThat(page.get(0).getBookTitle()).isEqualTo("Dune");
+        assertThat(afterFirst).extracting(OverdueLoan::getLoanId).containsExactly(second.getId());
+        List<Notification> stored = notificationRepository.findByUserIdOrderByCreatedAtDesc(user.getId());
+        assertThat(stored).extracting(Notification::getId).containsExactlyInAnyOrderElementsOf(ids);
+        assertThat(stored).hasSize(2).allSatisfy(n -> {
+            assertThat(n.getMessage()).isEqualTo("overdue Dune");
+            assertThat(n.isReadFlag()).isFalse();
+            assertThat(n.getKind()).isEqualTo(NotificationKind.OVERDUE);
+        });
+        assertThat(notificationRepository.findLoanIdsByKindAndDay(NotificationKind.OVERDUE, today))
+                .containsExactlyInAnyOrder(first.getId(), second.getId());
+    }
+
+    @Test
+    void insertLoanNotifications_shouldRejectSecondNotificationForSameLoanKindAndDay() {
+        User user = persistUser(entityManager, "reader@test.com");
+        Book book = persistBook(entityManager, "Dune", "ISBN-1", 1);
+        LocalDate today = LocalDate.now();
+        Loan loan = persistLoan(entityManager, user, book, today.minusDays(2), null);
+        entityManager.flush();
+        List<PendingNotification> rows = List.of(
+                new PendingNotification(user.getId(), loan.getId(), "overdue", LocalDateTime.now()));
+
+        notificationBatchRepository.insertLoanNotifications(rows, NotificationKind.OVERDUE, today);
+
+        assertThatThrownBy(() -> notificationBatchRepository.insertLoanNotifications(rows, NotificationKind.OVERDUE,
+                today))
+                .isInstanceOf(DuplicateKeyException.class);
+        // alta zi = alta cheie
+        assertThat(notificationBatchRepository.insertLoanNotifications(rows, NotificationKind.OVERDUE,
+                today.plusDays(1))).hasSize(1);
+    }
+
+    @Test
+    void insertNotifications_shouldStoreQueuedNotificationsAndReturnTheirIds() {
+        User user = persistUser(entityManager, "reader@test.com");
+        Book book = persistBook(entityManager, "Dune", "ISBN-1", 1);
+        Loan loan = persistLoan(entityManager, user, book, LocalDate.now().plusDays(14), null);
+        entityManager.flush();
+
+        List<Long> ids = notificationBatchRepository.insertNotifications(List.of(
+                new PendingNotification(user.getId(), loan.getId(), "hold ready", LocalDateTime.now().minusMinutes(1)),
+                new PendingNotification(user.getId(), null, "hello", LocalDateTime.now())));
+
+        assertThat(ids).hasSize(2);
+        List<Notification> stored = notificationRepository.findByUserIdOrderByCreatedAtDesc(user.getId());
+        assertThat(stored).extracting(Notification::getId).containsExactly(ids.get(1), ids.get(0));
+        assertThat(stored.get(1).getLoan().getId()).isEqualTo(loan.getId());
+        assertThat(stored.get(0).getLoan()).isNull();
+        assertThat(stored.get(0).getKind()).isNull();
+    }
+}
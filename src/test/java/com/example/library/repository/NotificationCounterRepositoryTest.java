@@ -0,0 +1,113 @@
+package com.example.library.repository;
+
+import com.example.library.model.Notification;
+import com.example.library.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.library.repository.RepositoryFixtures.persistNotification;
+import static com.example.library.repository.RepositoryFixtures.persistUser;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import(NotificationCounterRepository.class)
+class NotificationCounterRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private NotificationCounterRepository notificationCounterRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Test
+    void addUnread_shouldCreateRowAndNeverGoBelowZero() {
+        User user = persistUser(entityManager, "reader@test.com");
+        entityManager.flush();
+
+        notificationCounterRepository.addUnread(Map.of(user.getId(), 2));
+        notificationCounterRepository.addUnread(user.getId(), -1);
+
+        assertThat(notificationCounterRepository.findUnreadByEmail("reader@test.com")).isEqualTo(1);
+
+        notificationCounterRepository.addUnread(user.getId(), -5);
+
+        assertThat(notificationCounterRepository.findUnreadByEmail("reader@test.com")).isZero();
+        assertThat(notificationCounterRepository.findUnreadByEmail("nobody@test.com")).isZero();
+    }
+
+    @Test
+    void rebuild_shouldCountUnreadNotificationsPerUser() {
+        User user = persistUser(entityManager, "reader@test.com");
+        User other = persistUser(entityManager, "other@test.com");
+        persistNotification(entityManager, user, false, LocalDateTime.now());
+        persistNotification(entityManager, user, false, LocalDateTime.now());
+        persistNotification(entityManager, user, true, LocalDateTime.now());
+        persistNotification(entityManager, other, true, LocalDateTime.now());
+        entityManager.flush();
+        assertThat(notificationCounterRepository.isEmpty()).isTrue();
+
+        notificationCounterRepository.rebuild();
+
+        assertThat(notificationCounterRepository.findUnreadByEmail("reader@test.com")).isEqualTo(2);
+        assertThat(notificationCounterRepository.findUnreadByEmail("other@test.com")).isZero();
+    }
+
+    @Test
+    void markReadAndDeleteUnread_shouldOnlyMatchUnreadNotifications() {
+        User user = persistUser(entityManager, "reader@test.com");
+        Notification unread = persistNotification(entityManager, user, false, LocalDateTime.now());
+        Notification read = persistNotification(entityManager, user, true, LocalDateTime.now());
+        entityManager.flush();
+
+        assertThat(notificationRepository.markRead(unread.getId())).isEqualTo(1);
+        assertThat(notificationRepository.markRead(unread.getId())).isZero();
+        assertThat(notificationRepository.deleteUnreadById(read.getId())).isZero();
+        assertThat(notificationRepository.deleteUnreadById(unread.getId())).isZero();
+        assertThat(notificationRepository.findById(read.getId())).isPresent();
+    }
+
+    @Test
+    void bulkStatements_shouldOnlyTouchNotificationsOfTheGivenEmail() {
+        User user = persistUser(entityManager, "reader@test.com");
+        User other = persistUser(entityManager, "other@test.com");
+        Notification first = persistNotification(entityManager, user, false, LocalDateTime.now());
+        Notification second = persistNotification(entityManager, user, true, LocalDateTime.now());
+        Notification third = persistNotification(entityManager, user, false, LocalDateTime.now());
+        Notification foreign = persistNotification(entityManager, other, false, LocalDateTime.now());
+        entityManager.flush();
+        List<Long> ids = List.of(first.getId(), second.getId(), foreign.getId());
+
+        assertThat(notificationRepository.deleteForEmail(ids, false, "reader@test.com")).isEqualTo(1);
+        assertThat(notificationRepository.deleteForEmail(ids, true, "reader@test.com")).isEqualTo(1);
+        assertThat(notificationRepository.markAllReadForEmail("reader@test.com")).isEqualTo(1);
+        assertThat(notificationRepository.markAllReadForEmail("reader@test.com")).isZero();
+
+        assertThat(notificationRepository.findByUserIdOrderByCreatedAtDesc(user.getId()))
+                .extracting(Notification::getId).containsExactly(third.getId());
+        assertThat(notificationRepository.findByUserIdAndReadFlagFalseOrderByCreatedAtDesc(other.getId()))
+                .extracting(Notification::getId).containsExactly(foreign.getId());
+    }
+
+    @Test
+    void subtractUnreadForEmail_shouldDecrementCounterOfThatUserOnly() {
+        User user = persistUser(entityManager, "reader@test.com");
+        User other = persistUser(entityManager, "other@test.com");
+        entityManager.flush();
+        notificationCounterRepository.addUnread(Map.of(user.getId(), 5, other.getId(), 2));
+
+        notificationCounterRepository.subtractUnreadForEmail("reader@test.com", 3);
+
+        assertThat(notificationCounterRepository.findUnreadByEmail("reader@test.com")).isEqualTo(2);
+        assertThat(notificationCounterRepository.findUnreadByEmail("other@test.com")).isEqualTo(2);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.library.repository;
+
+import com.example.library.model.Notification;
+import com.example.library.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.example.library.repository.RepositoryFixtures.persistNotification;
+import static com.example.library.repository.RepositoryFixtures.persistUser;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import(NotificationRetentionRepository.class)
+class NotificationRetentionRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private NotificationRetentionRepository notificationRetentionRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Test
+    void findExpiredReadIds_shouldSkipUnreadAndRecentNotifications() {
+        User user = persistUser(entityManager, "reader@test.com");
+        LocalDateTime old = LocalDateTime.now().minusDays(200);
+        Notification expired = persistNotification(entityManager, user, true, old);
+        persistNotification(entityManager, user, false, old);
+        persistNotification(entityManager, user, true, LocalDateTime.now());
+        entityManager.flush();
+
+        List<Long> ids = notificationRetentionRepository.findExpiredReadIds(LocalDateTime.now().minusDays(90), 10);
+
+        assertThat(ids).containsExactly(expired.getId());
+    }
+
+    @Test
+    void findIdsBeyondCap_shouldReturnOldestNotificationsOfUsersOverCap() {
+        User heavy = persistUser(entityManager, "heavy@test.com");
+        User light = persistUser(entityManager, "light@test.com");
+        LocalDateTime now = LocalDateTime.now();
+        Notification oldest = persistNotification(entityManager, heavy, false, now.minusDays(3));
+        Notification older = persistNotification(entityManager, heavy, true, now.minusDays(2));
+        persistNotification(entityManager, heavy, true, now.minusDays(1));
+        persistNotification(entityManager, heavy, false, now);
+        persistNotification(entityManager, light, true, now.minusDays(5));
+        entityManager.flush();
+
+        assertThat(notificationRetentionRepository.findUsersOverCap(2)).containsExactly(heavy.getId());
+        assertThat(notificationRetentionRepository.findIdsBeyondCap(heavy.getId(), 2, 10))
+                .containsExactlyInAnyOrder(oldest.getId(), older.getId());
+    }
+
+    @Test
+    void delete_shouldOnlyRemoveRowsWithGivenReadFlag() {
+        User user = persistUser(entityManager, "reader@test.com");
+        Notification read = persistNotification(entityManager, user, true, LocalDateTime.now());
+        Notification unread = persistNotification(entityManager, user, false, LocalDateTime.now());
+        entityManager.flush();
+        List<Long> ids = List.of(read.getId(), unread.getId());
+
+        assertThat(notificationRetentionRepository.delete(ids, false)).isEqualTo(1);
+        assertThat(notificationRetentionRepository.delete(ids, true)).isEqualTo(1);
+        assertThat(notificationRetentionRepository.delete(List.of(), true)).isZero();
+        assertThat(notificationRepository.count()).isZero();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.library.repository;
+
+import com.example.library.model.Book;
+import com.example.library.model.Category;
+import com.example.library.model.Loan;
+import com.example.library.model.Notification;
+import com.example.library.model.User;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// randurile de test comune pentru testele @DataJpaTest ale repository-urilor JDBC
+final class RepositoryFixtures {
+
+    private RepositoryFixtures() {
+    }
+
+    static User persistUser(TestEntityManager entityManager, String email) {
+        User user = new User();
+        user.setName("Reader");
+        user.setEmail(email);
+        user.setPassword("password");
+        return entityManager.persist(user);
+    }
+
+    static Category persistCategory(TestEntityManager entityManager, String name) {
+        Category category = new Category();
+        category.setName(name);
+        category.setDescription(name + " books");
+        return entityManager.persist(category);
+    }
+
+    static Book persistBook(TestEntityManager entityManager, String title, String isbn, int copies) {
+        return persistBook(entityManager, title, isbn, copies, null);
+    }
+
+    static Book persistBook(TestEntityManager entityManager, String title, String isbn, int copies, Category category) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("Author");
+        book.setIsbn(isbn);
+        book.setPublishedYear(2000);
+        book.setAvailableCopies(copies);
+        book.setCategory(category);
+        return entityManager.persist(book);
+    }
+
+    // imprumut de 14 zile care expira la dueDate; returnDate null = inca activ
+    static Loan persistLoan(TestEntityManager entityManager, User user, Book book,
+                            LocalDate dueDate, LocalDate returnDate) {
+        Loan loan = new Loan();
+        loan.setUser(user);
+        loan.setBook(book);
+        loan.setLoanDate(dueDate.minusDays(14));
+        loan.setDueDate(dueDate);
+        loan.setReturnDate(returnDate);
+        return entityManager.persist(loan);
+    }
+
+    static Notification persistNotification(TestEntityManager entityManager, User user, boolean read,
+                                            LocalDateTime createdAt) {
+        return persistNotification(entityManager, user, null, read, createdAt);
+    }
+
+    static Notification persistNotification(TestEntityManager entityManager, User user, Loan loan, boolean read,
+                                            LocalDateTime createdAt) {
+        Notification notification = new Notification();
+        notification.setUser(user);
+        notification.setLoan(loan);
+        notification.setMessage("message");
+        notification.setCreatedAt(createdAt);
+        notification.setReadFlag(read);
+        return entityManager.persist(notification);
+    }
+}
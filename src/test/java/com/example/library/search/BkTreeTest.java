@@ -0,0 +1,48 @@
+package com.example.library.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BkTreeTest {
+
+    @Test
+    void search_shouldReturnLiveTermsWithinDistance() {
+        BkTree tree = new BkTree();
+        tree.add("tolkien");
+        tree.add("tolstoy");
+        tree.add("token");
+
+        assertThat(tree.search("tolkein", 2)).containsOnlyKeys("tolkien", "token");
+        assertThat(tree.search("tolkein", 2).get("tolkien")).isEqualTo(2);
+    }
+
+    @Test
+    void remove_shouldHideTermOnlyAfterLastReference() {
+        BkTree tree = new BkTree();
+        tree.add("martin");
+        tree.add("martin");
+
+        tree.remove("martin");
+        assertThat(tree.search("martn", 1)).containsOnlyKeys("martin");
+
+        tree.remove("martin");
+        assertThat(tree.search("martn", 1)).isEmpty();
+    }
+
+    @Test
+    void remove_shouldCompactWhenMostTermsAreDead() {
+        BkTree tree = new BkTree();
+        for (int i = 0; i < 3000; i++) {
+            tree.add("term" + i);
+        }
+        for (int i = 0; i < 2000; i++) {
+            tree.remove("term" + i);
+        }
+
+        assertThat(tree.liveTerms()).isEqualTo(1000);
+        assertThat(tree.stats().getKeys()).isLessThan(3000);
+        assertThat(tree.search("term2999", 0)).containsOnlyKeys("term2999");
+        assertThat(tree.search("term5", 0)).isEmpty();
+    }
+}
@@ -0,0 +1,344 @@
+package com.example.library.search;
+
+import com.example.library.model.Book;
+import com.example.library.model.Category;
+import com.example.library.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookSearchIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private SearchResultCache searchResultCache;
+
+    @InjectMocks
+    private BookSearchIndex bookSearchIndex;
+
+    private Category programming;
+
+    private Book buildBook(Long id, String title, String author, Category category) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setCategory(category);
+        return book;
+    }
+
+    @BeforeEach
+    void setUp() {
+        programming = new Category();
+        programming.setId(10L);
+        programming.setName("Programming");
+
+        when(bookRepository.findAll()).thenReturn(List.of(
+                buildBook(1L, "Clean Code", "Robert Martin", programming),
+                buildBook(2L, "Effective Java", "Joshua Bloch", programming),
+                buildBook(3L, "Amintiri din copilărie", "Ion Creangă", null)
+        ));
+        bookSearchIndex.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rebuild_shouldLoadAllBooks() {
+        assertThat(bookSearchIndex.isReady()).isTrue();
+        assertThat(bookSearchIndex.size()).isEqualTo(3);
+    }
+
+    @Test
+    void searchAnywhere_shouldMatchTitleAuthorAndCategoryTokens() {
+        assertThat(bookSearchIndex.searchAnywhere("clean")).containsExactly(1L);
+        assertThat(bookSearchIndex.searchAnywhere("BLOCH")).containsExactly(2L);
+        assertThat(bookSearchIndex.searchAnywhere("programming")).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void searchAnywhere_shouldMatchPrefixesIgnoringDiacritics() {
+        assertThat(bookSearchIndex.searchAnywhere("copil")).containsExactly(3L);
+        assertThat(bookSearchIndex.searchAnywhere("creanga")).containsExactly(3L);
+    }
+
+    @Test
+    void searchAnywhere_shouldRequireAllTokens() {
+        assertThat(bookSearchIndex.searchAnywhere("java programming")).containsExactly(2L);
+        assertThat(bookSearchIndex.searchAnywhere("java martin")).isEmpty();
+    }
+
+    @Test
+    void index_shouldReplaceOldTokensAndResolveCategoryById() {
+        Category idOnly = new Category();
+        idOnly.setId(10L);
+
+        bookSearchIndex.index(buildBook(1L, "Clean Architecture", "Robert Martin", idOnly));
+
+        assertThat(bookSearchIndex.searchAnywhere("code")).isEmpty();
+        assertThat(bookSearchIndex.searchAnywhere("architecture programming")).containsExactly(1L);
+    }
+
+    @Test
+    void remove_shouldDropBookFromResults() {
+        bookSearchIndex.remove(2L);
+
+        assertThat(bookSearchIndex.searchAnywhere("java")).isEmpty();
+        assertThat(bookSearchIndex.size()).isEqualTo(2);
+    }
+
+    @Test
+    void categoryChanged_shouldReindexBooksOfThatCategory() {
+        bookSearchIndex.categoryChanged(10L, "Software Engineering");
+
+        assertThat(bookSearchIndex.searchAnywhere("programming")).isEmpty();
+        assertThat(bookSearchIndex.searchAnywhere("software")).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void searchTitleContaining_shouldMatchMidWordSubstrings() {
+        assertThat(bookSearchIndex.searchTitleContaining("ean co")).containsExactly(1L);
+        assertThat(bookSearchIndex.searchTitleContaining("ECTIV")).containsExactly(2L);
+        assertThat(bookSearchIndex.searchTitleContaining("ar")).containsExactly(3L);
+        assertThat(bookSearchIndex.searchTitleContaining("java code")).isEmpty();
+    }
+
+    @Test
+    void searchAuthorContaining_shouldVerifyCandidatesAfterIntersection() {
+        // "tin" si "mar" apar amandoua in "robert martin", dar "tinmar" nu
+        assertThat(bookSearchIndex.searchAuthorContaining("artin")).containsExactly(1L);
+        assertThat(bookSearchIndex.searchAuthorContaining("tinmar")).isEmpty();
+    }
+
+    @Test
+    void searchTitleContaining_shouldFollowUpdates() {
+        bookSearchIndex.index(buildBook(2L, "Java Concurrency in Practice", "Brian Goetz", programming));
+
+        assertThat(bookSearchIndex.searchTitleContaining("effective")).isEmpty();
+        assertThat(bookSearchIndex.searchTitleContaining("currency")).containsExactly(2L);
+        assertThat(bookSearchIndex.searchAuthorContaining("goetz")).containsExactly(2L);
+    }
+
+    @Test
+    void stats_shouldReportEachIndex() {
+        assertThat(bookSearchIndex.stats())
+                .extracting(IndexStats::getName)
+                .containsExactly("inverted", "title-trigram", "author-trigram", "suggest", "fuzzy-bktree", "facets");
+        assertThat(bookSearchIndex.stats())
+                .allSatisfy(stats -> assertThat(stats.getEstimatedBytes()).isPositive());
+    }
+
+    @Test
+    void suggest_shouldReturnPhraseStartsBeforeWordStarts() {
+        bookSearchIndex.index(buildBook(4L, "Code Complete", "Steve McConnell", programming));
+
+        assertThat(bookSearchIndex.suggest("co", 10))
+                .extracting(Suggestion::getText)
+                .containsExactly("Code Complete", "Clean Code", "Amintiri din copilărie");
+        assertThat(bookSearchIndex.suggest("jos", 10))
+                .extracting(Suggestion::getType)
+                .containsExactly(BookField.AUTHOR);
+    }
+
+    @Test
+    void suggest_shouldRespectLimitAndDeduplicateSharedAuthors() {
+        bookSearchIndex.index(buildBook(4L, "Clean Architecture", "Robert Martin", programming));
+
+        assertThat(bookSearchIndex.suggest("robert", 10))
+                .extracting(Suggestion::getText)
+                .containsExactly("Robert Martin");
+        assertThat(bookSearchIndex.suggest("c", 1)).hasSize(1);
+    }
+
+    @Test
+    void suggest_shouldRankCompletionsByNumberOfBooks_whenLimitIsReached() {
+        // "Rachel Carson" e inaintea lui "Robert Martin" alfabetic, dar are o singura carte
+        bookSearchIndex.index(buildBook(4L, "Silent Spring", "Rachel Carson", null));
+        bookSearchIndex.index(buildBook(5L, "Clean Architecture", "Robert Martin", programming));
+
+        assertThat(bookSearchIndex.suggest("r", 1))
+                .extracting(Suggestion::getText)
+                .containsExactly("Robert Martin");
+        assertThat(bookSearchIndex.suggest("r", 10))
+                .extracting(Suggestion::getText)
+                .containsExactly("Robert Martin", "Rachel Carson");
+    }
+
+    @Test
+    void suggest_shouldReRankShortPrefixes_whenBooksAreRemoved() {
+        bookSearchIndex.index(buildBook(4L, "Silent Spring", "Rachel Carson", null));
+        bookSearchIndex.index(buildBook(5L, "The Sea Around Us", "Rachel Carson", null));
+        bookSearchIndex.index(buildBook(6L, "Clean Architecture", "Robert Martin", programming));
+        bookSearchIndex.index(buildBook(7L, "Clean Agile", "Robert Martin", programming));
+        assertThat(bookSearchIndex.suggest("r", 1)).extracting(Suggestion::getText).containsExactly("Robert Martin");
+
+        bookSearchIndex.remove(6L);
+        bookSearchIndex.remove(7L);
+
+        // top-K tinut gata pentru "r" si intervalul parcurs la cerere pentru "robert m" spun acelasi lucru
+        assertThat(bookSearchIndex.suggest("r", 1)).extracting(Suggestion::getText).containsExactly("Rachel Carson");
+        assertThat(bookSearchIndex.suggest("r", 10))
+                .extracting(Suggestion::getText)
+                .containsExactly("Rachel Carson", "Robert Martin");
+        assertThat(bookSearchIndex.suggest("robert m", 10)).extracting(Suggestion::getText).containsExactly("Robert Martin");
+    }
+
+    @Test
+    void suggest_shouldKeepSharedAuthorUntilLastBookIsRemoved() {
+        bookSearchIndex.index(buildBook(4L, "Clean Architecture", "Robert Martin", programming));
+
+        bookSearchIndex.remove(1L);
+        assertThat(bookSearchIndex.suggest("mart", 10)).extracting(Suggestion::getText).containsExactly("Robert Martin");
+
+        bookSearchIndex.remove(4L);
+        assertThat(bookSearchIndex.suggest("mart", 10)).isEmpty();
+        assertThat(bookSearchIndex.suggest("clean", 10)).isEmpty();
+    }
+
+    @Test
+    void searchFuzzy_shouldTolerateMisspelledAuthor() {
+        bookSearchIndex.index(buildBook(4L, "The Hobbit", "J.R.R. Tolkien", null));
+
+        assertThat(bookSearchIndex.searchFuzzy("Tolkein", 2)).containsExactly(4L);
+        assertThat(bookSearchIndex.searchFuzzy("Tolkein", 1)).isEmpty();
+        assertThat(bookSearchIndex.searchFuzzy("robrt martn", 2)).containsExactly(1L);
+    }
+
+    @Test
+    void searchFuzzy_shouldRankCloserMatchesFirst() {
+        bookSearchIndex.index(buildBook(4L, "Clear Code", "Someone Else", null));
+
+        // "clean" e la 0 editari pentru cartea 1, "clear" la 1 editare pentru cartea 4
+        assertThat(bookSearchIndex.searchFuzzy("clean code", 2)).containsExactly(1L, 4L);
+    }
+
+    @Test
+    void searchFuzzy_shouldNotFuzzShortWordsOrCategories() {
+        assertThat(bookSearchIndex.searchFuzzy("jv", 2)).isEmpty();
+        assertThat(bookSearchIndex.searchFuzzy("programing", 2)).isEmpty();
+    }
+
+    @Test
+    void searchRanked_shouldPreferTitleMatchesOverCategoryMatches() {
+        bookSearchIndex.index(buildBook(4L, "Programming Pearls", "Jon Bentley", null));
+
+        assertThat(bookSearchIndex.searchRanked("programming", 10)).containsExactly(4L, 1L, 2L);
+    }
+
+    @Test
+    void searchRanked_shouldScoreDocumentsMatchingMoreTermsHigher() {
+        assertThat(bookSearchIndex.searchRanked("java bloch martin", 10)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void searchRanked_shouldKeepOnlyTopK() {
+        bookSearchIndex.index(buildBook(4L, "Programming Pearls", "Jon Bentley", null));
+
+        assertThat(bookSearchIndex.searchRanked("programming", 2)).containsExactly(4L, 1L);
+        assertThat(bookSearchIndex.searchRanked("programming", 0)).isEmpty();
+        assertThat(bookSearchIndex.searchRanked("nothing", 5)).isEmpty();
+    }
+
+    private void indexWithYearAndCopies(Long id, String title, Category category, int year, int copies) {
+        Book book = buildBook(id, title, "Some Author", category);
+        book.setPublishedYear(year);
+        book.setAvailableCopies(copies);
+        bookSearchIndex.index(book);
+    }
+
+    @Test
+    void facetSearch_shouldReturnHitsAndAllFacetCounts() {
+        Category history = new Category();
+        history.setId(20L);
+        history.setName("History");
+        bookSearchIndex.categoryChanged(20L, "History");
+
+        indexWithYearAndCopies(1L, "Clean Code", programming, 2008, 2);
+        indexWithYearAndCopies(2L, "Effective Java", programming, 2001, 0);
+        indexWithYearAndCopies(4L, "A History of Java", history, 1995, 1);
+
+        FacetResult result = bookSearchIndex.facetSearch("java", null, null, null, 10);
+
+        assertThat(result.getHitIds()).containsExactly(2L, 4L);
+        assertThat(result.getTotalHits()).isEqualTo(2);
+        assertThat(result.getCategories())
+                .extracting(FacetCount::getLabel, FacetCount::getCount)
+                .containsExactlyInAnyOrder(tuple("Programming", 1L), tuple("History", 1L));
+        assertThat(result.getDecades())
+                .extracting(FacetCount::getKey, FacetCount::getCount)
+                .containsExactly(tuple("1990", 1L), tuple("2000", 1L));
+        assertThat(result.getAvailability())
+                .extracting(FacetCount::getKey, FacetCount::getCount)
+                .containsExactly(tuple("true", 1L), tuple("false", 1L));
+    }
+
+    @Test
+    void facetSearch_shouldApplyFiltersAndFollowAvailabilityChanges() {
+        indexWithYearAndCopies(1L, "Clean Code", programming, 2008, 2);
+        indexWithYearAndCopies(2L, "Effective Java", programming, 2001, 0);
+
+        assertThat(bookSearchIndex.facetSearch(null, 10L, 2000, true, 10).getHitIds()).containsExactly(1L);
+
+        bookSearchIndex.updateAvailability(2L, 1);
+        bookSearchIndex.updateAvailability(1L, 0);
+
+        assertThat(bookSearchIndex.facetSearch(null, 10L, 2000, true, 10).getHitIds()).containsExactly(2L);
+        assertThat(bookSearchIndex.facetSearch(null, 10L, null, null, 1).getHitIds()).containsExactly(1L);
+    }
+
+    @Test
+    void updateAvailability_shouldWaitForCommit_whenCalledInsideTransaction() {
+        indexWithYearAndCopies(1L, "Clean Code", programming, 2008, 2);
+        TransactionSynchronizationManager.initSynchronization();
+
+        bookSearchIndex.updateAvailability(1L, 0);
+
+        // pana la commit (si deloc, la rollback) fateta arata tot stocul vechi
+        assertThat(bookSearchIndex.facetSearch(null, null, null, true, 10).getHitIds()).contains(1L);
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertThat(bookSearchIndex.facetSearch(null, null, null, true, 10).getHitIds()).doesNotContain(1L);
+    }
+
+    @Test
+    void writes_shouldReportBeforeAndAfterSnapshotsToResultCache() {
+        verify(searchResultCache).clear();
+
+        bookSearchIndex.index(buildBook(1L, "Clean Architecture", "Robert Martin", programming));
+        verify(searchResultCache).documentChanged(
+                argThat(before -> before.getTitle().equals("Clean Code")),
+                argThat(after -> after.getTitle().equals("Clean Architecture")));
+
+        bookSearchIndex.remove(3L);
+        verify(searchResultCache).documentChanged(argThat(before -> before.getId().equals(3L)), isNull());
+
+        bookSearchIndex.categoryChanged(10L, "Software");
+        verify(searchResultCache).documentChanged(
+                argThat(before -> before.getId().equals(2L) && before.getCategoryName().equals("Programming")),
+                argThat(after -> after.getCategoryName().equals("Software")));
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.library.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchResultCacheTest {
+
+    private final SearchResultCache cache = new SearchResultCache(10);
+
+    private BookDocument doc(Long id, String title, String author, String category) {
+        return new BookDocument(id, title, author, 1L, category, 2008, 1);
+    }
+
+    @Test
+    void get_shouldShareEntryBetweenEquivalentQueriesAndCountHitsAndMisses() {
+        assertThat(cache.get(SearchResultCache.Kind.ANYWHERE, "Java")).isEmpty();
+        cache.put(SearchResultCache.Kind.ANYWHERE, "Java", List.of(2L), cache.generation());
+
+        assertThat(cache.get(SearchResultCache.Kind.ANYWHERE, " java ")).contains(List.of(2L));
+        assertThat(cache.stats().getHits()).isEqualTo(1);
+        assertThat(cache.stats().getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void documentChanged_shouldOnlyDropEntriesTheBookMatchedBeforeOrAfter() {
+        long generation = cache.generation();
+        cache.put(SearchResultCache.Kind.ANYWHERE, "clean", List.of(1L), generation);
+        cache.put(SearchResultCache.Kind.TITLE, "refactor", List.of(), generation);
+        cache.put(SearchResultCache.Kind.AUTHOR, "bloch", List.of(2L), generation);
+        cache.put(SearchResultCache.Kind.CATEGORY, "programming", List.of(1L, 2L), generation);
+
+        // "Clean Code" -> "Refactoring": lovit de "clean" (inainte) si "refactor" (dupa)
+        cache.documentChanged(
+                doc(1L, "Clean Code", "Robert Martin", "Art"),
+                doc(1L, "Refactoring", "Robert Martin", "Art"));
+
+        assertThat(cache.get(SearchResultCache.Kind.ANYWHERE, "clean")).isEmpty();
+        assertThat(cache.get(SearchResultCache.Kind.TITLE, "refactor")).isEmpty();
+        assertThat(cache.get(SearchResultCache.Kind.AUTHOR, "bloch")).contains(List.of(2L));
+        assertThat(cache.get(SearchResultCache.Kind.CATEGORY, "programming")).contains(List.of(1L, 2L));
+
+        // redenumire de categorie
+        cache.documentChanged(
+                doc(2L, "Effective Java", "Joshua Bloch", "Programming"),
+                doc(2L, "Effective Java", "Joshua Bloch", "Software"));
+        assertThat(cache.get(SearchResultCache.Kind.CATEGORY, "programming")).isEmpty();
+        assertThat(cache.stats().getInvalidations()).isEqualTo(4);
+    }
+
+    @Test
+    void put_shouldIgnoreResultComputedBeforeAnInvalidation() {
+        long generation = cache.generation();
+        cache.documentChanged(null, doc(5L, "Dune", "Frank Herbert", null));
+
+        cache.put(SearchResultCache.Kind.ANYWHERE, "dune", List.of(), generation);
+
+        assertThat(cache.get(SearchResultCache.Kind.ANYWHERE, "dune")).isEmpty();
+    }
+
+    @Test
+    void put_shouldEvictLeastRecentlyUsedEntriesWhenWeightExceeded() {
+        cache.put(SearchResultCache.Kind.TITLE, "a", List.of(1L, 2L, 3L), 0);
+        cache.put(SearchResultCache.Kind.TITLE, "b", List.of(4L, 5L, 6L), 0);
+        cache.get(SearchResultCache.Kind.TITLE, "a");
+        cache.put(SearchResultCache.Kind.TITLE, "c", List.of(7L, 8L, 9L), 0);
+        // rezultat mai mare decat tot cache-ul: nu se pastreaza
+        cache.put(SearchResultCache.Kind.TITLE, "d", List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L), 0);
+
+        assertThat(cache.get(SearchResultCache.Kind.TITLE, "b")).isEmpty();
+        assertThat(cache.get(SearchResultCache.Kind.TITLE, "a")).isPresent();
+        assertThat(cache.get(SearchResultCache.Kind.TITLE, "c")).isPresent();
+        assertThat(cache.get(SearchResultCache.Kind.TITLE, "d")).isEmpty();
+        assertThat(cache.stats().getEvictions()).isEqualTo(1);
+        assertThat(cache.stats().getWeight()).isEqualTo(8);
+    }
+}
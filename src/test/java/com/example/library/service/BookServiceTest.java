@@ -1,19 +1,31 @@
 package com.example.library.service;
 
+import com.example.library.dto.BookFacetsResponse;
+import com.example.library.dto.CursorPage;
 import com.example.library.exception.BusinessException;
 import com.example.library.model.Book;
+import com.example.library.repository.BookExportRepository;
 import com.example.library.repository.BookRepository;
+import com.example.library.search.BookField;
+import com.example.library.search.BookSearchIndex;
+import com.example.library.search.FacetCount;
+import com.example.library.search.FacetResult;
+import com.example.library.search.SearchResultCache;
+import com.example.library.search.Suggestion;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -26,6 +38,15 @@ class BookServiceTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @Mock
+    private BookExportRepository bookExportRepository;
+
+    @Mock
+    private SearchResultCache searchResultCache;
+
     @InjectMocks
     private BookService bookService;
 
@@ -65,6 +86,26 @@ class BookServiceTest {
         verify(bookRepository).findAll();
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamAllBooks_shouldPassRowsThroughWithoutFindAll() {
+        // given
+        doAnswer(invocation -> {
+            Consumer<Book> consumer = invocation.getArgument(0);
+            consumer.accept(book1);
+            consumer.accept(book2);
+            return null;
+        }).when(bookExportRepository).streamAll(any(Consumer.class));
+
+        // when
+        List<Book> streamed = new ArrayList<>();
+        bookService.streamAllBooks(streamed::add);
+
+        // then
+        assertThat(streamed).containsExactly(book1, book2);
+        verify(bookRepository, never()).findAll();
+    }
+
     @Test
     void getBookById_shouldReturnBook_whenExists() {
         // given
@@ -224,6 +265,21 @@ class BookServiceTest {
         verify(bookRepository).findByTitleContainingIgnoreCase("book");
     }
 
+    @Test
+    void searchByTitle_shouldUseTrigramIndex_whenIndexReady() {
+        // given
+        when(bookSearchIndex.isReady()).thenReturn(true);
+        when(bookSearchIndex.searchTitleContaining("ook o")).thenReturn(List.of(1L));
+        when(bookRepository.findAllById(List.of(1L))).thenReturn(List.of(book1));
+
+        // when
+        List<Book> result = bookService.searchByTitle("ook o");
+
+        // then
+        assertThat(result).containsExactly(book1);
+        verify(bookRepository, never()).findByTitleContainingIgnoreCase(anyString());
+    }
+
     @Test
     void searchByAuthor_shouldUseRepositoryMethod() {
         // given
@@ -253,21 +309,280 @@ class BookServiceTest {
     }
 
     @Test
-    void searchAnywhere_shouldUseRepositoryMethod() {
-        // given
+    void searchAnywhere_shouldMatchWordPrefixesLikeTheIndex_whenIndexNotReady() {
+        // given: LIKE pe cel mai lung cuvant, apoi aceeasi potrivire pe cuvinte ca indexul
+        when(bookSearchIndex.isReady()).thenReturn(false);
         when(bookRepository
                 .findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCaseOrCategory_NameContainingIgnoreCase(
-                        "key", "key", "key"))
-                .thenReturn(List.of(book1));
+                        "book", "book", "book"))
+                .thenReturn(List.of(book2, book1));
 
         // when
-        List<Book> result = bookService.searchAnywhere("key");
+        List<Book> result = bookService.searchAnywhere("one BOOK");
+        List<Book> midWord = bookService.searchAnywhere("ook");
 
-        // then
+        // then: ordinea cuvintelor nu conteaza, bucatile din mijlocul cuvintelor nu se potrivesc
         assertThat(result).containsExactly(book1);
-        verify(bookRepository)
+        assertThat(midWord).isEmpty();
+    }
+
+    @Test
+    void searchAnywhere_shouldUseIndexAndLoadByIdInIndexOrder_whenIndexReady() {
+        // given
+        when(bookSearchIndex.isReady()).thenReturn(true);
+        when(bookSearchIndex.searchAnywhere("book")).thenReturn(List.of(1L, 2L));
+        when(bookRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(book2, book1));
+
+        // when
+        List<Book> result = bookService.searchAnywhere("book");
+
+        // then
+        assertThat(result).containsExactly(book1, book2);
+        verify(bookRepository, never())
                 .findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCaseOrCategory_NameContainingIgnoreCase(
-                        "key", "key", "key"
-                );
+                        anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void searchAnywhere_shouldServeCachedIdsWithoutTouchingIndex() {
+        // given
+        when(bookSearchIndex.isReady()).thenReturn(true);
+        when(searchResultCache.get(SearchResultCache.Kind.ANYWHERE, "book")).thenReturn(Optional.of(List.of(2L)));
+        when(bookRepository.findAllById(List.of(2L))).thenReturn(List.of(book2));
+
+        // when
+        List<Book> result = bookService.searchAnywhere("book");
+
+        // then
+        assertThat(result).containsExactly(book2);
+        verify(bookSearchIndex, never()).searchAnywhere(anyString());
+        verify(searchResultCache, never()).put(any(), anyString(), anyList(), anyLong());
+    }
+
+    @Test
+    void searchByTitle_shouldCacheIndexResultWithGenerationReadBeforeSearch() {
+        // given
+        when(bookSearchIndex.isReady()).thenReturn(true);
+        when(searchResultCache.generation()).thenReturn(7L);
+        when(bookSearchIndex.searchTitleContaining("clean")).thenReturn(List.of(1L));
+        when(bookRepository.findAllById(List.of(1L))).thenReturn(List.of(book1));
+
+        // when
+        List<Book> result = bookService.searchByTitle("clean");
+
+        // then
+        assertThat(result).containsExactly(book1);
+        verify(searchResultCache).put(SearchResultCache.Kind.TITLE, "clean", List.of(1L), 7L);
+    }
+
+    @Test
+    void searchByCategoryName_shouldCacheIdsFromRepository_whenIndexReady() {
+        // given
+        when(bookSearchIndex.isReady()).thenReturn(true);
+        when(searchResultCache.generation()).thenReturn(3L);
+        when(bookRepository.findByCategory_NameIgnoreCase("fiction")).thenReturn(List.of(book1, book2));
+
+        // when
+        List<Book> result = bookService.searchByCategoryName("fiction");
+
+        // then
+        assertThat(result).containsExactly(book1, book2);
+        verify(searchResultCache).put(SearchResultCache.Kind.CATEGORY, "fiction",
+                List.of(book1.getId(), book2.getId()), 3L);
+    }
+
+    @Test
+    void createUpdateDelete_shouldKeepIndexInSync() {
+        // given
+        when(bookRepository.save(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(book1));
+
+        // when
+        bookService.createBook(book2);
+        bookService.updateBook(1L, book2);
+        bookService.deleteBook(1L);
+
+        // then
+        verify(bookSearchIndex).index(book2);
+        verify(bookSearchIndex).index(book1);
+        verify(bookSearchIndex).remove(1L);
+    }
+
+    @Test
+    void suggest_shouldClampLimitAndUseIndex() {
+        // given
+        Suggestion suggestion = new Suggestion("Book One", BookField.TITLE);
+        when(bookSearchIndex.isReady()).thenReturn(true);
+        when(bookSearchIndex.suggest("bo", 50)).thenReturn(List.of(suggestion));
+
+        // when
+        List<Suggestion> result = bookService.suggest("bo", 1000);
+
+        // then
+        assertThat(result).containsExactly(suggestion);
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void suggest_shouldReturnEmpty_whenIndexNotReady() {
+        // given
+        when(bookSearchIndex.isReady()).thenReturn(false);
+
+        // when
+        List<Suggestion> result = bookService.suggest("bo", 10);
+
+        // then
+        assertThat(result).isEmpty();
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void searchFuzzy_shouldUseIndexWithDefaultDistance() {
+        // given
+        when(bookSearchIndex.isReady()).thenReturn(true);
+        when(bookSearchIndex.searchFuzzy("autor", 2)).thenReturn(List.of(2L, 1L));
+        when(bookRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(book1, book2));
+
+        // when
+        List<Book> result = bookService.searchFuzzy("autor", null);
+
+        // then
+        assertThat(result).containsExactly(book2, book1);
+    }
+
+    @Test
+    void searchFuzzy_shouldRejectDistanceAboveLimit() {
+        // when
+        BusinessException ex = assertThrows(
+                BusinessException.class,
+                () -> bookService.searchFuzzy("autor", 3)
+        );
+
+        // then
+        assertThat(ex.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(bookSearchIndex);
+    }
+
+    @Test
+    void searchRanked_shouldLoadBooksInScoreOrder() {
+        // given
+        when(bookSearchIndex.isReady()).thenReturn(true);
+        when(bookSearchIndex.searchRanked("book", 20)).thenReturn(List.of(2L, 1L));
+        when(bookRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(book1, book2));
+
+        // when
+        List<Book> result = bookService.searchRanked("book", 20);
+
+        // then
+        assertThat(result).containsExactly(book2, book1);
+    }
+
+    @Test
+    void searchRanked_shouldRejectLimitAboveMaximum() {
+        // when
+        BusinessException ex = assertThrows(
+                BusinessException.class,
+                () -> bookService.searchRanked("book", 1000)
+        );
+
+        // then
+        assertThat(ex.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(bookSearchIndex, bookRepository);
+    }
+
+    @Test
+    void searchAnywherePage_shouldWalkIndexResultsWithCursor() {
+        // given
+        Book book3 = new Book();
+        book3.setId(3L);
+        when(bookSearchIndex.isReady()).thenReturn(true);
+        when(bookSearchIndex.searchAnywhere("book")).thenReturn(List.of(1L, 2L, 3L));
+        when(bookRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(book1, book2));
+        when(bookRepository.findAllById(List.of(3L))).thenReturn(List.of(book3));
+
+        // when
+        CursorPage<Book> first = bookService.searchAnywherePage("book", null, 2);
+        CursorPage<Book> second = bookService.searchAnywherePage("book", first.getNextCursor(), 2);
+
+        // then
+        assertThat(first.getItems()).containsExactly(book1, book2);
+        assertThat(first.getNextCursor()).isEqualTo(CursorPage.encodeCursor(2L));
+        assertThat(second.getItems()).containsExactly(book3);
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void searchByCategoryNamePage_shouldUseKeysetQueryWithOneExtraRow() {
+        // given
+        when(bookRepository.findByCategory_NameIgnoreCaseAndIdGreaterThanOrderByIdAsc("fiction", 0L, Limit.of(2)))
+                .thenReturn(List.of(book1, book2));
+
+        // when
+        CursorPage<Book> page = bookService.searchByCategoryNamePage("fiction", null, 1);
+
+        // then
+        assertThat(page.getItems()).containsExactly(book1);
+        assertThat(CursorPage.decodeCursor(page.getNextCursor())).isEqualTo(1L);
+    }
+
+    @Test
+    void searchByTitlePage_shouldFallBackToKeysetQuery_whenIndexNotReady() {
+        // given
+        when(bookSearchIndex.isReady()).thenReturn(false);
+        when(bookRepository.findByTitleContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc("book", 1L, Limit.of(11)))
+                .thenReturn(List.of(book2));
+
+        // when
+        CursorPage<Book> page = bookService.searchByTitlePage("book", CursorPage.encodeCursor(1L), 10);
+
+        // then
+        assertThat(page.getItems()).containsExactly(book2);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void searchAnywherePage_shouldFilterKeysetBatchesLikeTheIndex_whenIndexNotReady() {
+        // given: primul lot are doar o potrivire, deci se mai cere unul
+        when(bookSearchIndex.isReady()).thenReturn(false);
+        when(bookRepository.searchAnywhereAfter("two", 0L, Limit.of(2))).thenReturn(List.of(book1, book2));
+        when(bookRepository.searchAnywhereAfter("two", 2L, Limit.of(2))).thenReturn(List.of());
+
+        // when
+        CursorPage<Book> page = bookService.searchAnywherePage("two", null, 1);
+
+        // then
+        assertThat(page.getItems()).containsExactly(book2);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void searchAnywherePage_shouldRejectInvalidCursor() {
+        // when
+        BusinessException ex = assertThrows(
+                BusinessException.class,
+                () -> bookService.searchAnywherePage("book", "not-a-cursor", 10)
+        );
+
+        // then
+        assertThat(ex.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void facetSearch_shouldLoadHitsAndPassFacetCountsThrough() {
+        // given
+        List<FacetCount> decades = List.of(new FacetCount("2000", "2000s", 1));
+        FacetResult facets = new FacetResult(List.of(1L), 1, List.of(), decades, List.of());
+        when(bookSearchIndex.isReady()).thenReturn(true);
+        when(bookSearchIndex.facetSearch("book", null, 2000, true, 20)).thenReturn(facets);
+        when(bookRepository.findAllById(List.of(1L))).thenReturn(List.of(book1));
+
+        // when
+        BookFacetsResponse result = bookService.facetSearch("book", null, 2000, true, 20);
+
+        // then
+        assertThat(result.getBooks()).containsExactly(book1);
+        assertThat(result.getTotalHits()).isEqualTo(1);
+        assertThat(result.getDecades()).isEqualTo(decades);
     }
 }
@@ -3,6 +3,7 @@ package com.example.library.service;
 import com.example.library.exception.BusinessException;
 import com.example.library.model.Category;
 import com.example.library.repository.CategoryRepository;
+import com.example.library.search.BookSearchIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -25,6 +26,9 @@ class CategoryServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
     @InjectMocks
     private CategoryService categoryService;
 
@@ -0,0 +1,260 @@
+package com.example.library.service;
+
+import com.example.library.exception.BusinessException;
+import com.example.library.hold.HoldQueueIndex;
+import com.example.library.loan.DueDateIndex;
+import com.example.library.lock.BookLockManager;
+import com.example.library.model.Book;
+import com.example.library.model.Hold;
+import com.example.library.model.HoldStatus;
+import com.example.library.model.Loan;
+import com.example.library.model.User;
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.HoldRepository;
+import com.example.library.repository.LoanRepository;
+import com.example.library.repository.LoanStatsRepository;
+import com.example.library.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HoldServiceTest {
+
+    @Mock
+    private HoldRepository holdRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private LoanStatsRepository loanStatsRepository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private HoldQueueIndex holdQueueIndex;
+
+    @Mock
+    private DueDateIndex dueDateIndex;
+
+    @Spy
+    private BookLockManager bookLockManager = new BookLockManager(4);
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private HoldService holdService;
+
+    private User user;
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(1L);
+        user.setEmail("user@test.com");
+        user.setActive(true);
+
+        book = new Book();
+        book.setId(10L);
+        book.setTitle("Test Book");
+        book.setAvailableCopies(0);
+    }
+
+    private Hold buildHold(Long id, User holder) {
+        Hold hold = new Hold();
+        hold.setId(id);
+        hold.setUser(holder);
+        hold.setBook(book);
+        return hold;
+    }
+
+    @Test
+    void placeHold_shouldSaveHoldAndQueueIt() {
+        // given
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(bookRepository.findById(book.getId())).thenReturn(Optional.of(book));
+        when(holdRepository.existsByUserIdAndBookIdAndStatus(user.getId(), book.getId(), HoldStatus.WAITING))
+                .thenReturn(false);
+        when(holdRepository.save(any(Hold.class))).thenAnswer(invocation -> {
+            Hold hold = invocation.getArgument(0);
+            hold.setId(50L);
+            return hold;
+        });
+
+        // when
+        Hold result = holdService.placeHold(book.getId(), user.getEmail());
+
+        // then
+        assertThat(result.getStatus()).isEqualTo(HoldStatus.WAITING);
+        assertThat(result.getCreatedAt()).isNotNull();
+        verify(holdQueueIndex).add(book.getId(), 50L);
+    }
+
+    @Test
+    void placeHold_shouldThrow_whenCopiesAvailable() {
+        // given
+        book.setAvailableCopies(2);
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(bookRepository.findById(book.getId())).thenReturn(Optional.of(book));
+
+        // when
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> holdService.placeHold(book.getId(), user.getEmail()));
+
+        // then
+        assertThat(ex.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verify(holdRepository, never()).save(any());
+        verifyNoInteractions(holdQueueIndex);
+    }
+
+    @Test
+    void placeHold_shouldThrow_whenUserAlreadyWaits() {
+        // given
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(bookRepository.findById(book.getId())).thenReturn(Optional.of(book));
+        when(holdRepository.existsByUserIdAndBookIdAndStatus(user.getId(), book.getId(), HoldStatus.WAITING))
+                .thenReturn(true);
+
+        // when
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> holdService.placeHold(book.getId(), user.getEmail()));
+
+        // then
+        assertThat(ex.getMessage()).contains("already have a hold");
+        verify(holdRepository, never()).save(any());
+    }
+
+    @Test
+    void cancelHold_shouldThrow_whenNotOwner() {
+        // given
+        when(holdRepository.findById(50L)).thenReturn(Optional.of(buildHold(50L, user)));
+
+        // when
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> holdService.cancelHold(50L, "other@test.com"));
+
+        // then
+        assertThat(ex.getStatus()).isEqualTo(HttpStatus.FORBIDDEN);
+        verifyNoInteractions(holdQueueIndex);
+    }
+
+    @Test
+    void handOverToNextHolder_shouldReturnNull_whenNobodyWaits() {
+        // given
+        when(holdQueueIndex.waiting(book.getId())).thenReturn(List.of());
+
+        // when
+        Loan result = holdService.handOverToNextHolder(book, new ArrayList<>());
+
+        // then
+        assertThat(result).isNull();
+        verifyNoInteractions(holdRepository, loanRepository);
+    }
+
+    @Test
+    void handOverToNextHolder_shouldSkipInactiveHolderAndLoanToNextOne() {
+        // given
+        User inactive = new User();
+        inactive.setId(2L);
+        inactive.setActive(false);
+        Hold skipped = buildHold(50L, inactive);
+        Hold next = buildHold(51L, user);
+        when(holdQueueIndex.waiting(book.getId())).thenReturn(List.of(50L, 51L));
+        when(holdRepository.findById(50L)).thenReturn(Optional.of(skipped));
+        when(holdRepository.findById(51L)).thenReturn(Optional.of(next));
+        when(loanRepository.save(any(Loan.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        List<Long> consumed = new ArrayList<>();
+
+        // when
+        Loan result = holdService.handOverToNextHolder(book, consumed);
+
+        // then
+        assertThat(result.getUser()).isEqualTo(user);
+        assertThat(result.getBook()).isEqualTo(book);
+        assertThat(result.getDueDate()).isEqualTo(result.getLoanDate().plusDays(14));
+        assertThat(skipped.getStatus()).isEqualTo(HoldStatus.CANCELLED);
+        assertThat(next.getStatus()).isEqualTo(HoldStatus.FULFILLED);
+        assertThat(next.getLoan()).isEqualTo(result);
+        assertThat(consumed).containsExactly(50L, 51L);
+        // notificarea pleaca abia dupa eliberarea lock-ului, prin notifyHolders
+        verifyNoInteractions(notificationService);
+        verify(dueDateIndex).add(result.getId(), result.getDueDate());
+        verify(loanStatsRepository).addToUser(user.getId(), 1, 1);
+        verify(loanStatsRepository).addToBook(book.getId(), 1, 1);
+    }
+
+    @Test
+    void handOverToNextHolder_shouldLoanToWaitingHolder_whenQueuesAreNotBuiltYet() {
+        // given: returnare venita inainte de ApplicationReadyEvent, coada din memorie inca goala
+        HoldService service = new HoldService(holdRepository, bookRepository, userRepository, loanRepository,
+                loanStatsRepository, notificationService, new HoldQueueIndex(holdRepository), dueDateIndex,
+                bookLockManager, transactionManager);
+        Hold waiting = buildHold(50L, user);
+        when(holdRepository.findByBookIdAndStatusOrderByIdAsc(book.getId(), HoldStatus.WAITING))
+                .thenReturn(List.of(waiting));
+        when(holdRepository.findById(50L)).thenReturn(Optional.of(waiting));
+        when(loanRepository.save(any(Loan.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        List<Long> consumed = new ArrayList<>();
+
+        // when
+        Loan result = service.handOverToNextHolder(book, consumed);
+
+        // then
+        assertThat(result).isNotNull();
+        assertThat(result.getUser()).isEqualTo(user);
+        assertThat(waiting.getStatus()).isEqualTo(HoldStatus.FULFILLED);
+        assertThat(consumed).containsExactly(50L);
+    }
+
+    @Test
+    void notifyHolders_shouldEnqueueOneNotificationPerHandedOverLoan() {
+        // given
+        Loan handedOver = new Loan();
+        handedOver.setId(101L);
+        handedOver.setUser(user);
+        handedOver.setBook(book);
+        handedOver.setDueDate(LocalDate.now().plusDays(14));
+
+        // when
+        holdService.notifyHolders(List.of(handedOver));
+
+        // then
+        verify(notificationService).createLoanNotifications(argThat(notifications -> notifications.size() == 1
+                && notifications.get(0).getUserId().equals(user.getId())
+                && notifications.get(0).getLoanId().equals(101L)
+                && notifications.get(0).getMessage().contains("Test Book")));
+    }
+
+    @Test
+    void notifyHolders_shouldDoNothing_whenNoCopyWasHandedOver() {
+        holdService.notifyHolders(List.of());
+
+        verifyNoInteractions(notificationService);
+    }
+}
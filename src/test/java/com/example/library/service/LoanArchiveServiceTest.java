@@ -0,0 +1,90 @@
+package com.example.library.service;
+
+import com.example.library.exception.BusinessException;
+import com.example.library.loan.LoanArchiveJob;
+import com.example.library.model.ArchivedLoan;
+import com.example.library.model.Book;
+import com.example.library.model.Loan;
+import com.example.library.model.User;
+import com.example.library.repository.ArchivedLoanRepository;
+import com.example.library.repository.LoanRepository;
+import com.example.library.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoanArchiveServiceTest {
+
+    @Mock
+    private ArchivedLoanRepository archivedLoanRepository;
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private LoanArchiveJob loanArchiveJob;
+
+    @InjectMocks
+    private LoanArchiveService loanArchiveService;
+
+    @Test
+    void getLoanHistoryForUserEmail_shouldReturnArchivedLoansFirstInLoanShape() {
+        // given
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("user@test.com");
+        Book book = new Book();
+        book.setId(10L);
+
+        ArchivedLoan archived = new ArchivedLoan();
+        archived.setId(3L);
+        archived.setUser(user);
+        archived.setBook(book);
+        archived.setLoanDate(LocalDate.of(2022, 1, 1));
+        archived.setDueDate(LocalDate.of(2022, 1, 15));
+        archived.setReturnDate(LocalDate.of(2022, 1, 10));
+        Loan current = new Loan();
+        current.setId(40L);
+
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(archivedLoanRepository.findByUserIdOrderByIdAsc(user.getId())).thenReturn(List.of(archived));
+        when(loanRepository.findByUserId(user.getId())).thenReturn(List.of(current));
+
+        // when
+        List<Loan> history = loanArchiveService.getLoanHistoryForUserEmail(user.getEmail());
+
+        // then
+        assertThat(history).extracting(Loan::getId).containsExactly(3L, 40L);
+        assertThat(history.get(0).getBook()).isEqualTo(book);
+        assertThat(history.get(0).getReturnDate()).isEqualTo(LocalDate.of(2022, 1, 10));
+    }
+
+    @Test
+    void getLoanHistoryForUserEmail_shouldThrow_whenUserNotFound() {
+        // given
+        when(userRepository.findByEmail("missing@test.com")).thenReturn(Optional.empty());
+
+        // when
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> loanArchiveService.getLoanHistoryForUserEmail("missing@test.com"));
+
+        // then
+        assertThat(ex.getStatus()).isEqualTo(HttpStatus.NOT_FOUND);
+        verifyNoInteractions(archivedLoanRepository, loanRepository);
+    }
+}
@@ -0,0 +1,322 @@
+package com.example.library.service;
+
+import com.example.library.exception.BusinessException;
+import com.example.library.hold.HoldQueueIndex;
+import com.example.library.loan.DueDateIndex;
+import com.example.library.loan.OverdueNotificationJob;
+import com.example.library.lock.BookLockManager;
+import com.example.library.model.HoldStatus;
+import com.example.library.model.Book;
+import com.example.library.model.Loan;
+import com.example.library.model.User;
+import com.example.library.notification.NotificationQueue;
+import com.example.library.notification.NotificationRetentionJob;
+import com.example.library.notification.NotificationStreamHub;
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.HoldRepository;
+import com.example.library.repository.LoanBatchRepository;
+import com.example.library.repository.LoanRepository;
+import com.example.library.repository.LoanStatsRepository;
+import com.example.library.repository.NotificationBatchRepository;
+import com.example.library.repository.NotificationCounterRepository;
+import com.example.library.repository.NotificationRepository;
+import com.example.library.repository.NotificationRetentionRepository;
+import com.example.library.repository.UserRepository;
+import com.example.library.search.BookSearchIndex;
+import com.example.library.search.SearchResultCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// imprumuturi / returnari reale, fiecare in tranzactia ei, pornite simultan din multe thread-uri
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:loan-stress;MODE=MySQL;LOCK_TIMEOUT=10000",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.datasource.hikari.maximum-pool-size=16"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({LoanService.class, NotificationService.class, BookSearchIndex.class, SearchResultCache.class,
+        BookLockManager.class, LoanBatchRepository.class, HoldService.class, HoldQueueIndex.class,
+        DueDateIndex.class, OverdueNotificationJob.class, NotificationBatchRepository.class,
+        LoanStatsRepository.class, NotificationQueue.class, NotificationStreamHub.class,
+        NotificationCounterRepository.class, NotificationRetentionJob.class, NotificationRetentionRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LoanServiceConcurrencyTest {
+
+    private static final int THREADS = 64;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    @Autowired
+    private LoanStatsRepository loanStatsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NotificationQueue notificationQueue;
+
+    @AfterEach
+    void cleanUp() throws InterruptedException {
+        // notificarile de la rezervari se scriu asincron; altfel ar putea aparea dupa stergerea imprumuturilor
+        assertThat(notificationQueue.awaitDrained(Duration.ofSeconds(10))).isTrue();
+        notificationRepository.deleteAll();
+        holdRepository.deleteAll();
+        loanRepository.deleteAll();
+        bookRepository.deleteAll();
+        userRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM user_loan_stats");
+        jdbcTemplate.update("DELETE FROM book_loan_stats");
+        jdbcTemplate.update("DELETE FROM user_notification_stats");
+    }
+
+    private Book saveBook(int copies) {
+        return saveBook(copies, "STRESS-1");
+    }
+
+    private Book saveBook(int copies, String isbn) {
+        Book book = new Book();
+        book.setTitle("Popular Title");
+        book.setAuthor("Author");
+        book.setIsbn(isbn);
+        book.setPublishedYear(2020);
+        book.setAvailableCopies(copies);
+        return bookRepository.save(book);
+    }
+
+    private List<User> saveUsers(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setName("User " + i);
+            user.setEmail("user" + i + "@stress.test");
+            user.setPassword("password");
+            users.add(user);
+        }
+        return userRepository.saveAll(users);
+    }
+
+    // porneste toate task-urile deodata si numara cate au reusit
+    private int runConcurrently(List<Callable<Object>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (Callable<Object> task : tasks) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        task.call();
+                        return true;
+                    } catch (BusinessException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int succeeded = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(60, TimeUnit.SECONDS)) {
+                    succeeded++;
+                }
+            }
+            return succeeded;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void createLoan_shouldNeverOversell_whenManyUsersBorrowLastCopiesAtOnce() throws Exception {
+        // given
+        int copies = 5;
+        Book book = saveBook(copies);
+        List<User> users = saveUsers(THREADS);
+
+        List<Callable<Object>> borrows = new ArrayList<>();
+        for (User user : users) {
+            borrows.add(() -> loanService.createLoan(user.getId(), book.getId()));
+        }
+
+        // when
+        int succeeded = runConcurrently(borrows);
+
+        // then
+        assertThat(succeeded).isEqualTo(copies);
+        assertThat(loanRepository.count()).isEqualTo(copies);
+        assertThat(bookRepository.findAvailableCopiesById(book.getId())).isZero();
+    }
+
+    @Test
+    void decrementAvailableCopies_shouldNeverOversell_withoutBookLock() throws Exception {
+        // given: UPDATE-ul conditionat singur, fara BookLockManager, cu mai multi concurenti decat exemplare
+        int copies = 5;
+        Book book = saveBook(copies);
+        AtomicInteger decremented = new AtomicInteger();
+
+        List<Callable<Object>> decrements = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            decrements.add(() -> decremented.addAndGet(bookRepository.decrementAvailableCopies(book.getId())));
+        }
+
+        // when
+        runConcurrently(decrements);
+
+        // then: exact cate exemplare erau, iar stocul se opreste la zero
+        assertThat(decremented.get()).isEqualTo(copies);
+        assertThat(bookRepository.findAvailableCopiesById(book.getId())).isZero();
+    }
+
+    @Test
+    void borrowAndReturn_shouldKeepStockConsistent_underMixedLoad() throws Exception {
+        // given: jumatate din useri au deja cate un imprumut, cealalta jumatate incearca sa imprumute
+        int copies = THREADS / 2;
+        Book book = saveBook(copies);
+        List<User> users = saveUsers(THREADS);
+        List<Loan> existingLoans = new ArrayList<>();
+        for (User user : users.subList(0, THREADS / 2)) {
+            existingLoans.add(loanService.createLoan(user.getId(), book.getId()));
+        }
+
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS / 2; i++) {
+            Loan loan = existingLoans.get(i);
+            User borrower = users.get(THREADS / 2 + i);
+            tasks.add(() -> loanService.returnLoan(loan.getId(), loan.getUser().getEmail()));
+            // acelasi imprumut returnat de doua ori in paralel: doar o returnare trebuie sa conteze
+            tasks.add(() -> loanService.returnLoan(loan.getId(), loan.getUser().getEmail()));
+            tasks.add(() -> loanService.createLoan(borrower.getId(), book.getId()));
+        }
+
+        // when
+        runConcurrently(tasks);
+
+        // then: exemplare disponibile + imprumuturi active = stocul initial
+        int available = bookRepository.findAvailableCopiesById(book.getId());
+        int active = loanRepository.findByReturnDateIsNull().size();
+        assertThat(available).isGreaterThanOrEqualTo(0);
+        assertThat(available + active).isEqualTo(copies);
+
+        // contoarele materializate spun acelasi lucru ca o numaratoare pe tabela de imprumuturi
+        assertThat(loanStatsRepository.findForBook(book.getId())).hasValueSatisfying(counters -> {
+            assertThat(counters.getActiveLoans()).isEqualTo(active);
+            assertThat(counters.getLifetimeLoans()).isEqualTo(loanRepository.count());
+        });
+    }
+
+    @Test
+    void returnLoan_shouldHandCopiesToHoldersInFifoOrder_whenReturnedConcurrently() throws Exception {
+        // given: toate exemplarele imprumutate, mai multe rezervari decat exemplare, toate returnate simultan
+        int copies = 3;
+        int holds = 5;
+        Book book = saveBook(copies);
+        List<User> users = saveUsers(copies + holds);
+        List<Loan> loans = new ArrayList<>();
+        for (User user : users.subList(0, copies)) {
+            loans.add(loanService.createLoan(user.getId(), book.getId()));
+        }
+        List<User> holders = users.subList(copies, copies + holds);
+        for (User holder : holders) {
+            holdService.placeHold(book.getId(), holder.getEmail());
+        }
+
+        List<Callable<Object>> returns = new ArrayList<>();
+        for (Loan loan : loans) {
+            returns.add(() -> loanService.returnLoan(loan.getId(), loan.getUser().getEmail()));
+        }
+
+        // when
+        int succeeded = runConcurrently(returns);
+
+        // then: primele 3 rezervari (in ordinea plasarii) au primit exemplarele, ultimele 2 asteapta in continuare
+        assertThat(succeeded).isEqualTo(copies);
+        List<User> served = holders.subList(0, copies);
+        List<User> waiting = holders.subList(copies, holds);
+        assertThat(holdRepository.findByStatusOrderByIdAsc(HoldStatus.FULFILLED))
+                .extracting(hold -> hold.getUser().getId())
+                .containsExactlyElementsOf(served.stream().map(User::getId).toList());
+        assertThat(holdRepository.findByStatusOrderByIdAsc(HoldStatus.WAITING))
+                .extracting(hold -> hold.getUser().getId())
+                .containsExactlyElementsOf(waiting.stream().map(User::getId).toList());
+        for (User holder : served) {
+            assertThat(loanRepository.findByUserIdAndReturnDateIsNull(holder.getId())).hasSize(1);
+        }
+        assertThat(holdService.getQueueLength(book.getId())).isEqualTo(holds - copies);
+        assertThat(bookRepository.findAvailableCopiesById(book.getId())).isZero();
+
+        // notificarile de predare ajung in DB prin coada, dupa commit-ul fiecarei returnari
+        assertThat(notificationQueue.awaitDrained(Duration.ofSeconds(10))).isTrue();
+        for (User holder : served) {
+            assertThat(notificationRepository.findByUserIdOrderByCreatedAtDesc(holder.getId())).hasSize(1);
+        }
+    }
+
+    @Test
+    void placeHoldAndReturnLoan_shouldNeverLeaveCopyOnShelfWhileHoldWaits() throws Exception {
+        // given: in fiecare runda ultimul exemplar e imprumutat, apoi cineva il rezerva exact cand e returnat
+        int rounds = 20;
+        List<User> users = saveUsers(rounds * 2);
+
+        for (int round = 0; round < rounds; round++) {
+            Book book = saveBook(1, "STRESS-" + round);
+            User borrower = users.get(round * 2);
+            User holder = users.get(round * 2 + 1);
+            Loan loan = loanService.createLoan(borrower.getId(), book.getId());
+
+            // when
+            runConcurrently(List.of(
+                    () -> holdService.placeHold(book.getId(), holder.getEmail()),
+                    () -> loanService.returnLoan(loan.getId(), borrower.getEmail())));
+
+            // then: ori rezervarea a venit prima si a primit exemplarul, ori returnarea si exemplarul e in stoc
+            // (iar rezervarea a fost refuzata); niciodata o rezervare care asteapta langa un exemplar pe raft
+            boolean holdWaiting = !holdRepository.findByUserIdAndStatusOrderByIdAsc(holder.getId(), HoldStatus.WAITING)
+                    .isEmpty();
+            int available = bookRepository.findAvailableCopiesById(book.getId());
+            assertThat(holdWaiting && available > 0)
+                    .as("round %d: hold waiting with %d copies in stock", round, available)
+                    .isFalse();
+            assertThat(available + loanRepository.findByUserIdAndReturnDateIsNull(holder.getId()).size()).isEqualTo(1);
+        }
+    }
+}
@@ -1,25 +1,41 @@
 package com.example.library.service;
 
+import com.example.library.dto.BulkLoanResponse;
+import com.example.library.dto.BulkLoanStatus;
 import com.example.library.exception.BusinessException;
+import com.example.library.loan.DueDateIndex;
+import com.example.library.loan.OverdueNotificationJob;
+import com.example.library.loan.OverdueRunStats;
+import com.example.library.lock.BookLockManager;
 import com.example.library.model.Book;
 import com.example.library.model.Loan;
 import com.example.library.model.Role;
 import com.example.library.model.User;
 import com.example.library.repository.BookRepository;
+import com.example.library.repository.LoanBatchRepository;
 import com.example.library.repository.LoanRepository;
+import com.example.library.repository.LoanStatsRepository;
 import com.example.library.repository.UserRepository;
+import com.example.library.search.BookSearchIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -35,11 +51,32 @@ class LoanServiceTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private LoanBatchRepository loanBatchRepository;
+
     @Mock
     private UserRepository userRepository;
 
     @Mock
-    private NotificationService notificationService;
+    private LoanStatsRepository loanStatsRepository;
+
+    @Mock
+    private OverdueNotificationJob overdueNotificationJob;
+
+    @Mock
+    private HoldService holdService;
+
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+
+    @Mock
+    private DueDateIndex dueDateIndex;
+
+    @Spy
+    private BookLockManager bookLockManager = new BookLockManager(4);
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
     @InjectMocks
     private LoanService loanService;
@@ -154,12 +191,47 @@ class LoanServiceTest {
         verify(loanRepository).findByDueDateBeforeAndReturnDateIsNull(today);
     }
 
+    @Test
+    void getOverdueLoans_shouldLoadOnlyIdsFromDueDateIndex_whenReady() {
+        // given: 101 a fost returnat intre timp, deci iese si din index
+        LocalDate today = LocalDate.now();
+        Loan returned = new Loan();
+        returned.setId(101L);
+        returned.setReturnDate(today);
+        when(dueDateIndex.isReady()).thenReturn(true);
+        when(dueDateIndex.dueBefore(today)).thenReturn(List.of(100L, 101L));
+        when(loanRepository.findAllWithBookAndUserByIdIn(List.of(100L, 101L))).thenReturn(List.of(returned, loan));
+
+        // when
+        List<Loan> result = loanService.getOverdueLoans();
+
+        // then
+        assertThat(result).containsExactly(loan);
+        verify(dueDateIndex).remove(List.of(101L));
+        verify(loanRepository, never()).findByDueDateBeforeAndReturnDateIsNull(any());
+    }
+
+    @Test
+    void countOverdueLoans_shouldNotTouchRepository_whenIndexReady() {
+        // given
+        when(dueDateIndex.isReady()).thenReturn(true);
+        when(dueDateIndex.countDueBefore(LocalDate.now())).thenReturn(7);
+
+        // when
+        int count = loanService.countOverdueLoans();
+
+        // then
+        assertThat(count).isEqualTo(7);
+        verifyNoInteractions(loanRepository);
+    }
 
     @Test
     void createLoan_shouldCreateLoan_whenUserAndBookValidAndCopiesAvailable() {
         // given
         when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
         when(bookRepository.findById(book.getId())).thenReturn(Optional.of(book));
+        when(bookRepository.decrementAvailableCopies(book.getId())).thenReturn(1);
+        when(bookRepository.findAvailableCopiesById(book.getId())).thenReturn(2);
         when(loanRepository.save(any(Loan.class))).thenAnswer(invocation -> {
             Loan saved = invocation.getArgument(0);
             saved.setId(200L);
@@ -176,10 +248,18 @@ class LoanServiceTest {
         assertThat(result.getLoanDate()).isEqualTo(LocalDate.now());
         assertThat(result.getDueDate()).isEqualTo(LocalDate.now().plusDays(14));
 
-        // available copies scade cu 1
+        // available copies scade cu 1, printr-un UPDATE conditionat (fara save pe entitate)
         assertThat(book.getAvailableCopies()).isEqualTo(2);
-        verify(bookRepository).save(book);
+        verify(bookRepository).decrementAvailableCopies(book.getId());
+        verify(bookRepository, never()).save(any());
+        verify(bookSearchIndex).updateAvailability(book.getId(), 2);
         verify(loanRepository).save(any(Loan.class));
+        verify(loanStatsRepository).addToUser(user.getId(), 1, 1);
+        verify(loanStatsRepository).addToBook(book.getId(), 1, 1);
+
+        // sub lock-ul cartii, intr-o singura tranzactie
+        verify(bookLockManager).withLock(eq(book.getId()), any());
+        verify(transactionManager).commit(any());
     }
 
     @Test
@@ -245,6 +325,7 @@ class LoanServiceTest {
         book.setAvailableCopies(0);
         when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
         when(bookRepository.findById(book.getId())).thenReturn(Optional.of(book));
+        when(bookRepository.decrementAvailableCopies(book.getId())).thenReturn(0);
 
         // when
         BusinessException ex = assertThrows(
@@ -256,6 +337,7 @@ class LoanServiceTest {
         assertThat(ex.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
         assertThat(ex.getMessage()).contains("No copies available");
         verify(loanRepository, never()).save(any());
+        verifyNoInteractions(bookSearchIndex);
     }
 
 
@@ -264,7 +346,8 @@ class LoanServiceTest {
         // given
         when(loanRepository.findById(loan.getId())).thenReturn(Optional.of(loan));
         when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
-        when(loanRepository.save(any(Loan.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(loanRepository.markReturned(loan.getId(), LocalDate.now())).thenReturn(1);
+        when(bookRepository.findAvailableCopiesById(book.getId())).thenReturn(book.getAvailableCopies() + 1);
 
         int copiesBefore = book.getAvailableCopies();
 
@@ -277,8 +360,36 @@ class LoanServiceTest {
 
         verify(loanRepository).findById(loan.getId());
         verify(userRepository).findByEmail(user.getEmail());
-        verify(bookRepository).save(book);
-        verify(loanRepository).save(loan);
+        verify(loanRepository).markReturned(loan.getId(), LocalDate.now());
+        verify(bookRepository).incrementAvailableCopies(book.getId());
+        verify(bookRepository, never()).save(any());
+        // imprumutul nu mai e activ, dar ramane in totalul de imprumuturi
+        verify(loanStatsRepository).addToUser(user.getId(), -1, 0);
+        verify(loanStatsRepository).addToBook(book.getId(), -1, 0);
+    }
+
+    @Test
+    void returnLoan_shouldHandCopyToNextHolderWithoutIncreasingStock() {
+        // given
+        Loan handedOver = new Loan();
+        handedOver.setId(101L);
+        when(loanRepository.findById(loan.getId())).thenReturn(Optional.of(loan));
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(loanRepository.markReturned(loan.getId(), LocalDate.now())).thenReturn(1);
+        when(holdService.handOverToNextHolder(eq(book), anyCollection())).thenAnswer(invocation -> {
+            invocation.<Collection<Long>>getArgument(1).add(7L);
+            return handedOver;
+        });
+        when(bookRepository.findAvailableCopiesById(book.getId())).thenReturn(0);
+
+        // when
+        loanService.returnLoan(loan.getId(), user.getEmail());
+
+        // then
+        verify(bookRepository, never()).incrementAvailableCopies(anyLong());
+        verify(holdService).removeFromQueue(List.of(7L));
+        verify(bookSearchIndex).updateAvailability(book.getId(), 0);
+        verify(holdService).notifyHolders(List.of(handedOver));
     }
 
     @Test
@@ -301,6 +412,25 @@ class LoanServiceTest {
         verify(loanRepository, never()).save(any());
     }
 
+    @Test
+    void returnLoan_shouldThrow_whenReturnedConcurrently() {
+        // given: imprumutul a fost returnat intre citire si UPDATE
+        when(loanRepository.findById(loan.getId())).thenReturn(Optional.of(loan));
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(loanRepository.markReturned(loan.getId(), LocalDate.now())).thenReturn(0);
+
+        // when
+        BusinessException ex = assertThrows(
+                BusinessException.class,
+                () -> loanService.returnLoan(loan.getId(), user.getEmail())
+        );
+
+        // then
+        assertThat(ex.getMessage()).contains("Loan already returned");
+        verify(bookRepository, never()).incrementAvailableCopies(anyLong());
+        verifyNoInteractions(bookSearchIndex);
+    }
+
     @Test
     void returnLoan_shouldThrow_whenCurrentUserNotFound() {
         // given
@@ -325,7 +455,8 @@ class LoanServiceTest {
         // given
         when(loanRepository.findById(loan.getId())).thenReturn(Optional.of(loan));
         when(userRepository.findByEmail(librarian.getEmail())).thenReturn(Optional.of(librarian));
-        when(loanRepository.save(any(Loan.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(loanRepository.markReturned(loan.getId(), LocalDate.now())).thenReturn(1);
+        when(bookRepository.findAvailableCopiesById(book.getId())).thenReturn(book.getAvailableCopies() + 1);
 
         int copiesBefore = book.getAvailableCopies();
 
@@ -335,8 +466,7 @@ class LoanServiceTest {
         // then
         assertThat(result.getReturnDate()).isEqualTo(LocalDate.now());
         assertThat(book.getAvailableCopies()).isEqualTo(copiesBefore + 1);
-        verify(bookRepository).save(book);
-        verify(loanRepository).save(loan);
+        verify(bookRepository).incrementAvailableCopies(book.getId());
     }
 
     @Test
@@ -375,6 +505,8 @@ class LoanServiceTest {
         // then
         verify(loanRepository).findById(loan.getId());
         verify(loanRepository).delete(loan);
+        verify(loanStatsRepository).addToUser(user.getId(), -1, -1);
+        verify(loanStatsRepository).addToBook(book.getId(), -1, -1);
     }
 
 
@@ -384,6 +516,7 @@ class LoanServiceTest {
         when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
         when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
         when(bookRepository.findById(book.getId())).thenReturn(Optional.of(book));
+        when(bookRepository.decrementAvailableCopies(book.getId())).thenReturn(1);
         when(loanRepository.save(any(Loan.class))).thenAnswer(invocation -> {
             Loan saved = invocation.getArgument(0);
             saved.setId(300L);
@@ -464,30 +597,154 @@ class LoanServiceTest {
 
 
     @Test
-    void createOverdueNotifications_shouldCreateNotificationForEachOverdueLoan() {
+    void createLoans_shouldReportOutcomePerBookInRequestOrder() {
+        // given: 10 si 11 exista (11 fara exemplare), 12 nu exista, 10 apare de doua ori
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(loanBatchRepository.findAvailableCopies(List.of(10L, 11L, 12L))).thenReturn(Map.of(10L, 3, 11L, 0));
+        when(loanBatchRepository.decrementAvailableCopies(List.of(10L, 11L))).thenReturn(new int[]{1, 0});
+        when(loanBatchRepository.insertLoans(eq(user.getId()), eq(List.of(10L)), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(List.of(500L));
+        when(loanBatchRepository.findAvailableCopies(List.of(10L))).thenReturn(Map.of(10L, 2));
+
+        // when
+        BulkLoanResponse response = loanService.createLoans(user.getId(), List.of(10L, 11L, 12L, 10L));
+
+        // then
+        assertThat(response.getSucceeded()).isEqualTo(1);
+        assertThat(response.getFailed()).isEqualTo(3);
+        assertThat(response.getItems()).extracting("bookId").containsExactly(10L, 11L, 12L, 10L);
+        assertThat(response.getItems()).extracting("status").containsExactly(
+                BulkLoanStatus.BORROWED, BulkLoanStatus.NO_COPIES, BulkLoanStatus.BOOK_NOT_FOUND, BulkLoanStatus.DUPLICATE);
+        assertThat(response.getItems().get(0).getLoanId()).isEqualTo(500L);
+        verify(bookSearchIndex).updateAvailability(10L, 2);
+        verify(bookLockManager).withLocks(eq(List.of(10L, 11L, 12L)), any());
+    }
+
+    @Test
+    void createLoans_shouldNotWriteAnything_whenNoBookHasCopies() {
         // given
-        when(loanRepository.findByDueDateBeforeAndReturnDateIsNull(any(LocalDate.class)))
-                .thenReturn(List.of(loan));
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(loanBatchRepository.findAvailableCopies(List.of(10L))).thenReturn(Map.of(10L, 0));
+        when(loanBatchRepository.decrementAvailableCopies(List.of(10L))).thenReturn(new int[]{0});
 
         // when
-        int count = loanService.createOverdueNotifications();
+        BulkLoanResponse response = loanService.createLoans(user.getId(), List.of(10L));
+
+        // then
+        assertThat(response.getSucceeded()).isZero();
+        verify(loanBatchRepository, never()).insertLoans(any(), any(), any(), any());
+        verifyNoInteractions(bookSearchIndex);
+    }
+
+    @Test
+    void createLoans_shouldThrow_whenTooManyBooks() {
+        // given
+        List<Long> bookIds = new ArrayList<>();
+        for (long id = 1; id <= 101; id++) {
+            bookIds.add(id);
+        }
+
+        // when
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> loanService.createLoans(user.getId(), bookIds));
+
+        // then
+        assertThat(ex.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(userRepository, loanBatchRepository);
+    }
+
+    @Test
+    void createLoans_shouldThrow_whenUserInactive() {
+        // given
+        user.setActive(false);
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+
+        // when
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> loanService.createLoans(user.getId(), List.of(10L)));
+
+        // then
+        assertThat(ex.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(loanBatchRepository);
+    }
+
+    @Test
+    void returnLoans_shouldAggregateCopiesPerBookAndReportEachLoan() {
+        // given: 100 si 101 pe aceeasi carte, 102 deja returnat, 103 nu exista
+        Loan second = new Loan();
+        second.setId(101L);
+        second.setUser(user);
+        second.setBook(book);
+        Loan returned = new Loan();
+        returned.setId(102L);
+        returned.setUser(user);
+        returned.setBook(book);
+        returned.setReturnDate(LocalDate.now().minusDays(1));
+        when(userRepository.findByEmail(librarian.getEmail())).thenReturn(Optional.of(librarian));
+        when(loanRepository.findAllWithBookAndUserByIdIn(List.of(100L, 101L, 102L, 103L)))
+                .thenReturn(List.of(loan, second, returned));
+        when(loanBatchRepository.markReturned(eq(List.of(100L, 101L)), any(LocalDate.class))).thenReturn(new int[]{1, 1});
+        when(loanBatchRepository.findAvailableCopies(Set.of(book.getId()))).thenReturn(Map.of(book.getId(), 5));
+
+        // when
+        BulkLoanResponse response = loanService.returnLoans(List.of(100L, 101L, 102L, 103L, 100L), librarian.getEmail());
+
+        // then
+        assertThat(response.getSucceeded()).isEqualTo(2);
+        assertThat(response.getItems()).extracting("status").containsExactly(
+                BulkLoanStatus.RETURNED, BulkLoanStatus.RETURNED, BulkLoanStatus.ALREADY_RETURNED,
+                BulkLoanStatus.LOAN_NOT_FOUND, BulkLoanStatus.DUPLICATE);
+        verify(loanBatchRepository).incrementAvailableCopies(Map.of(book.getId(), 2));
+        verify(bookSearchIndex).updateAvailability(book.getId(), 5);
+        verify(loanStatsRepository).addToUser(user.getId(), -2, 0);
+        verify(loanStatsRepository).addToBooks(Map.of(book.getId(), 2), -1, 0);
+        verify(loanRepository, never()).save(any());
+    }
+
+    @Test
+    void returnLoans_shouldSkipLoansOfOtherUsers_whenCallerIsNotStaff() {
+        // given
+        User other = new User();
+        other.setId(3L);
+        other.setEmail("other@test.com");
+        other.setRole(Role.USER);
+        when(userRepository.findByEmail(other.getEmail())).thenReturn(Optional.of(other));
+        when(loanRepository.findAllWithBookAndUserByIdIn(List.of(100L))).thenReturn(List.of(loan));
+
+        // when
+        BulkLoanResponse response = loanService.returnLoans(List.of(100L), other.getEmail());
+
+        // then
+        assertThat(response.getItems()).extracting("status").containsExactly(BulkLoanStatus.NOT_ALLOWED);
+        verifyNoInteractions(loanBatchRepository);
+    }
+
+    @Test
+    void returnLoans_shouldReportAlreadyReturned_whenLoanReturnedConcurrently() {
+        // given
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(loanRepository.findAllWithBookAndUserByIdIn(List.of(100L))).thenReturn(List.of(loan));
+        when(loanBatchRepository.markReturned(eq(List.of(100L)), any(LocalDate.class))).thenReturn(new int[]{0});
+
+        // when
+        BulkLoanResponse response = loanService.returnLoans(List.of(100L), user.getEmail());
 
         // then
-        assertThat(count).isEqualTo(1);
-        verify(notificationService).createLoanNotification(eq(loan), anyString());
+        assertThat(response.getSucceeded()).isZero();
+        assertThat(response.getItems()).extracting("status").containsExactly(BulkLoanStatus.ALREADY_RETURNED);
+        verify(loanBatchRepository, never()).incrementAvailableCopies(any());
     }
 
     @Test
-    void createOverdueNotifications_shouldReturnZero_whenNoOverdueLoans() {
+    void createOverdueNotifications_shouldRunJobAndReturnNotificationCount() {
         // given
-        when(loanRepository.findByDueDateBeforeAndReturnDateIsNull(any(LocalDate.class)))
-                .thenReturn(List.of());
+        when(overdueNotificationJob.run()).thenReturn(new OverdueRunStats(LocalDateTime.now(), 3, 3, 5, List.of()));
 
         // when
         int count = loanService.createOverdueNotifications();
 
         // then
-        assertThat(count).isEqualTo(0);
-        verify(notificationService, never()).createLoanNotification(any(), anyString());
+        assertThat(count).isEqualTo(3);
+        verify(overdueNotificationJob).run();
     }
 }
@@ -0,0 +1,104 @@
+package com.example.library.service;
+
+import com.example.library.exception.BusinessException;
+import com.example.library.loan.LoanCounters;
+import com.example.library.model.User;
+import com.example.library.repository.BookRepository;
+import com.example.library.repository.LoanStatsRepository;
+import com.example.library.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoanStatsServiceTest {
+
+    @Mock
+    private LoanStatsRepository loanStatsRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @InjectMocks
+    private LoanStatsService loanStatsService;
+
+    @Test
+    void getForUserEmail_shouldReturnZeros_whenUserNeverBorrowed() {
+        // given
+        User user = new User();
+        user.setId(1L);
+        user.setEmail("user@test.com");
+        when(userRepository.findByEmail("user@test.com")).thenReturn(Optional.of(user));
+        when(loanStatsRepository.findForUser(1L)).thenReturn(Optional.empty());
+
+        // when
+        LoanCounters result = loanStatsService.getForUserEmail("user@test.com");
+
+        // then
+        assertThat(result.getId()).isEqualTo(1L);
+        assertThat(result.getActiveLoans()).isZero();
+        assertThat(result.getLifetimeLoans()).isZero();
+    }
+
+    @Test
+    void getForBook_shouldReadCountersWithoutTouchingBooks() {
+        // given
+        when(loanStatsRepository.findForBook(10L)).thenReturn(Optional.of(new LoanCounters(10L, 2, 40)));
+
+        // when
+        LoanCounters result = loanStatsService.getForBook(10L);
+
+        // then
+        assertThat(result.getLifetimeLoans()).isEqualTo(40);
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void getForBook_shouldThrow_whenBookNotFound() {
+        // given
+        when(loanStatsRepository.findForBook(99L)).thenReturn(Optional.empty());
+        when(bookRepository.existsById(99L)).thenReturn(false);
+
+        // when
+        BusinessException ex = assertThrows(BusinessException.class, () -> loanStatsService.getForBook(99L));
+
+        // then
+        assertThat(ex.getStatus()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void backfill_shouldRebuildOnlyWhenCountersAreEmpty() {
+        // given
+        when(loanStatsRepository.isEmpty()).thenReturn(false);
+
+        // when
+        loanStatsService.backfill();
+
+        // then
+        verify(loanStatsRepository, never()).rebuild();
+    }
+
+    @Test
+    void afterSingletonsInstantiated_shouldRebuildEmptyCountersBeforeServing() {
+        // given
+        when(loanStatsRepository.isEmpty()).thenReturn(true);
+
+        // when
+        loanStatsService.afterSingletonsInstantiated();
+
+        // then
+        verify(loanStatsRepository).rebuild();
+    }
+}
@@ -1,10 +1,18 @@
 package com.example.library.service;
 
+import com.example.library.loan.DueDateIndex;
 import com.example.library.model.Loan;
 import com.example.library.model.Notification;
+import com.example.library.model.NotificationKind;
 import com.example.library.model.Role;
 import com.example.library.model.User;
+import com.example.library.notification.NotificationQueue;
+import com.example.library.notification.NotificationRetentionJob;
+import com.example.library.notification.NotificationStreamHub;
+import com.example.library.notification.PendingNotification;
 import com.example.library.repository.LoanRepository;
+import com.example.library.repository.NotificationBatchRepository;
+import com.example.library.repository.NotificationCounterRepository;
 import com.example.library.repository.NotificationRepository;
 import com.example.library.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,10 +22,13 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -37,6 +48,27 @@ class NotificationServiceTest {
     @Mock
     private LoanRepository loanRepository;
 
+    @Mock
+    private DueDateIndex dueDateIndex;
+
+    @Mock
+    private NotificationQueue notificationQueue;
+
+    @Mock
+    private NotificationBatchRepository notificationBatchRepository;
+
+    @Mock
+    private NotificationStreamHub notificationStreamHub;
+
+    @Mock
+    private NotificationCounterRepository notificationCounterRepository;
+
+    @Mock
+    private NotificationRetentionJob notificationRetentionJob;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private NotificationService notificationService;
 
@@ -72,6 +104,17 @@ class NotificationServiceTest {
     }
 
 
+    @Test
+    void afterSingletonsInstantiated_shouldRebuildUnreadCountersOnlyWhenEmpty() {
+        when(notificationCounterRepository.isEmpty()).thenReturn(true).thenReturn(false);
+
+        notificationService.afterSingletonsInstantiated();
+        notificationService.afterSingletonsInstantiated();
+
+        verify(notificationCounterRepository, times(1)).rebuild();
+    }
+
+
     @Test
     void getNotificationsForUser_shouldReturnList() {
         when(notificationRepository.findByUserIdOrderByCreatedAtDesc(user.getId()))
@@ -128,17 +171,77 @@ class NotificationServiceTest {
 
 
     @Test
-    void markAsRead_shouldSetFlagTrue_andSave() {
+    void markAllAsRead_shouldUpdateInOneStatementAndSubtractFromCounter() {
+        when(notificationRepository.markAllReadForEmail(user.getEmail())).thenReturn(12);
+
+        int result = notificationService.markAllAsRead(user.getEmail());
+
+        assertThat(result).isEqualTo(12);
+        verify(notificationCounterRepository).subtractUnreadForEmail(user.getEmail(), 12);
+        verify(notificationRepository, never()).findById(any());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void deleteNotifications_shouldSubtractOnlyUnreadFromCounter() {
+        List<Long> ids = List.of(100L, 101L, 102L);
+        when(notificationRepository.deleteForEmail(ids, false, user.getEmail())).thenReturn(2);
+        when(notificationRepository.deleteForEmail(ids, true, user.getEmail())).thenReturn(1);
+
+        int result = notificationService.deleteNotifications(ids, user.getEmail());
+
+        assertThat(result).isEqualTo(3);
+        verify(notificationCounterRepository).subtractUnreadForEmail(user.getEmail(), 2);
+        verify(notificationRepository, never()).delete(any());
+    }
+
+    @Test
+    void countUnreadForUserEmail_shouldReadCounter() {
+        when(notificationCounterRepository.findUnreadByEmail(user.getEmail())).thenReturn(7);
+
+        int result = notificationService.countUnreadForUserEmail(user.getEmail());
+
+        assertThat(result).isEqualTo(7);
+        verifyNoInteractions(notificationRepository);
+    }
+
+    @Test
+    void markAsRead_shouldSetFlagTrue_andDecrementUnreadCounter() {
+        when(notificationRepository.findById(notification.getId()))
+                .thenReturn(Optional.of(notification));
+        when(notificationRepository.markRead(notification.getId())).thenReturn(1);
+
+        Notification result =
+                notificationService.markAsRead(notification.getId(), user.getEmail());
+
+        assertThat(result.isReadFlag()).isTrue();
+        verify(notificationCounterRepository).addUnread(user.getId(), -1);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void markAsRead_shouldNotDecrementTwice_whenMarkedConcurrently() {
         when(notificationRepository.findById(notification.getId()))
                 .thenReturn(Optional.of(notification));
-        when(notificationRepository.save(any(Notification.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(notificationRepository.markRead(notification.getId())).thenReturn(0);
 
         Notification result =
                 notificationService.markAsRead(notification.getId(), user.getEmail());
 
         assertThat(result.isReadFlag()).isTrue();
-        verify(notificationRepository).save(notification);
+        verifyNoInteractions(notificationCounterRepository);
+    }
+
+    @Test
+    void markAsRead_shouldDoNothing_whenAlreadyRead() {
+        notification.setReadFlag(true);
+        when(notificationRepository.findById(notification.getId()))
+                .thenReturn(Optional.of(notification));
+
+        notificationService.markAsRead(notification.getId(), user.getEmail());
+
+        verify(notificationRepository, never()).markRead(any());
+        verifyNoInteractions(notificationCounterRepository);
     }
 
     @Test
@@ -160,9 +263,25 @@ class NotificationServiceTest {
         when(notificationRepository.findById(notification.getId()))
                 .thenReturn(Optional.of(notification));
 
+        when(notificationRepository.deleteUnreadById(notification.getId())).thenReturn(1);
+
         notificationService.deleteNotification(notification.getId(), user.getEmail());
 
-        verify(notificationRepository).delete(notification);
+        verify(notificationCounterRepository).addUnread(user.getId(), -1);
+        verify(notificationRepository, never()).deleteById(any());
+    }
+
+    @Test
+    void deleteNotification_shouldKeepCounter_whenNotificationWasRead() {
+        notification.setReadFlag(true);
+        when(notificationRepository.findById(notification.getId()))
+                .thenReturn(Optional.of(notification));
+        when(notificationRepository.deleteUnreadById(notification.getId())).thenReturn(0);
+
+        notificationService.deleteNotification(notification.getId(), user.getEmail());
+
+        verify(notificationRepository).deleteById(notification.getId());
+        verifyNoInteractions(notificationCounterRepository);
     }
 
     @Test
@@ -176,45 +295,77 @@ class NotificationServiceTest {
         );
 
         assertThat(ex.getMessage()).contains("not allowed");
-        verify(notificationRepository, never()).delete(any());
+        verify(notificationRepository, never()).deleteUnreadById(any());
+        verify(notificationRepository, never()).deleteById(any());
     }
 
 
     @Test
-    void createNotification_shouldCreateForUser() {
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(notificationRepository.save(any(Notification.class)))
-                .thenAnswer(invocation -> {
-                    Notification n = invocation.getArgument(0);
-                    n.setId(500L);
-                    return n;
-                });
+    void subscribe_shouldOpenStreamForCurrentUser() {
+        SseEmitter emitter = new SseEmitter();
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(notificationStreamHub.subscribe(user.getId())).thenReturn(emitter);
 
-        Notification result =
-                notificationService.createNotification(user.getId(), "hello");
+        SseEmitter result = notificationService.subscribe(user.getEmail());
 
-        assertThat(result.getId()).isEqualTo(500L);
-        assertThat(result.getMessage()).isEqualTo("hello");
-        assertThat(result.getUser()).isEqualTo(user);
-        assertThat(result.getCreatedAt()).isNotNull();
+        assertThat(result).isSameAs(emitter);
+    }
+
+    @Test
+    void createNotification_shouldEnqueueForUser() {
+        when(userRepository.existsById(user.getId())).thenReturn(true);
 
-        verify(notificationRepository).save(any(Notification.class));
+        notificationService.createNotification(user.getId(), "hello");
+
+        ArgumentCaptor<PendingNotification> captor = ArgumentCaptor.forClass(PendingNotification.class);
+        verify(notificationQueue).enqueue(captor.capture());
+        assertThat(captor.getValue().getUserId()).isEqualTo(user.getId());
+        assertThat(captor.getValue().getLoanId()).isNull();
+        assertThat(captor.getValue().getMessage()).isEqualTo("hello");
+        assertThat(captor.getValue().getCreatedAt()).isNotNull();
+        verify(notificationRepository, never()).save(any());
+    }
+
+    @Test
+    void createNotification_shouldThrow_whenUserNotFound() {
+        when(userRepository.existsById(99L)).thenReturn(false);
+
+        assertThrows(RuntimeException.class, () -> notificationService.createNotification(99L, "hello"));
+
+        verifyNoInteractions(notificationQueue);
     }
 
 
     @Test
-    void createLoanNotification_shouldAttachLoanAndUser() {
-        when(notificationRepository.save(any(Notification.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
+    void createLoanNotifications_shouldEnqueueAllInOneCall() {
+        List<PendingNotification> notifications = List.of(
+                new PendingNotification(user.getId(), loan.getId(), "ready!", LocalDateTime.now()),
+                new PendingNotification(user.getId(), 51L, "ready too!", LocalDateTime.now()));
 
-        Notification n =
-                notificationService.createLoanNotification(loan, "overdue!");
+        notificationService.createLoanNotifications(notifications);
 
-        assertThat(n.getLoan()).isEqualTo(loan);
-        assertThat(n.getUser()).isEqualTo(user);
-        assertThat(n.getMessage()).isEqualTo("overdue!");
-        assertThat(n.getCreatedAt()).isNotNull();
-        verify(notificationRepository).save(any(Notification.class));
+        verify(notificationQueue).enqueue(notifications);
+        verify(notificationRepository, never()).save(any());
+    }
+
+    @Test
+    void createDailyLoanNotifications_shouldWriteCountAndPublishToStreams() {
+        // given: doua intarzieri pentru acelasi user
+        LocalDate today = LocalDate.now();
+        List<PendingNotification> notifications = List.of(
+                new PendingNotification(user.getId(), 7L, "overdue 7", LocalDateTime.now()),
+                new PendingNotification(user.getId(), 8L, "overdue 8", LocalDateTime.now()));
+        when(notificationBatchRepository.insertLoanNotifications(notifications, NotificationKind.OVERDUE, today))
+                .thenReturn(List.of(100L, 101L));
+
+        // when
+        int created = notificationService.createDailyLoanNotifications(notifications, NotificationKind.OVERDUE, today);
+
+        // then: scrise sincron (nu prin coada), cu contorul in aceeasi tranzactie, apoi trimise pe stream-uri
+        assertThat(created).isEqualTo(2);
+        verify(notificationCounterRepository).addUnread(Map.of(user.getId(), 2));
+        verify(notificationStreamHub).publish(notifications, List.of(100L, 101L));
+        verifyNoInteractions(notificationQueue);
     }
 
 
@@ -229,7 +380,24 @@ class NotificationServiceTest {
 
         notificationService.notifyLibrariansAboutOverdueLoansMoreThanWeekManual();
 
-        verify(notificationRepository, times(1)).save(any(Notification.class));
+        verify(notificationQueue, times(1)).enqueue(argThat((List<PendingNotification> list) -> list.size() == 1
+                && list.get(0).getUserId().equals(librarian.getId())));
+    }
+
+    @Test
+    void notifyLibrarians_shouldCountFromDueDateIndex_whenReady() {
+        LocalDate limit = LocalDate.now().minusWeeks(1);
+
+        when(dueDateIndex.isReady()).thenReturn(true);
+        when(dueDateIndex.countDueBefore(limit)).thenReturn(4);
+        when(userRepository.findByRole(Role.LIBRARIAN))
+                .thenReturn(List.of(librarian));
+
+        notificationService.notifyLibrariansAboutOverdueLoansMoreThanWeekManual();
+
+        verify(notificationQueue).enqueue(argThat((List<PendingNotification> list) ->
+                list.get(0).getMessage().startsWith("Exista 4 ")));
+        verify(loanRepository, never()).findByDueDateBeforeAndReturnDateIsNull(any());
     }
 
     @Test
@@ -241,7 +409,7 @@ class NotificationServiceTest {
 
         notificationService.notifyLibrariansAboutOverdueLoansMoreThanWeekManual();
 
-        verify(notificationRepository, never()).save(any());
+        verifyNoInteractions(notificationQueue);
         verify(userRepository, never()).findByRole(any());
     }
 }